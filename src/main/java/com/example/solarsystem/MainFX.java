@@ -22,10 +22,14 @@ import com.example.solarsystem.ui.TimeScaleControl;
 import com.example.solarsystem.ui.CelestialInfoPanel;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.beans.binding.Bindings;
 import javafx.stage.WindowEvent;
 import javafx.stage.Window;
 import javafx.stage.StageStyle;
 
+import java.nio.file.Paths;
+
 public class MainFX extends Application {
     private Stage primaryStage;
     private Scene scene;
@@ -37,6 +41,7 @@ public class MainFX extends Application {
     private TimeScaleControl timeScaleControl;
     private AnimationTimer animationTimer;
     private SimpleStringProperty statusMessage;
+    private Label debugLabel;
 
     private void createAnimation() {
         animationTimer = new AnimationTimer() {
@@ -84,12 +89,36 @@ public class MainFX extends Application {
         timeScaleControl = new TimeScaleControl(
             solarSystemManager.timeScaleProperty(),
             solarSystemManager.isPausedProperty(),
-            statusMessage
+            statusMessage,
+            solarSystemManager.currentTimeProperty(),
+            solarSystemManager.timelineEndProperty(),
+            solarSystemManager::seek
         );
         StackPane.setAlignment(timeScaleControl, Pos.BOTTOM_CENTER);
         StackPane.setMargin(timeScaleControl, new Insets(0, 0, 20, 0));
         root.getChildren().add(timeScaleControl);
 
+        // デバッグ表示（保存量のずれ、Dキーで切り替え）
+        debugLabel = new Label();
+        debugLabel.setStyle("-fx-text-fill: white; -fx-background-color: rgba(0, 0, 0, 0.6); -fx-padding: 6;"
+            + " -fx-font-family: monospace;");
+        debugLabel.textProperty().bind(Bindings.createStringBinding(
+            () -> solarSystemManager.driftMonitoredProperty().get()
+                ? String.format("エネルギー誤差: %.2e%n運動量誤差: %.2e%n角運動量誤差: %.2e",
+                    solarSystemManager.energyDriftProperty().get(),
+                    solarSystemManager.momentumDriftProperty().get(),
+                    solarSystemManager.angularMomentumDriftProperty().get())
+                // 監視の間隔が0か、軌道要素で動く天体があって保存量が保存されない間は、ずれを測っていない
+                : "保存量: 監視していません",
+            solarSystemManager.driftMonitoredProperty(),
+            solarSystemManager.energyDriftProperty(),
+            solarSystemManager.momentumDriftProperty(),
+            solarSystemManager.angularMomentumDriftProperty()));
+        debugLabel.setVisible(false);
+        StackPane.setAlignment(debugLabel, Pos.TOP_RIGHT);
+        StackPane.setMargin(debugLabel, new Insets(20, 20, 0, 0));
+        root.getChildren().add(debugLabel);
+
         // 一時停止ボタン
         Button pauseButton = new Button("一時停止");
         pauseButton.setOnAction(e -> {
@@ -121,7 +150,13 @@ public class MainFX extends Application {
         try {
             this.primaryStage = primaryStage;
             solarSystemManager = new SolarSystemManager();
+            solarSystemManager.startSimulationThread();
             createUI();
+            // --replay=記録ファイル を指定すると、シミュレーションの代わりに記録を再生する
+            String replay = getParameters().getNamed().get("replay");
+            if (replay != null) {
+                solarSystemManager.playFromRecording(Paths.get(replay));
+            }
             primaryStage.setTitle("Solar System Simulation");
             primaryStage.setScene(scene);
             primaryStage.setWidth(1920);  // 明示的にサイズを設定
@@ -143,6 +178,16 @@ public class MainFX extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        if (animationTimer != null) {
+            animationTimer.stop();
+        }
+        if (solarSystemManager != null) {
+            solarSystemManager.stopSimulationThread();
+        }
+    }
+
     private void setupMouseEvents() {
         scene.setOnMouseMoved(event -> {
             if (infoPanel.isVisible()) {
@@ -197,6 +242,16 @@ public class MainFX extends Application {
                 case I:
                     infoPanel.setVisible(!infoPanel.isVisible());
                     break;
+                case D:
+                    debugLabel.setVisible(!debugLabel.isVisible());
+                    break;
+                case V:
+                    // 再生中の向きを反転する（端で止まっていれば反対向きに動き出す）
+                    if (solarSystemManager.isPlayingBack()) {
+                        solarSystemManager.setPlaybackRate(-solarSystemManager.getPlaybackRate());
+                        solarSystemManager.resume();
+                    }
+                    break;
             }
         });
     }
@@ -25,6 +25,25 @@ public class CelestialDataLoader {
     public static class CelestialData {
         public String version;
         public List<CelestialBodyData> celestialBodies;
+        public SimulationData simulation;
+        public List<ParticlePopulationData> particlePopulations;
+    }
+
+    // シナリオごとのシミュレーション設定（省略可）
+    public static class SimulationData {
+        public String integrator;
+        public double physicsRate;  // 1秒あたりの物理ステップ数（0なら既定値）
+        public int maxSubSteps;     // 1フレームで進める最大ステップ数（0なら既定値）
+        public String propagation;  // 天体ごとの指定がない場合の伝播方式
+        public boolean simd;        // 直接計算をVector API（SIMD）で行うか
+        public double keyframeInterval;  // キーフレームを記録する間隔（シミュレーション時間・年、0なら既定値）
+        public double keyframeMemoryMB;  // キーフレームに使うメモリの上限（MB、0なら既定値）
+        public Integer conservationInterval;  // 保存量を監視する間隔（ステップ、0なら監視しない、省略時は既定値）
+        public double driftThreshold;   // 保存量の相対的なずれのしきい値（0なら既定値）
+        public String driftAction;      // しきい値を超えたときの動作（"none"・"warn"・"pause"）
+        public String collisions;       // 衝突時の動作（"none"・"log"・"merge"・"bounce"、省略時は判定しない）
+        public Double restitution;      // 跳ね返りの反発係数（0〜1、省略時は1）
+        public double encounterDistance;  // この距離（AU）より近づいた組を接近として記録する（0なら記録しない）
     }
 
     public static class CelestialBodyData {
@@ -37,6 +56,27 @@ public class CelestialDataLoader {
         public RotationData rotation;
         public String texture;
         public String color;
+        public String propagation;  // "nbody" または "kepler"（省略時はシナリオの既定値）
+        public String parent;       // 衛星の場合は親天体のid（軌道は親天体基準）
+    }
+
+    // 質量を持たない試験粒子の集団（小惑星帯など）
+    // orbitsで個別に与えるか、distributionで軌道要素の範囲から生成する（両方指定した場合は両方）
+    public static class ParticlePopulationData {
+        public String id;
+        public String name;
+        public String precision;  // "float64"（既定）または "float32"
+        public List<OrbitData> orbits;
+        public ParticleDistributionData distribution;
+    }
+
+    public static class ParticleDistributionData {
+        public int count;
+        public double semiMajorAxisMin;  // AU
+        public double semiMajorAxisMax;  // AU
+        public double eccentricityMax;
+        public double inclinationMax;    // 度
+        public long seed;                // 乱数の種（同じ値なら同じ分布になる）
     }
 
     public static class OrbitData {
@@ -86,6 +126,14 @@ public class CelestialDataLoader {
         return data;
     }
 
+    // 指定したファイルから読み込む（ヘッドレス実行など、既定の場所以外のデータを使う場合）
+    public static CelestialData loadData(Path path) throws IOException {
+        Gson gson = new GsonBuilder().create();
+        CelestialData data = loadFromFile(path.toString(), gson);
+        validateData(data);
+        return data;
+    }
+
     private static CelestialData loadFromFile(String path, Gson gson) throws IOException {
         Path filePath = Paths.get(path);
         if (!Files.exists(filePath)) {
@@ -110,5 +158,19 @@ public class CelestialDataLoader {
                 throw new RuntimeException("軌道データが不足しています: " + body.name);
             }
         }
+
+        if (data.particlePopulations != null) {
+            for (ParticlePopulationData population : data.particlePopulations) {
+                if (population.id == null) {
+                    throw new RuntimeException("粒子集団のidが不足しています: " + population.name);
+                }
+                ParticleDistributionData d = population.distribution;
+                if (d != null && (d.count < 0 || d.semiMajorAxisMin <= 0
+                        || d.semiMajorAxisMax < d.semiMajorAxisMin
+                        || d.eccentricityMax < 0 || d.eccentricityMax >= 1)) {
+                    throw new RuntimeException("粒子集団の分布パラメータが不正です: " + population.id);
+                }
+            }
+        }
     }
 } 
\ No newline at end of file
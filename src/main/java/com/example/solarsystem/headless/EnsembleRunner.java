@@ -0,0 +1,265 @@
+package com.example.solarsystem.headless;
+
+import com.example.solarsystem.data.CelestialDataLoader;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialData;
+import com.example.solarsystem.data.CelestialDataLoader.OrbitData;
+import com.example.solarsystem.model.BodyState;
+import com.example.solarsystem.model.NBodySimulation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// 初期条件を少しずつ変えたシナリオを多数実行し、安定性を調べるアンサンブル実行
+// 各実行はJavaFXを使わない独立したNBodySimulationで、ワークスティーリングのForkJoinPoolに振り分ける。
+// 結果は実行ごとにEnsembleStatisticsへ集計し、軌道は保持しない
+// 例: java -cp ... com.example.solarsystem.headless.EnsembleRunner --runs 1000 --years 100 --output summary.csv
+public class EnsembleRunner {
+    private static final Logger LOGGER = Logger.getLogger(EnsembleRunner.class.getName());
+
+    // 実行時の設定
+    public static class Options {
+        public Path data;                  // nullなら既定のデータ
+        public int runs = 100;             // 実行回数
+        public double years = 10.0;        // 1回あたりの積分期間（年）
+        public double dt = 1.0 / 600;      // 刻み幅（年）
+        public double massSigma = 0.01;    // 質量の相対的なばらつき（標準偏差）
+        public double axisSigma = 0.001;   // 長半径の相対的なばらつき
+        public double angleSigma = 0.001;  // 初期角度・傾斜のばらつき（ラジアン）
+        public double eccentricitySigma = 0.001;
+        public double ejectionRadius = 100;  // これより遠ざかった天体は放出とみなす（AU）
+        public long seed = 1;
+        public int parallelism = Runtime.getRuntime().availableProcessors();
+        public Path output;                // 集計結果のCSV（nullなら書き出さない）
+
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (int k = 0; k < args.length; k++) {
+                String name = args[k];
+                if (k + 1 >= args.length) {
+                    throw new IllegalArgumentException("値が指定されていません: " + name);
+                }
+                String value = args[++k];
+                switch (name) {
+                    case "--data": options.data = Paths.get(value); break;
+                    case "--runs": options.runs = (int) parsePositive(name, value); break;
+                    case "--years": options.years = parsePositive(name, value); break;
+                    case "--dt": options.dt = parsePositive(name, value); break;
+                    case "--mass-sigma": options.massSigma = Double.parseDouble(value); break;
+                    case "--axis-sigma": options.axisSigma = Double.parseDouble(value); break;
+                    case "--angle-sigma": options.angleSigma = Double.parseDouble(value); break;
+                    case "--eccentricity-sigma": options.eccentricitySigma = Double.parseDouble(value); break;
+                    case "--ejection-radius": options.ejectionRadius = parsePositive(name, value); break;
+                    case "--seed": options.seed = Long.parseLong(value); break;
+                    case "--parallelism": options.parallelism = (int) parsePositive(name, value); break;
+                    case "--output": options.output = Paths.get(value); break;
+                    default:
+                        throw new IllegalArgumentException("不明なオプションです: " + name);
+                }
+            }
+            return options;
+        }
+
+        private static double parsePositive(String name, String value) {
+            double parsed = Double.parseDouble(value);
+            if (!(parsed > 0)) {
+                throw new IllegalArgumentException(name + "は正の値である必要があります: " + value);
+            }
+            return parsed;
+        }
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("使い方: EnsembleRunner [--data path] [--runs 100] [--years 10] [--dt 0.001667]"
+                + " [--mass-sigma 0.01] [--axis-sigma 0.001] [--angle-sigma 0.001] [--eccentricity-sigma 0.001]"
+                + " [--ejection-radius 100] [--seed 1] [--parallelism N] [--output summary.csv]");
+            System.exit(2);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            EnsembleStatistics statistics = run(options);
+            System.out.printf(Locale.ROOT, "%d runs in %.3f s, %d ejections%n",
+                statistics.runs(), (System.nanoTime() - start) / 1e9, statistics.totalEjections());
+        } catch (IOException e) {
+            System.err.println("ファイルの入出力に失敗しました: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public static EnsembleStatistics run(Options options) throws IOException {
+        CelestialData base = options.data != null
+            ? CelestialDataLoader.loadData(options.data)
+            : CelestialDataLoader.loadData();
+        EnsembleStatistics statistics = new EnsembleStatistics();
+        AtomicLong completed = new AtomicLong();
+
+        ForkJoinPool pool = new ForkJoinPool(options.parallelism);
+        try {
+            pool.invoke(new RunRange(base, options, statistics, completed, 0, options.runs));
+        } finally {
+            pool.shutdown();
+        }
+
+        if (options.output != null) {
+            Path parent = options.output.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(options.output, StandardCharsets.UTF_8)) {
+                statistics.write(writer);
+            }
+        }
+        return statistics;
+    }
+
+    // 実行範囲を半分ずつに分け、空いたワーカーが残りを盗めるようにする
+    private static class RunRange extends RecursiveAction {
+        private final CelestialData base;
+        private final Options options;
+        private final EnsembleStatistics statistics;
+        private final AtomicLong completed;
+        private final int from;
+        private final int to;
+
+        RunRange(CelestialData base, Options options, EnsembleStatistics statistics, AtomicLong completed,
+                 int from, int to) {
+            this.base = base;
+            this.options = options;
+            this.statistics = statistics;
+            this.completed = completed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                runOne(base, options, from, statistics);
+                long done = completed.incrementAndGet();
+                if (done % Math.max(1, options.runs / 10) == 0) {
+                    LOGGER.info("進捗: " + done + " / " + options.runs);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RunRange(base, options, statistics, completed, from, mid),
+                      new RunRange(base, options, statistics, completed, mid, to));
+        }
+    }
+
+    // 1回分を実行して集計に加える（乱数の種は実行番号から決まるため、各実行の初期条件は並列度によらない）
+    static void runOne(CelestialData base, Options options, int run, EnsembleStatistics statistics) {
+        Random random = new Random(options.seed * 1_000_003L + run);
+        NBodySimulation simulation = new NBodySimulation();
+        try {
+            simulation.loadCatalog(perturb(base, random, options));
+            simulation.setKeyframeMemoryLimit(0);
+            long steps = (long) Math.ceil(options.years / options.dt - 1e-9);
+            for (long s = 0; s < steps; s++) {
+                simulation.step(Math.min(options.dt, options.years - simulation.getCurrentTime()));
+            }
+        } finally {
+            simulation.close();
+        }
+
+        BodyState state = simulation.getState();
+        int n = state.count();
+        int central = 0;
+        for (int i = 1; i < n; i++) {
+            if (state.mass[i] > state.mass[central]) {
+                central = i;
+            }
+        }
+        List<String> ids = new ArrayList<>();
+        double[] elements = new double[n * 3];
+        boolean[] ejected = new boolean[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == central) continue;
+            ids.add(state.getId(i));
+            ejected[count] = !orbitalElements(state, central, i, options.ejectionRadius, elements, count * 3);
+            count++;
+        }
+        statistics.accept(ids.toArray(new String[0]), elements, ejected);
+    }
+
+    // 質量と軌道要素にばらつきを与えたコピーを作る（試験粒子は含めない）
+    static CelestialData perturb(CelestialData base, Random random, Options options) {
+        CelestialData copy = new CelestialData();
+        copy.version = base.version;
+        copy.simulation = base.simulation;
+        copy.celestialBodies = new ArrayList<>(base.celestialBodies.size());
+        for (CelestialBodyData body : base.celestialBodies) {
+            CelestialBodyData b = new CelestialBodyData();
+            b.id = body.id;
+            b.name = body.name;
+            b.type = body.type;
+            b.radius = body.radius;
+            b.rotation = body.rotation;
+            b.texture = body.texture;
+            b.color = body.color;
+            b.propagation = body.propagation;
+            b.parent = body.parent;
+            b.mass = body.mass * Math.max(0, 1 + options.massSigma * random.nextGaussian());
+            if (body.orbit != null) {
+                OrbitData o = new OrbitData();
+                double scale = 1 + options.axisSigma * random.nextGaussian();
+                o.semiMajorAxis = body.orbit.semiMajorAxis * scale;
+                o.radius = body.orbit.radius * scale;
+                o.period = body.orbit.period * Math.pow(scale, 1.5);
+                o.eccentricity = Math.min(0.99, Math.max(0,
+                    body.orbit.eccentricity + options.eccentricitySigma * random.nextGaussian()));
+                o.inclination = body.orbit.inclination + Math.toDegrees(options.angleSigma * random.nextGaussian());
+                o.initialAngle = body.orbit.initialAngle + options.angleSigma * random.nextGaussian();
+                b.orbit = o;
+            }
+            copy.celestialBodies.add(b);
+        }
+        return copy;
+    }
+
+    // 中心天体に対する接触軌道要素 a, e, i(度) を求める（束縛されていなければfalse）
+    // 軌道面はx-z平面で、順行（初期速度の向き）の角運動量は-y方向を向く
+    static boolean orbitalElements(BodyState state, int central, int i, double ejectionRadius,
+                                   double[] out, int offset) {
+        double rx = state.x[i] - state.x[central];
+        double ry = state.y[i] - state.y[central];
+        double rz = state.z[i] - state.z[central];
+        double vx = state.vx[i] - state.vx[central];
+        double vy = state.vy[i] - state.vy[central];
+        double vz = state.vz[i] - state.vz[central];
+        double r = Math.sqrt(rx * rx + ry * ry + rz * rz);
+        double mu = NBodySimulation.G * (state.mass[central] + state.mass[i]);
+        double energy = (vx * vx + vy * vy + vz * vz) / 2 - mu / r;
+        if (!(r < ejectionRadius) || r == 0 || energy >= 0) {
+            return false;
+        }
+        double hx = ry * vz - rz * vy;
+        double hy = rz * vx - rx * vz;
+        double hz = rx * vy - ry * vx;
+        double h2 = hx * hx + hy * hy + hz * hz;
+        double a = -mu / (2 * energy);
+        out[offset] = a;
+        out[offset + 1] = Math.sqrt(Math.max(0, 1 - h2 / (mu * a)));
+        out[offset + 2] = Math.toDegrees(Math.acos(h2 > 0 ? Math.max(-1, Math.min(1, -hy / Math.sqrt(h2))) : 1));
+        return true;
+    }
+}
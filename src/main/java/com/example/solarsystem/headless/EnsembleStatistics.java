@@ -0,0 +1,115 @@
+package com.example.solarsystem.headless;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// アンサンブル実行の結果を逐次集計する
+// 各実行の終了時の軌道要素を受け取るたびに平均・分散・最小・最大を更新し、軌道そのものは保持しない
+public class EnsembleStatistics {
+    // Welfordの方法による平均と分散（並列に集計したものは合併できる）
+    public static class Running {
+        private long count;
+        private double mean;
+        private double m2;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        public void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        public void merge(Running other) {
+            if (other.count == 0) {
+                return;
+            }
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * count * other.count / total;
+            count = total;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        public long count() { return count; }
+        public double mean() { return mean; }
+        public double variance() { return count > 1 ? m2 / (count - 1) : 0; }
+        public double standardDeviation() { return Math.sqrt(variance()); }
+        public double min() { return min; }
+        public double max() { return max; }
+    }
+
+    // 天体ごとの集計
+    public static class BodySummary {
+        public final String id;
+        public final Running semiMajorAxis = new Running();
+        public final Running eccentricity = new Running();
+        public final Running inclination = new Running();  // 度
+        private long ejections;
+
+        BodySummary(String id) {
+            this.id = id;
+        }
+
+        public long ejections() { return ejections; }
+    }
+
+    private final Map<String, BodySummary> bodies = new LinkedHashMap<>();
+    private long runs;
+
+    // 1回分の結果を加える（elementsは天体ごとに a, e, i(度) の順）
+    public synchronized void accept(String[] ids, double[] elements, boolean[] ejected) {
+        runs++;
+        for (int b = 0; b < ids.length; b++) {
+            BodySummary summary = bodies.computeIfAbsent(ids[b], BodySummary::new);
+            if (ejected[b]) {
+                summary.ejections++;
+                continue;
+            }
+            summary.semiMajorAxis.add(elements[b * 3]);
+            summary.eccentricity.add(elements[b * 3 + 1]);
+            summary.inclination.add(elements[b * 3 + 2]);
+        }
+    }
+
+    public synchronized long runs() { return runs; }
+
+    public synchronized long totalEjections() {
+        long total = 0;
+        for (BodySummary summary : bodies.values()) {
+            total += summary.ejections;
+        }
+        return total;
+    }
+
+    public synchronized BodySummary get(String id) { return bodies.get(id); }
+
+    public synchronized void write(Writer writer) throws IOException {
+        writer.write("id,runs,ejected,a_mean,a_std,a_min,a_max,e_mean,e_std,e_min,e_max,i_mean,i_std,i_min,i_max\n");
+        for (BodySummary summary : bodies.values()) {
+            StringBuilder line = new StringBuilder(256);
+            line.append(summary.id).append(',').append(runs).append(',').append(summary.ejections);
+            append(line, summary.semiMajorAxis);
+            append(line, summary.eccentricity);
+            append(line, summary.inclination);
+            writer.write(line.append('\n').toString());
+        }
+    }
+
+    private static void append(StringBuilder line, Running stats) {
+        if (stats.count() == 0) {
+            line.append(",,,,");
+            return;
+        }
+        line.append(String.format(Locale.ROOT, ",%.9g,%.9g,%.9g,%.9g",
+            stats.mean(), stats.standardDeviation(), stats.min(), stats.max()));
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.solarsystem.headless;
+
+import com.example.solarsystem.data.CelestialDataLoader;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialData;
+import com.example.solarsystem.model.BodyState;
+import com.example.solarsystem.model.ChebyshevEphemeris;
+import com.example.solarsystem.model.CompressedTrajectoryWriter;
+import com.example.solarsystem.model.IntegratorType;
+import com.example.solarsystem.model.NBodySimulation;
+import com.example.solarsystem.model.TrajectoryRecorder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+// JavaFXを使わずにシミュレーションを実行するバッチ処理の入口
+// 天体データを読み込み、指定した期間を実時間に関係なく全速で積分して、軌道をCSVに書き出す。
+// 例: java -cp target/classes:gson.jar com.example.solarsystem.headless.HeadlessRunner
+//         --data data/planet_data.json --years 100 --dt 0.001 --sample 0.1 --output trajectory.csv
+public class HeadlessRunner {
+    private static final Logger LOGGER = Logger.getLogger(HeadlessRunner.class.getName());
+    private static final double PROGRESS_INTERVAL_SECONDS = 10.0;
+
+    // 実行時の設定
+    public static class Options {
+        public Path data;              // nullなら既定のデータ（user/ → data/ の順）
+        public double years = 1.0;     // 積分する期間（年）
+        public double dt = 1.0 / 600;  // 刻み幅（年）
+        public double sample = 0.01;   // 軌道を書き出す間隔（年、0なら書き出さない）
+        public Path output;            // 軌道のCSV（nullなら書き出さない）
+        public Path finalState;        // 終了時の状態のCSV（nullなら書き出さない）
+        public String integrator;      // nullならデータの設定に従う
+        public int threads = 1;
+        public Path record;                       // 軌道のバイナリ記録（--sampleごと、nullなら書き出さない）
+        public Path compressed;                   // 圧縮した軌道（--sampleごと、nullなら書き出さない）
+        public double precision = CompressedTrajectoryWriter.DEFAULT_PRECISION;  // 圧縮時の量子化の刻み（AU）
+        public Path ephemeris;                    // 暦ファイル（指定すると軌道の代わりに暦を作る）
+        public double ephemerisSegment = 1.0 / 64; // 暦の区間の長さ（年）
+        public int ephemerisDegree = 12;          // 暦の多項式の次数
+
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (int k = 0; k < args.length; k++) {
+                String name = args[k];
+                if (k + 1 >= args.length) {
+                    throw new IllegalArgumentException("値が指定されていません: " + name);
+                }
+                String value = args[++k];
+                switch (name) {
+                    case "--data": options.data = Paths.get(value); break;
+                    case "--years": options.years = parsePositive(name, value); break;
+                    case "--dt": options.dt = parsePositive(name, value); break;
+                    case "--sample": options.sample = Double.parseDouble(value); break;
+                    case "--output": options.output = Paths.get(value); break;
+                    case "--final-state": options.finalState = Paths.get(value); break;
+                    case "--integrator": options.integrator = value; break;
+                    case "--threads": options.threads = Integer.parseInt(value); break;
+                    case "--record": options.record = Paths.get(value); break;
+                    case "--compressed": options.compressed = Paths.get(value); break;
+                    case "--precision": options.precision = parsePositive(name, value); break;
+                    case "--ephemeris": options.ephemeris = Paths.get(value); break;
+                    case "--ephemeris-segment": options.ephemerisSegment = parsePositive(name, value); break;
+                    case "--ephemeris-degree": options.ephemerisDegree = Integer.parseInt(value); break;
+                    default:
+                        throw new IllegalArgumentException("不明なオプションです: " + name);
+                }
+            }
+            return options;
+        }
+
+        private static double parsePositive(String name, String value) {
+            double parsed = Double.parseDouble(value);
+            if (!(parsed > 0)) {
+                throw new IllegalArgumentException(name + "は正の値である必要があります: " + value);
+            }
+            return parsed;
+        }
+    }
+
+    // 実行結果
+    public static class Result {
+        public final long steps;
+        public final double simulatedYears;
+        public final long elapsedNanos;
+        public final long samples;
+        public final long droppedRecords;  // --recordで書けなかったレコード（待って書くので通常は0）
+
+        Result(long steps, double simulatedYears, long elapsedNanos, long samples, long droppedRecords) {
+            this.steps = steps;
+            this.simulatedYears = simulatedYears;
+            this.elapsedNanos = elapsedNanos;
+            this.samples = samples;
+            this.droppedRecords = droppedRecords;
+        }
+
+        public double stepsPerSecond() {
+            return elapsedNanos > 0 ? steps / (elapsedNanos / 1e9) : 0;
+        }
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("使い方: HeadlessRunner [--data path] [--years 1] [--dt 0.001667] [--sample 0.01]"
+                + " [--output trajectory.csv] [--record trajectory.bin] [--compressed trajectory.trz] [--precision 1e-8] [--final-state state.csv] [--integrator velocity_verlet] [--threads 1]"
+                + " [--ephemeris ephemeris.bin] [--ephemeris-segment 0.015625] [--ephemeris-degree 12]");
+            System.exit(2);
+            return;
+        }
+        try {
+            Result result = run(options);
+            System.out.printf(Locale.ROOT, "%d steps, %.3f years in %.3f s (%.1f steps/sec)%n",
+                result.steps, result.simulatedYears, result.elapsedNanos / 1e9, result.stepsPerSecond());
+            if (options.record != null) {
+                System.out.printf(Locale.ROOT, "%d samples recorded, %d dropped%n",
+                    result.samples, result.droppedRecords);
+            }
+        } catch (IOException e) {
+            System.err.println("ファイルの入出力に失敗しました: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public static Result run(Options options) throws IOException {
+        CelestialData data = options.data != null
+            ? CelestialDataLoader.loadData(options.data)
+            : CelestialDataLoader.loadData();
+
+        NBodySimulation simulation = new NBodySimulation();
+        simulation.loadCatalog(data);
+        if (options.integrator != null) {
+            simulation.setIntegratorType(IntegratorType.fromKey(options.integrator, simulation.getIntegratorType()));
+        }
+        simulation.setThreadCount(options.threads);
+        // 長時間の実行ではキーフレームを記録しない
+        simulation.setKeyframeMemoryLimit(0);
+
+        if (options.ephemeris != null) {
+            return buildEphemeris(options, simulation);
+        }
+
+        long steps = (long) Math.ceil(options.years / options.dt - 1e-9);
+        long samples = 0;
+        long dropped = 0;
+        long start = System.nanoTime();
+        try (Writer trajectory = options.output != null ? open(options.output) : null;
+             TrajectoryRecorder recorder = options.record != null
+                 ? TrajectoryRecorder.create(prepare(options.record), simulation.getState()) : null;
+             CompressedTrajectoryWriter compressed = options.compressed != null
+                 ? CompressedTrajectoryWriter.create(prepare(options.compressed), simulation.getState(),
+                     options.precision, CompressedTrajectoryWriter.DEFAULT_BLOCK_RECORDS) : null) {
+            if (trajectory != null) {
+                trajectory.write("time,id,x,y,z,vx,vy,vz\n");
+            }
+            boolean sampling = trajectory != null || recorder != null || compressed != null;
+            if (sampling) {
+                writeSample(trajectory, recorder, compressed, simulation);
+                samples++;
+            }
+            double nextSample = options.sample;
+            long lastProgress = start;
+            for (long s = 0; s < steps; s++) {
+                double dt = Math.min(options.dt, options.years - simulation.getCurrentTime());
+                simulation.step(dt);
+                if (sampling && options.sample > 0
+                        && (simulation.getCurrentTime() >= nextSample - 1e-12 || s == steps - 1)) {
+                    writeSample(trajectory, recorder, compressed, simulation);
+                    samples++;
+                    nextSample += options.sample;
+                }
+                long now = System.nanoTime();
+                if ((now - lastProgress) / 1e9 >= PROGRESS_INTERVAL_SECONDS) {
+                    lastProgress = now;
+                    LOGGER.info(String.format(Locale.ROOT, "進捗: %.3f / %.3f 年", simulation.getCurrentTime(), options.years));
+                }
+            }
+            if (recorder != null) {
+                dropped = recorder.getDroppedCount();
+            }
+        } finally {
+            simulation.close();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (options.finalState != null) {
+            try (Writer writer = open(options.finalState)) {
+                writer.write("time,id,x,y,z,vx,vy,vz\n");
+                writeState(writer, simulation);
+            }
+        }
+        return new Result(steps, simulation.getCurrentTime(), elapsed, samples, dropped);
+    }
+
+    // 指定期間の暦を作って保存する（刻み幅は--dtを上限とし、標本点に合わせて調整される）
+    private static Result buildEphemeris(Options options, NBodySimulation simulation) throws IOException {
+        long start = System.nanoTime();
+        ChebyshevEphemeris ephemeris;
+        try {
+            ephemeris = ChebyshevEphemeris.build(simulation, options.years,
+                options.ephemerisSegment, options.ephemerisDegree, options.dt);
+        } finally {
+            simulation.close();
+        }
+        long elapsed = System.nanoTime() - start;
+        ephemeris.save(prepare(options.ephemeris));
+        return new Result(simulation.getStepCount(), simulation.getCurrentTime(), elapsed, 0, 0);
+    }
+
+    private static BufferedWriter open(Path path) throws IOException {
+        return Files.newBufferedWriter(prepare(path), StandardCharsets.UTF_8);
+    }
+
+    private static Path prepare(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return path;
+    }
+
+    private static void writeSample(Writer trajectory, TrajectoryRecorder recorder,
+                                    CompressedTrajectoryWriter compressed, NBodySimulation simulation)
+            throws IOException {
+        if (trajectory != null) {
+            writeState(trajectory, simulation);
+        }
+        if (recorder != null) {
+            // 全速で積分すると次の領域のマップが間に合わないことがあるので、待ってから書く（間引かない）
+            recorder.recordWaiting(simulation.getState(), simulation.getCurrentTime());
+        }
+        if (compressed != null) {
+            compressed.write(simulation.getState(), simulation.getCurrentTime());
+        }
+    }
+
+    private static void writeState(Writer writer, NBodySimulation simulation) throws IOException {
+        BodyState state = simulation.getState();
+        StringBuilder line = new StringBuilder(128);
+        String time = Double.toString(simulation.getCurrentTime());
+        for (int i = 0; i < state.count(); i++) {
+            line.setLength(0);
+            line.append(time).append(',').append(state.getId(i))
+                .append(',').append(state.x[i]).append(',').append(state.y[i]).append(',').append(state.z[i])
+                .append(',').append(state.vx[i]).append(',').append(state.vy[i]).append(',').append(state.vz[i])
+                .append('\n');
+            writer.write(line.toString());
+        }
+    }
+}
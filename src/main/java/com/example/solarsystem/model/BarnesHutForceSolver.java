@@ -0,0 +1,342 @@
+package com.example.solarsystem.model;
+
+import java.util.Arrays;
+
+// Barnes–Hut八分木による重力計算（O(N log N)）
+// 木はprepareのたびに作り直す。ノードは配列で管理し、ステップごとのオブジェクト生成を避ける
+public class BarnesHutForceSolver implements ForceSolver {
+    private static final double DEFAULT_OPENING_ANGLE = 0.5;
+    private static final int DEFAULT_DIRECT_THRESHOLD = 256;  // これ未満は直接計算にフォールバック
+    private static final int MAX_DEPTH = 48;  // 同一座標の天体が並んだ場合の分割上限
+    private static final int EMPTY = -1;
+
+    private final double g;
+    private final DirectForceSolver directSolver;
+    private double openingAngle;
+    private int directThreshold;
+    private boolean useDirect;
+
+    // ノード配列
+    private int nodeCount;
+    private double[] centerX = new double[0];
+    private double[] centerY = new double[0];
+    private double[] centerZ = new double[0];
+    private double[] halfSize = new double[0];
+    private double[] nodeMass = new double[0];
+    private double[] comX = new double[0];
+    private double[] comY = new double[0];
+    private double[] comZ = new double[0];
+    private int[] children = new int[0];   // ノードごとに8要素
+    private int[] firstBody = new int[0];  // 葉ノードが保持する天体リストの先頭
+    private int[] depth = new int[0];
+    private int[] nextBody = new int[0];   // 同じ葉に入った天体の連結リスト
+    // 最も近い重力源までの距離の2乗（天体ごと）。遠方のノードは重心までの距離で代用する
+    private double[] nearestSq = new double[0];
+
+    public BarnesHutForceSolver(double g) {
+        this(g, DEFAULT_OPENING_ANGLE, DEFAULT_DIRECT_THRESHOLD);
+    }
+
+    public BarnesHutForceSolver(double g, double openingAngle, int directThreshold) {
+        this.g = g;
+        this.directSolver = new DirectForceSolver(g);
+        setOpeningAngle(openingAngle);
+        setDirectThreshold(directThreshold);
+    }
+
+    public double getOpeningAngle() { return openingAngle; }
+
+    public void setOpeningAngle(double openingAngle) {
+        if (openingAngle < 0) {
+            throw new IllegalArgumentException("開き角は0以上である必要があります: " + openingAngle);
+        }
+        this.openingAngle = openingAngle;
+    }
+
+    public int getDirectThreshold() { return directThreshold; }
+
+    public void setDirectThreshold(int directThreshold) {
+        this.directThreshold = Math.max(0, directThreshold);
+    }
+
+    @Override
+    public void prepare(BodyState state) {
+        useDirect = state.count() < directThreshold;
+        if (useDirect) {
+            directSolver.prepare(state);
+        } else {
+            buildTree(state);
+        }
+    }
+
+    @Override
+    public double nearestDistance(int i) {
+        if (useDirect) {
+            return directSolver.nearestDistance(i);
+        }
+        return i < nearestSq.length ? Math.sqrt(nearestSq[i]) : Double.NaN;
+    }
+
+    @Override
+    public void computeRange(BodyState state, int from, int to) {
+        if (useDirect) {
+            directSolver.computeRange(state, from, to);
+            return;
+        }
+
+        int[] stack = new int[MAX_DEPTH * 8 + 8];
+        for (int i = from; i < to; i++) {
+            if (state.active[i] && nodeCount > 0) {
+                accumulate(state, i, stack);
+            } else {
+                state.ax[i] = 0;
+                state.ay[i] = 0;
+                state.az[i] = 0;
+                recordNearest(i, Double.POSITIVE_INFINITY);
+            }
+        }
+    }
+
+    private void accumulate(BodyState state, int i, int[] stack) {
+        double xi = state.x[i], yi = state.y[i], zi = state.z[i];
+        double thetaSq = openingAngle * openingAngle;
+        double sumX = 0, sumY = 0, sumZ = 0;
+        double best = Double.POSITIVE_INFINITY;
+
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (nodeMass[node] == 0) continue;
+
+            if (firstBody[node] != EMPTY) {
+                // 葉ノードは保持している天体と直接計算
+                for (int j = firstBody[node]; j != EMPTY; j = nextBody[j]) {
+                    if (j == i) continue;
+                    double dx = state.x[j] - xi;
+                    double dy = state.y[j] - yi;
+                    double dz = state.z[j] - zi;
+                    double distSq = dx * dx + dy * dy + dz * dz;
+                    if (distSq == 0) continue;
+                    if (distSq < best && state.mass[j] > 0) best = distSq;
+                    double invDist = 1.0 / Math.sqrt(distSq);
+                    double s = g * state.mass[j] * invDist * invDist * invDist;
+                    sumX += dx * s;
+                    sumY += dy * s;
+                    sumZ += dz * s;
+                }
+                continue;
+            }
+
+            double dx = comX[node] - xi;
+            double dy = comY[node] - yi;
+            double dz = comZ[node] - zi;
+            double distSq = dx * dx + dy * dy + dz * dz;
+            double size = halfSize[node] * 2;
+
+            // 開き角が大きい（1/√3を超える）と、天体i自身を含むノードでも条件を満たすことがあり、
+            // 自分の質量を含む重心に引かれてしまう。自分を含むノードは必ず開く
+            if (size * size < thetaSq * distSq && !contains(node, xi, yi, zi)) {
+                // 十分遠いノードは重心の質点として扱う
+                best = Math.min(best, distSq);
+                double invDist = 1.0 / Math.sqrt(distSq);
+                double s = g * nodeMass[node] * invDist * invDist * invDist;
+                sumX += dx * s;
+                sumY += dy * s;
+                sumZ += dz * s;
+            } else {
+                int base = node * 8;
+                for (int c = 0; c < 8; c++) {
+                    int child = children[base + c];
+                    if (child != EMPTY) {
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+
+        state.ax[i] = sumX;
+        state.ay[i] = sumY;
+        state.az[i] = sumZ;
+        recordNearest(i, best);
+    }
+
+    // prepareの後に天体が増えた場合は記録しない
+    private void recordNearest(int i, double distSq) {
+        if (i < nearestSq.length) {
+            nearestSq[i] = distSq;
+        }
+    }
+
+    private boolean contains(int node, double x, double y, double z) {
+        double half = halfSize[node];
+        return Math.abs(x - centerX[node]) <= half
+            && Math.abs(y - centerY[node]) <= half
+            && Math.abs(z - centerZ[node]) <= half;
+    }
+
+    private void buildTree(BodyState state) {
+        int n = state.count();
+        ensureCapacity(n);
+        nodeCount = 0;
+
+        // 計算対象の天体を囲む立方体を求める
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        int activeCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (!state.active[i]) continue;
+            activeCount++;
+            minX = Math.min(minX, state.x[i]);
+            minY = Math.min(minY, state.y[i]);
+            minZ = Math.min(minZ, state.z[i]);
+            maxX = Math.max(maxX, state.x[i]);
+            maxY = Math.max(maxY, state.y[i]);
+            maxZ = Math.max(maxZ, state.z[i]);
+        }
+        if (activeCount == 0) {
+            return;
+        }
+        double half = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ)) / 2;
+        half = half > 0 ? half * 1.0001 : 1.0;
+        newNode((minX + maxX) / 2, (minY + maxY) / 2, (minZ + maxZ) / 2, half, 0);
+
+        for (int i = 0; i < n; i++) {
+            if (state.active[i]) {
+                insert(state, i);
+            }
+        }
+        computeMassDistribution(state);
+    }
+
+    private void insert(BodyState state, int body) {
+        int node = 0;
+        while (true) {
+            if (isInternal(node)) {
+                node = childFor(node, state.x[body], state.y[body], state.z[body]);
+                continue;
+            }
+            if (firstBody[node] == EMPTY) {
+                firstBody[node] = body;
+                nextBody[body] = EMPTY;
+                return;
+            }
+            if (depth[node] >= MAX_DEPTH) {
+                // これ以上分割できない場合は同じ葉にまとめる
+                nextBody[body] = firstBody[node];
+                firstBody[node] = body;
+                return;
+            }
+            // 葉を分割し、既存の天体を子ノードへ移す
+            int existing = firstBody[node];
+            firstBody[node] = EMPTY;
+            int child = childFor(node, state.x[existing], state.y[existing], state.z[existing]);
+            firstBody[child] = existing;
+            nextBody[existing] = EMPTY;
+            node = childFor(node, state.x[body], state.y[body], state.z[body]);
+        }
+    }
+
+    private boolean isInternal(int node) {
+        int base = node * 8;
+        for (int c = 0; c < 8; c++) {
+            if (children[base + c] != EMPTY) return true;
+        }
+        return false;
+    }
+
+    // 座標が属する子ノードを返す（なければ作る）
+    private int childFor(int node, double px, double py, double pz) {
+        int octant = (px >= centerX[node] ? 1 : 0)
+                   | (py >= centerY[node] ? 2 : 0)
+                   | (pz >= centerZ[node] ? 4 : 0);
+        int slot = node * 8 + octant;
+        if (children[slot] == EMPTY) {
+            double h = halfSize[node] / 2;
+            int child = newNode(
+                centerX[node] + ((octant & 1) != 0 ? h : -h),
+                centerY[node] + ((octant & 2) != 0 ? h : -h),
+                centerZ[node] + ((octant & 4) != 0 ? h : -h),
+                h, depth[node] + 1);
+            children[slot] = child;
+        }
+        return children[slot];
+    }
+
+    private int newNode(double cx, double cy, double cz, double half, int nodeDepth) {
+        if (nodeCount == centerX.length) {
+            growNodes(nodeCount * 2);
+        }
+        int node = nodeCount++;
+        centerX[node] = cx;
+        centerY[node] = cy;
+        centerZ[node] = cz;
+        halfSize[node] = half;
+        depth[node] = nodeDepth;
+        nodeMass[node] = 0;
+        comX[node] = comY[node] = comZ[node] = 0;
+        firstBody[node] = EMPTY;
+        Arrays.fill(children, node * 8, node * 8 + 8, EMPTY);
+        return node;
+    }
+
+    // 子ノードは常に親より後に作られるため、逆順に走査すれば子から親へ集計できる
+    private void computeMassDistribution(BodyState state) {
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            double m = 0, mx = 0, my = 0, mz = 0;
+            if (firstBody[node] != EMPTY) {
+                for (int j = firstBody[node]; j != EMPTY; j = nextBody[j]) {
+                    m += state.mass[j];
+                    mx += state.mass[j] * state.x[j];
+                    my += state.mass[j] * state.y[j];
+                    mz += state.mass[j] * state.z[j];
+                }
+            } else {
+                int base = node * 8;
+                for (int c = 0; c < 8; c++) {
+                    int child = children[base + c];
+                    if (child == EMPTY) continue;
+                    m += nodeMass[child];
+                    mx += nodeMass[child] * comX[child];
+                    my += nodeMass[child] * comY[child];
+                    mz += nodeMass[child] * comZ[child];
+                }
+            }
+            nodeMass[node] = m;
+            if (m > 0) {
+                comX[node] = mx / m;
+                comY[node] = my / m;
+                comZ[node] = mz / m;
+            } else {
+                comX[node] = centerX[node];
+                comY[node] = centerY[node];
+                comZ[node] = centerZ[node];
+            }
+        }
+    }
+
+    private void ensureCapacity(int bodyCount) {
+        if (nextBody.length < bodyCount) {
+            nextBody = new int[bodyCount];
+            nearestSq = new double[bodyCount];
+        }
+        int nodes = Math.max(16, bodyCount * 2);
+        if (centerX.length < nodes) {
+            growNodes(nodes);
+        }
+    }
+
+    private void growNodes(int capacity) {
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        centerZ = Arrays.copyOf(centerZ, capacity);
+        halfSize = Arrays.copyOf(halfSize, capacity);
+        nodeMass = Arrays.copyOf(nodeMass, capacity);
+        comX = Arrays.copyOf(comX, capacity);
+        comY = Arrays.copyOf(comY, capacity);
+        comZ = Arrays.copyOf(comZ, capacity);
+        firstBody = Arrays.copyOf(firstBody, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        children = Arrays.copyOf(children, capacity * 8);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.solarsystem.model;
+
+import java.util.Arrays;
+
+// 天体ごとの刻み幅（ブロックタイムステップ）によるキック・ドリフト・キック
+// 各天体には外側の刻み幅dtを2のべき乗で割った刻み幅 dt / 2^level を割り当てる。
+// 刻み幅は局所的な力学的時間 sqrt(最も近い天体までの距離 / |a|) にηを掛けたものから決める。
+// 最も近い天体までの距離は、加速度の計算のついでにsolverが記録したもの（nearestDistance）を使う。
+// dtを2^最大レベル個の小刻みに分け、各小刻みでは刻みの終わりを迎える天体の加速度だけを計算するため、
+// 周期の短い天体に合わせて全体を細かく刻むよりも力の評価回数が大幅に減る。
+// ただし小刻みごとにsolver.prepareを呼ぶため、その費用（Barnes–Hutでは木の構築 O(N log N)）は
+// 計算する天体の数によらず毎回かかる。レベルの差が大きいほど、全天体を同じ刻みで進める場合に比べて割高になる
+public class BlockTimestepIntegrator implements Integrator {
+    public static final double DEFAULT_ACCURACY = 0.1;  // 円軌道で1周あたり約60ステップ
+    public static final int MAX_LEVEL = 16;
+
+    private double accuracy;
+    private int[] levels = new int[0];
+    private int[] due = new int[0];
+    private long bodyForceEvaluations;  // 天体1つ分の加速度計算の累計回数
+
+    public BlockTimestepIntegrator() {
+        this(DEFAULT_ACCURACY);
+    }
+
+    public BlockTimestepIntegrator(double accuracy) {
+        setAccuracy(accuracy);
+    }
+
+    @Override
+    public void step(BodyState state, ForceSolver solver, double dt) {
+        int n = state.count();
+        if (!state.hasValidAccelerations()) {
+            Integrator.computeForces(state, solver);
+            bodyForceEvaluations += countMoving(state);
+        }
+        int maxLevel = assignLevels(state, solver, dt);
+        int ticks = 1 << maxLevel;
+        double tick = dt / ticks;
+
+        for (int t = 0; t < ticks; t++) {
+            // 刻みの始まりを迎えた天体に前半のキック
+            for (int i = 0; i < n; i++) {
+                if (isMoving(state, i) && t % (ticks >> levels[i]) == 0) {
+                    kickBody(state, i, 0.5 * dt / (1 << levels[i]));
+                }
+            }
+
+            Integrator.drift(state, tick);
+
+            // 刻みの終わりを迎えた天体だけ加速度を求め、後半のキック
+            int dueCount = 0;
+            for (int i = 0; i < n; i++) {
+                if (isMoving(state, i) && (t + 1) % (ticks >> levels[i]) == 0) {
+                    due[dueCount++] = i;
+                }
+            }
+            if (dueCount == 0) continue;
+            // ドリフトで全天体の位置が変わっているため、前処理は毎回やり直す
+            solver.prepare(state);
+            computeDue(state, solver, dueCount);
+            bodyForceEvaluations += dueCount;
+            for (int k = 0; k < dueCount; k++) {
+                int i = due[k];
+                kickBody(state, i, 0.5 * dt / (1 << levels[i]));
+            }
+        }
+        // 最後の小刻みで全天体の刻みが揃うので、加速度は現在の位置に対応している
+        state.markAccelerationsValid();
+    }
+
+    // 連続したインデックスはまとめて計算する
+    private void computeDue(BodyState state, ForceSolver solver, int dueCount) {
+        int k = 0;
+        while (k < dueCount) {
+            int from = due[k];
+            int to = from + 1;
+            while (k + 1 < dueCount && due[k + 1] == to) {
+                k++;
+                to++;
+            }
+            solver.computeRange(state, from, to);
+            k++;
+        }
+    }
+
+    // 各天体のレベルを決めて最大レベルを返す
+    // 直前の小刻みでは全天体の加速度を計算しているため、solverが記録した距離は現在の位置に対応している
+    private int assignLevels(BodyState state, ForceSolver solver, double dt) {
+        int n = state.count();
+        if (levels.length < n) {
+            levels = new int[n];
+            due = new int[n];
+        }
+        Arrays.fill(levels, 0, n, 0);
+        int maxLevel = 0;
+        for (int i = 0; i < n; i++) {
+            if (!isMoving(state, i)) continue;
+            double a = Math.sqrt(state.ax[i] * state.ax[i] + state.ay[i] * state.ay[i] + state.az[i] * state.az[i]);
+            double d = solver.nearestDistance(i);
+            if (Double.isNaN(d)) {
+                d = nearestDistance(state, i);
+            }
+            if (a == 0 || Double.isInfinite(d)) continue;
+            double timescale = accuracy * Math.sqrt(d / a);
+            int level = 0;
+            while (level < MAX_LEVEL && Math.abs(dt) / (1 << level) > timescale) {
+                level++;
+            }
+            levels[i] = level;
+            maxLevel = Math.max(maxLevel, level);
+        }
+        return maxLevel;
+    }
+
+    // 距離を記録しないsolver向けの総当たり（O(N)）
+    private static double nearestDistance(BodyState state, int i) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < state.count(); j++) {
+            if (j == i || !state.active[j] || state.mass[j] == 0) continue;
+            double dx = state.x[j] - state.x[i];
+            double dy = state.y[j] - state.y[i];
+            double dz = state.z[j] - state.z[i];
+            double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (d > 0 && d < best) {
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isMoving(BodyState state, int i) {
+        return state.active[i] && !state.kinematic[i];
+    }
+
+    private static int countMoving(BodyState state) {
+        int count = 0;
+        for (int i = 0; i < state.count(); i++) {
+            if (isMoving(state, i)) count++;
+        }
+        return count;
+    }
+
+    private static void kickBody(BodyState state, int i, double dt) {
+        state.vx[i] += state.ax[i] * dt;
+        state.vy[i] += state.ay[i] * dt;
+        state.vz[i] += state.az[i] * dt;
+    }
+
+    // 全天体の力の評価に換算した回数は天体の組み合わせで変わるため、ここでは最低値を返す
+    // 実際の回数はgetBodyForceEvaluationsで確認する
+    @Override
+    public int forceEvaluationsPerStep() {
+        return 1;
+    }
+
+    public long getBodyForceEvaluations() { return bodyForceEvaluations; }
+
+    // 直前のステップで天体iに割り当てたレベル（刻み幅は dt / 2^level）
+    public int getLevel(int i) { return i < levels.length ? levels[i] : 0; }
+
+    public double getAccuracy() { return accuracy; }
+
+    public void setAccuracy(double accuracy) {
+        if (accuracy <= 0) {
+            throw new IllegalArgumentException("精度パラメータは正の値である必要があります: " + accuracy);
+        }
+        this.accuracy = accuracy;
+    }
+}
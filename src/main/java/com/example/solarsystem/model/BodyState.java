@@ -0,0 +1,161 @@
+package com.example.solarsystem.model;
+
+import java.util.Arrays;
+
+// N体計算用の天体状態（構造体配列形式）
+// 位置・速度・加速度・質量をプリミティブ配列で保持し、
+// 力の計算ループがオブジェクトを生成せずに直接読み書きできるようにする
+public class BodyState {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int count;
+    private String[] ids;
+    public double[] x;
+    public double[] y;
+    public double[] z;
+    public double[] vx;
+    public double[] vy;
+    public double[] vz;
+    public double[] ax;
+    public double[] ay;
+    public double[] az;
+    public double[] mass;
+    public boolean[] active;  // falseの天体は力の計算から除外される
+    public boolean[] kinematic;  // trueの天体は積分せず、kinematicSourceが位置を与える（重力源にはなる）
+    public double time;  // 位置・速度が表す時刻
+    private KinematicSource kinematicSource;
+    private boolean accelerationsValid;  // ax/ay/azが現在の位置に対応しているか
+
+    public BodyState() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public BodyState(int capacity) {
+        allocate(Math.max(capacity, 1));
+    }
+
+    private void allocate(int capacity) {
+        ids = new String[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        z = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        vz = new double[capacity];
+        ax = new double[capacity];
+        ay = new double[capacity];
+        az = new double[capacity];
+        mass = new double[capacity];
+        active = new boolean[capacity];
+        kinematic = new boolean[capacity];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= x.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, x.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        z = Arrays.copyOf(z, newCapacity);
+        vx = Arrays.copyOf(vx, newCapacity);
+        vy = Arrays.copyOf(vy, newCapacity);
+        vz = Arrays.copyOf(vz, newCapacity);
+        ax = Arrays.copyOf(ax, newCapacity);
+        ay = Arrays.copyOf(ay, newCapacity);
+        az = Arrays.copyOf(az, newCapacity);
+        mass = Arrays.copyOf(mass, newCapacity);
+        active = Arrays.copyOf(active, newCapacity);
+        kinematic = Arrays.copyOf(kinematic, newCapacity);
+    }
+
+    // 天体を追加してインデックスを返す
+    public int add(String id, double mass) {
+        ensureCapacity(count + 1);
+        int i = count++;
+        ids[i] = id;
+        this.mass[i] = mass;
+        active[i] = true;
+        kinematic[i] = false;
+        x[i] = y[i] = z[i] = 0;
+        vx[i] = vy[i] = vz[i] = 0;
+        ax[i] = ay[i] = az[i] = 0;
+        accelerationsValid = false;
+        return i;
+    }
+
+    public void setPosition(int i, double px, double py, double pz) {
+        x[i] = px;
+        y[i] = py;
+        z[i] = pz;
+        accelerationsValid = false;
+    }
+
+    public void setVelocity(int i, double vx, double vy, double vz) {
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.vz[i] = vz;
+    }
+
+    public void clearAccelerations() {
+        Arrays.fill(ax, 0, count, 0);
+        Arrays.fill(ay, 0, count, 0);
+        Arrays.fill(az, 0, count, 0);
+        accelerationsValid = false;
+    }
+
+    // 別の状態の内容を丸ごと写す（スナップショット用、容量が足りていればオブジェクトを生成しない）
+    public void copyFrom(BodyState other) {
+        int n = other.count;
+        ensureCapacity(n);
+        System.arraycopy(other.ids, 0, ids, 0, n);
+        System.arraycopy(other.x, 0, x, 0, n);
+        System.arraycopy(other.y, 0, y, 0, n);
+        System.arraycopy(other.z, 0, z, 0, n);
+        System.arraycopy(other.vx, 0, vx, 0, n);
+        System.arraycopy(other.vy, 0, vy, 0, n);
+        System.arraycopy(other.vz, 0, vz, 0, n);
+        System.arraycopy(other.ax, 0, ax, 0, n);
+        System.arraycopy(other.ay, 0, ay, 0, n);
+        System.arraycopy(other.az, 0, az, 0, n);
+        System.arraycopy(other.mass, 0, mass, 0, n);
+        System.arraycopy(other.active, 0, active, 0, n);
+        System.arraycopy(other.kinematic, 0, kinematic, 0, n);
+        if (count > n) {
+            Arrays.fill(ids, n, count, null);
+        }
+        count = n;
+        time = other.time;
+        accelerationsValid = other.accelerationsValid;
+    }
+
+    public void clear() {
+        Arrays.fill(ids, 0, count, null);
+        count = 0;
+    }
+
+    // 時刻を進め、軌道要素などで位置が決まる天体を更新する（積分器のドリフトから呼ばれる）
+    public void advanceTime(double dt) {
+        setTime(time + dt);
+    }
+
+    public void setTime(double time) {
+        this.time = time;
+        if (kinematicSource != null) {
+            kinematicSource.apply(this, time);
+            accelerationsValid = false;
+        }
+    }
+
+    public KinematicSource getKinematicSource() { return kinematicSource; }
+    public void setKinematicSource(KinematicSource source) { this.kinematicSource = source; }
+
+    // 位置や質量を外部から書き換えた場合は加速度を再計算させる
+    public void invalidateAccelerations() { accelerationsValid = false; }
+    public void markAccelerationsValid() { accelerationsValid = true; }
+    public boolean hasValidAccelerations() { return accelerationsValid; }
+
+    public int count() { return count; }
+    public String getId(int i) { return ids[i]; }
+}
@@ -30,6 +30,7 @@ public class CelestialBody {
     private final String colorHex;
     private final BooleanProperty selected;
     private final BooleanProperty hovered;
+    private boolean removed;  // 衝突で合体して消えた（表示の設定とは別に隠す）
 
     public CelestialBody(CelestialBodyData data) {
         this.id = data.id;
@@ -119,16 +120,26 @@ public class CelestialBody {
 
     public void setVisible(boolean visible) {
         this.visible.set(visible);
-        sphere.setVisible(visible);
+        sphere.setVisible(visible && !removed);
     }
 
-    public void updatePosition(double deltaTime) {
-        if (orbitData != null) {
-            // 軌道運動の更新
-            double angle = orbitData.initialAngle + (deltaTime * orbitData.period);
-            double x = Math.cos(angle) * orbitData.radius;
-            double z = Math.sin(angle) * orbitData.radius;
-            position.set(new Point3D(x, 0, z));
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    // 衝突で合体した天体を隠す（visibleは変えないので、シミュレーションへの表示切り替えは起きない）
+    public void setRemoved(boolean removed) {
+        if (this.removed != removed) {
+            this.removed = removed;
+            sphere.setVisible(visible.get() && !removed);
+        }
+    }
+
+    // 時刻（年）から軌道要素に従った位置へ移動する
+    public void updatePosition(double time) {
+        if (orbitData != null && orbitData.eccentricity < 1) {
+            double[] s = KeplerPropagator.stateAt(orbitData, time);
+            syncFromState(s[0], s[1], s[2], s[3], s[4], s[5]);
         }
     }
 
@@ -143,6 +154,15 @@ public class CelestialBody {
         velocity.set(newVelocity);
     }
 
+    // 物理計算の結果を反映（SolarSystemManagerから1フレームに1回だけ呼ばれる）
+    public void syncFromState(double x, double y, double z, double vx, double vy, double vz) {
+        position.set(new Point3D(x, y, z));
+        velocity.set(new Point3D(vx, vy, vz));
+        sphere.setTranslateX(x);
+        sphere.setTranslateY(y);
+        sphere.setTranslateZ(z);
+    }
+
     // 回転の更新
     public void updateRotation(double angle) {
         if (rotationData != null) {
@@ -0,0 +1,214 @@
+package com.example.solarsystem.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// チェビシェフ多項式による暦（JPLのDEファイルと同じ考え方）
+// 時間を一定長の区間に分け、区間ごと・天体ごと・軸ごとにチェビシェフ係数を持つ。
+// 任意時刻の位置と速度は、該当区間の係数から数回の積和で求まる
+public class ChebyshevEphemeris implements PlaybackSource {
+    private static final int MAGIC = 0x43484542;  // "CHEB"
+    private static final int FORMAT_VERSION = 1;
+
+    private final double startTime;
+    private final double segmentLength;
+    private final int segmentCount;
+    private final int degree;
+    private final String[] ids;
+    private final double[] coefficients;  // [区間][天体][軸][次数+1]
+    private final Map<String, Integer> indexById = new HashMap<>();
+
+    // evaluate用の対応表（状態ごとに作り直す）
+    private BodyState mappedState;
+    private int mappedCount = -1;
+    private int[] stateToBody = new int[0];
+    private final double[] scratch = new double[6];
+
+    private ChebyshevEphemeris(double startTime, double segmentLength, int segmentCount, int degree,
+                               String[] ids, double[] coefficients) {
+        this.startTime = startTime;
+        this.segmentLength = segmentLength;
+        this.segmentCount = segmentCount;
+        this.degree = degree;
+        this.ids = ids;
+        this.coefficients = coefficients;
+        for (int b = 0; b < ids.length; b++) {
+            indexById.put(ids[b], b);
+        }
+    }
+
+    // シミュレーションを現在の時刻からspan年進めながら係数を求める（シミュレーションの状態は進む）
+    // 各区間ではチェビシェフ点（degree+1点）で位置を標本化し、maxStepを超えない刻みで積分する
+    public static ChebyshevEphemeris build(NBodySimulation simulation, double span, double segmentLength,
+                                           int degree, double maxStep) {
+        if (span <= 0 || segmentLength <= 0 || degree < 1 || maxStep <= 0) {
+            throw new IllegalArgumentException("暦の作成パラメータが不正です");
+        }
+        BodyState state = simulation.getState();
+        int bodies = state.count();
+        int segments = (int) Math.ceil(span / segmentLength - 1e-9);
+        int nodes = degree + 1;
+        String[] ids = new String[bodies];
+        for (int b = 0; b < bodies; b++) {
+            ids[b] = state.getId(b);
+        }
+
+        double start = simulation.getCurrentTime();
+        double[] coefficients = new double[segments * bodies * 3 * nodes];
+        double[][] samples = new double[bodies * 3][nodes];
+        for (int seg = 0; seg < segments; seg++) {
+            double mid = start + (seg + 0.5) * segmentLength;
+            double half = segmentLength / 2;
+            // チェビシェフ点 x_k = cos(π(k+0.5)/N) は降順なので、時刻の早い順（kの大きい順）に進める
+            for (int k = nodes - 1; k >= 0; k--) {
+                double target = mid + half * Math.cos(Math.PI * (k + 0.5) / nodes);
+                advanceTo(simulation, target, maxStep);
+                for (int b = 0; b < bodies; b++) {
+                    samples[b * 3][k] = state.x[b];
+                    samples[b * 3 + 1][k] = state.y[b];
+                    samples[b * 3 + 2][k] = state.z[b];
+                }
+            }
+            for (int series = 0; series < bodies * 3; series++) {
+                int base = (seg * bodies * 3 + series) * nodes;
+                fit(samples[series], coefficients, base);
+            }
+        }
+        advanceTo(simulation, start + segments * segmentLength, maxStep);
+        return new ChebyshevEphemeris(start, segmentLength, segments, degree, ids, coefficients);
+    }
+
+    private static void advanceTo(NBodySimulation simulation, double time, double maxStep) {
+        while (simulation.getCurrentTime() < time) {
+            simulation.step(Math.min(maxStep, time - simulation.getCurrentTime()));
+        }
+    }
+
+    // チェビシェフ点での値から係数を求める（離散コサイン変換）
+    private static void fit(double[] values, double[] out, int base) {
+        int n = values.length;
+        for (int j = 0; j < n; j++) {
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += values[k] * Math.cos(Math.PI * j * (k + 0.5) / n);
+            }
+            out[base + j] = (j == 0 ? 1.0 : 2.0) * sum / n;
+        }
+    }
+
+    // 天体bの時刻timeでの位置と速度をout[6]に書き込む
+    public void evaluate(int body, double time, double[] out) {
+        double offset = (time - startTime) / segmentLength;
+        int seg = (int) Math.floor(offset);
+        seg = Math.max(0, Math.min(segmentCount - 1, seg));
+        double x = 2 * (offset - seg) - 1;
+        x = Math.max(-1, Math.min(1, x));
+        double scale = 2 / segmentLength;
+        int nodes = degree + 1;
+        for (int axis = 0; axis < 3; axis++) {
+            int base = ((seg * ids.length + body) * 3 + axis) * nodes;
+            // T_n(x)と、導関数用のU_{n-1}(x)を同時に漸化式で求める
+            double t0 = 1, t1 = x, u0 = 1, u1 = 2 * x;
+            double value = coefficients[base] + coefficients[base + 1] * x;
+            double derivative = coefficients[base + 1];
+            for (int n = 2; n < nodes; n++) {
+                double t2 = 2 * x * t1 - t0;
+                value += coefficients[base + n] * t2;
+                derivative += coefficients[base + n] * n * u1;
+                double u2 = 2 * x * u1 - u0;
+                t0 = t1; t1 = t2;
+                u0 = u1; u1 = u2;
+            }
+            out[axis] = value;
+            out[3 + axis] = derivative * scale;
+        }
+    }
+
+    @Override
+    public void evaluate(BodyState state, double time) {
+        if (state != mappedState || state.count() != mappedCount) {
+            mappedState = state;
+            mappedCount = state.count();
+            stateToBody = new int[mappedCount];
+            for (int i = 0; i < mappedCount; i++) {
+                stateToBody[i] = indexById.getOrDefault(state.getId(i), -1);
+            }
+        }
+        for (int i = 0; i < mappedCount; i++) {
+            int b = stateToBody[i];
+            if (b < 0) continue;
+            evaluate(b, time, scratch);
+            state.setPosition(i, scratch[0], scratch[1], scratch[2]);
+            state.setVelocity(i, scratch[3], scratch[4], scratch[5]);
+        }
+        state.time = time;
+    }
+
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeDouble(startTime);
+            out.writeDouble(segmentLength);
+            out.writeInt(segmentCount);
+            out.writeInt(degree);
+            out.writeInt(ids.length);
+            for (String id : ids) {
+                out.writeUTF(id);
+            }
+            for (double c : coefficients) {
+                out.writeDouble(c);
+            }
+        }
+    }
+
+    public static ChebyshevEphemeris load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("暦ファイルではありません: " + path);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("対応していない暦ファイルのバージョンです: " + version);
+            }
+            double startTime = in.readDouble();
+            double segmentLength = in.readDouble();
+            int segmentCount = in.readInt();
+            int degree = in.readInt();
+            String[] ids = new String[in.readInt()];
+            for (int b = 0; b < ids.length; b++) {
+                ids[b] = in.readUTF();
+            }
+            double[] coefficients = new double[segmentCount * ids.length * 3 * (degree + 1)];
+            for (int k = 0; k < coefficients.length; k++) {
+                coefficients[k] = in.readDouble();
+            }
+            return new ChebyshevEphemeris(startTime, segmentLength, segmentCount, degree, ids, coefficients);
+        }
+    }
+
+    @Override
+    public double getStartTime() { return startTime; }
+
+    @Override
+    public double getEndTime() { return startTime + segmentCount * segmentLength; }
+
+    public double getSegmentLength() { return segmentLength; }
+    public int getDegree() { return degree; }
+    public int getBodyCount() { return ids.length; }
+    public String getId(int body) { return ids[body]; }
+    public int indexOf(String id) { return indexById.getOrDefault(id, -1); }
+
+    // 係数の内容が同じか（保存と読み込みの確認用）
+    public boolean hasSameCoefficients(ChebyshevEphemeris other) {
+        return Arrays.equals(coefficients, other.coefficients) && Arrays.equals(ids, other.ids);
+    }
+}
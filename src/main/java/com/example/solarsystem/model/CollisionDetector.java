@@ -0,0 +1,318 @@
+package com.example.solarsystem.model;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+// 一様な空間ハッシュによる衝突・接近の検出
+// 天体を一辺cellの格子に振り分け、隣接する27個のセルの中だけを調べるため、
+// 天体が空間に散らばっていれば1回の判定はおおよそO(N)で済む。
+// 軌道要素や衛星系が位置を与える天体（kinematic）は対象にしない
+public class CollisionDetector {
+    public static final double EARTH_RADIUS_AU = 4.2635e-5;  // 天体データの半径（地球半径）をAUにする係数
+
+    private static final Logger LOGGER = Logger.getLogger(CollisionDetector.class.getName());
+
+    private CollisionResponse response = CollisionResponse.NONE;
+    private double restitution = 1.0;     // 跳ね返りの反発係数（1なら弾性衝突）
+    private double encounterDistance;     // これより近づいた組を接近として記録する（AU、0なら記録しない）
+
+    private double[] radius = new double[0];         // 現在の半径（AU、合体すると大きくなる）
+    private double[] initialRadius = new double[0];
+    private boolean[] merged = new boolean[0];       // 他の天体に吸収された天体
+
+    // 空間ハッシュ（headはセルごとの先頭、nextは同じセルの次の天体）
+    private int[] head = new int[0];
+    private int[] next = new int[0];
+    private int[] cellX = new int[0];
+    private int[] cellY = new int[0];
+    private int[] cellZ = new int[0];
+
+    // 接触・接近中の組（入った時だけ記録するため前回の分を持つ）
+    private Set<Long> contacts = new HashSet<>();
+    private Set<Long> previousContacts = new HashSet<>();
+    private Set<Long> encounters = new HashSet<>();
+    private Set<Long> previousEncounters = new HashSet<>();
+
+    private long collisionCount;
+    private long encounterCount;
+    private long mergeCount;
+
+    private void ensureCapacity(int n) {
+        if (radius.length >= n) {
+            return;
+        }
+        int capacity = Math.max(n, radius.length * 2);
+        radius = Arrays.copyOf(radius, capacity);
+        initialRadius = Arrays.copyOf(initialRadius, capacity);
+        merged = Arrays.copyOf(merged, capacity);
+        next = new int[capacity];
+        cellX = new int[capacity];
+        cellY = new int[capacity];
+        cellZ = new int[capacity];
+    }
+
+    public void setRadius(int i, double r) {
+        ensureCapacity(i + 1);
+        radius[i] = r;
+        initialRadius[i] = r;
+    }
+
+    public double getRadius(int i) {
+        return i < radius.length ? radius[i] : 0;
+    }
+
+    public boolean isMerged(int i) {
+        return i < merged.length && merged[i];
+    }
+
+    public boolean isEnabled() {
+        return response != CollisionResponse.NONE;
+    }
+
+    private boolean isCandidate(BodyState state, int i) {
+        return state.active[i] && !state.kinematic[i] && !merged[i];
+    }
+
+    // 衝突・接近を調べて応答を適用する。天体の状態を変えた場合はtrueを返す
+    public boolean detect(BodyState state) {
+        int n = state.count();
+        if (!isEnabled() || n < 2) {
+            return false;
+        }
+        ensureCapacity(n);
+
+        double maxRadius = 0;
+        for (int i = 0; i < n; i++) {
+            if (isCandidate(state, i)) {
+                maxRadius = Math.max(maxRadius, radius[i]);
+            }
+        }
+        // 接触は半径の和、接近はencounterDistanceまでなので、その大きい方をセルの大きさにすれば隣のセルまでで足りる
+        double cell = Math.max(2 * maxRadius, encounterDistance);
+        if (!(cell > 0)) {
+            return false;
+        }
+        double inverseCell = 1.0 / cell;
+
+        int tableSize = Integer.highestOneBit(Math.max(2, n * 2 - 1)) << 1;
+        if (head.length != tableSize) {
+            head = new int[tableSize];
+        }
+        Arrays.fill(head, -1);
+        int mask = tableSize - 1;
+        for (int i = 0; i < n; i++) {
+            if (!isCandidate(state, i)) continue;
+            cellX[i] = (int) Math.floor(state.x[i] * inverseCell);
+            cellY[i] = (int) Math.floor(state.y[i] * inverseCell);
+            cellZ[i] = (int) Math.floor(state.z[i] * inverseCell);
+            int h = hash(cellX[i], cellY[i], cellZ[i]) & mask;
+            next[i] = head[h];
+            head[h] = i;
+        }
+
+        Set<Long> swap = previousContacts;
+        previousContacts = contacts;
+        contacts = swap;
+        contacts.clear();
+        swap = previousEncounters;
+        previousEncounters = encounters;
+        encounters = swap;
+        encounters.clear();
+
+        boolean changed = false;
+        double encounterSq = encounterDistance * encounterDistance;
+        for (int i = 0; i < n; i++) {
+            if (!isCandidate(state, i)) continue;
+            for (int ox = -1; ox <= 1; ox++) {
+                for (int oy = -1; oy <= 1; oy++) {
+                    for (int oz = -1; oz <= 1; oz++) {
+                        int cx = cellX[i] + ox, cy = cellY[i] + oy, cz = cellZ[i] + oz;
+                        for (int j = head[hash(cx, cy, cz) & mask]; j >= 0; j = next[j]) {
+                            // 各組を一度だけ調べる（ハッシュの衝突で別のセルの天体が混ざるので座標も確かめる）
+                            if (j <= i || merged[j] || merged[i]
+                                    || cellX[j] != cx || cellY[j] != cy || cellZ[j] != cz) continue;
+                            double dx = state.x[j] - state.x[i];
+                            double dy = state.y[j] - state.y[i];
+                            double dz = state.z[j] - state.z[i];
+                            double distSq = dx * dx + dy * dy + dz * dz;
+                            double reach = radius[i] + radius[j];
+                            if (distSq < reach * reach) {
+                                changed |= collide(state, i, j, Math.sqrt(distSq));
+                            } else if (distSq < encounterSq) {
+                                long key = pairKey(i, j);
+                                encounters.add(key);
+                                if (!previousEncounters.contains(key)) {
+                                    encounterCount++;
+                                    LOGGER.info(String.format("天体が接近しました: %s - %s（%.3e AU）",
+                                        state.getId(i), state.getId(j), Math.sqrt(distSq)));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static int hash(int x, int y, int z) {
+        int h = x * 73856093 ^ y * 19349663 ^ z * 83492791;
+        return h ^ (h >>> 16);
+    }
+
+    private static long pairKey(int i, int j) {
+        return ((long) i << 32) | j;
+    }
+
+    private boolean collide(BodyState state, int i, int j, double dist) {
+        long key = pairKey(i, j);
+        contacts.add(key);
+        boolean entered = !previousContacts.contains(key);
+        if (entered) {
+            collisionCount++;
+        }
+        switch (response) {
+            case MERGE:
+                merge(state, i, j);
+                return true;
+            case BOUNCE:
+                return bounce(state, i, j, dist);
+            default:
+                if (entered) {
+                    LOGGER.info("天体が接触しました: " + state.getId(i) + " - " + state.getId(j));
+                }
+                return false;
+        }
+    }
+
+    // 重い方に軽い方を吸収させる（質量・運動量・体積を保存）
+    private void merge(BodyState state, int i, int j) {
+        int keep = state.mass[j] > state.mass[i] ? j : i;
+        int lost = keep == i ? j : i;
+        double m1 = state.mass[keep], m2 = state.mass[lost];
+        double m = m1 + m2;
+        double w1 = m > 0 ? m1 / m : 0.5;
+        double w2 = 1 - w1;
+        state.setPosition(keep,
+            state.x[keep] * w1 + state.x[lost] * w2,
+            state.y[keep] * w1 + state.y[lost] * w2,
+            state.z[keep] * w1 + state.z[lost] * w2);
+        state.setVelocity(keep,
+            state.vx[keep] * w1 + state.vx[lost] * w2,
+            state.vy[keep] * w1 + state.vy[lost] * w2,
+            state.vz[keep] * w1 + state.vz[lost] * w2);
+        state.mass[keep] = m;
+        state.mass[lost] = 0;
+        state.active[lost] = false;
+        merged[lost] = true;
+        radius[keep] = Math.cbrt(radius[keep] * radius[keep] * radius[keep] + radius[lost] * radius[lost] * radius[lost]);
+        mergeCount++;
+        LOGGER.info("天体が合体しました: " + state.getId(keep) + " + " + state.getId(lost));
+    }
+
+    // 法線方向の相対速度を反発係数に従って反転し、重なりを解消する
+    private boolean bounce(BodyState state, int i, int j, double dist) {
+        if (dist == 0) {
+            return false;
+        }
+        double nx = (state.x[j] - state.x[i]) / dist;
+        double ny = (state.y[j] - state.y[i]) / dist;
+        double nz = (state.z[j] - state.z[i]) / dist;
+        double m = state.mass[i] + state.mass[j];
+        double wi = m > 0 ? state.mass[j] / m : 0.5;  // iが受け持つ割合（軽いほど大きく動く）
+        double wj = 1 - wi;
+
+        double overlap = radius[i] + radius[j] - dist;
+        state.setPosition(i, state.x[i] - nx * overlap * wi, state.y[i] - ny * overlap * wi, state.z[i] - nz * overlap * wi);
+        state.setPosition(j, state.x[j] + nx * overlap * wj, state.y[j] + ny * overlap * wj, state.z[j] + nz * overlap * wj);
+
+        double vn = (state.vx[j] - state.vx[i]) * nx + (state.vy[j] - state.vy[i]) * ny + (state.vz[j] - state.vz[i]) * nz;
+        if (vn >= 0) {
+            return true;  // 既に離れつつある
+        }
+        double impulse = (1 + restitution) * vn;
+        state.setVelocity(i, state.vx[i] + wi * impulse * nx, state.vy[i] + wi * impulse * ny, state.vz[i] + wi * impulse * nz);
+        state.setVelocity(j, state.vx[j] - wj * impulse * nx, state.vy[j] - wj * impulse * ny, state.vz[j] - wj * impulse * nz);
+        return true;
+    }
+
+    // キーフレーム用に質量と半径を書き出す（合体を巻き戻せるようにする）
+    public int stateLength(BodyState state) {
+        return isEnabled() ? state.count() * 2 : 0;
+    }
+
+    public int writeState(BodyState state, double[] out, int offset) {
+        if (!isEnabled()) {
+            return offset;
+        }
+        int n = state.count();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            out[offset++] = state.mass[i];
+            out[offset++] = radius[i];
+        }
+        return offset;
+    }
+
+    public int readState(BodyState state, double[] in, int offset) {
+        if (!isEnabled()) {
+            return offset;
+        }
+        int n = state.count();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            state.mass[i] = in[offset++];
+            radius[i] = in[offset++];
+            unmergeIfRestored(state, i);
+        }
+        return offset;
+    }
+
+    // 初期状態へ戻したときに合体を取り消す
+    public void restoreInitialState(BodyState state) {
+        int n = Math.min(state.count(), radius.length);
+        System.arraycopy(initialRadius, 0, radius, 0, n);
+        for (int i = 0; i < n; i++) {
+            unmergeIfRestored(state, i);
+        }
+        contacts.clear();
+        encounters.clear();
+    }
+
+    private void unmergeIfRestored(BodyState state, int i) {
+        if (merged[i] && state.mass[i] > 0) {
+            merged[i] = false;
+            state.active[i] = true;
+        }
+    }
+
+    public CollisionResponse getResponse() { return response; }
+
+    public void setResponse(CollisionResponse response) {
+        if (response == null) {
+            throw new IllegalArgumentException("responseがnullです");
+        }
+        this.response = response;
+    }
+
+    public double getRestitution() { return restitution; }
+
+    public void setRestitution(double restitution) {
+        if (!(restitution >= 0 && restitution <= 1)) {
+            throw new IllegalArgumentException("反発係数は0から1の範囲で指定してください: " + restitution);
+        }
+        this.restitution = restitution;
+    }
+
+    public double getEncounterDistance() { return encounterDistance; }
+
+    public void setEncounterDistance(double distance) {
+        this.encounterDistance = Math.max(0, distance);
+    }
+
+    public long getCollisionCount() { return collisionCount; }
+    public long getEncounterCount() { return encounterCount; }
+    public long getMergeCount() { return mergeCount; }
+}
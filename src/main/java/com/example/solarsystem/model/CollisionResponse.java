@@ -0,0 +1,32 @@
+package com.example.solarsystem.model;
+
+// 天体どうしが接触したときの扱い
+public enum CollisionResponse {
+    NONE("none"),      // 判定しない
+    LOG("log"),        // 記録するだけ（すり抜ける）
+    MERGE("merge"),    // 質量と運動量を保存して1つにまとめる
+    BOUNCE("bounce");  // 反発係数に従って跳ね返す
+
+    private final String key;
+
+    CollisionResponse(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // 設定の文字列から取得（未指定の場合は既定値）
+    public static CollisionResponse fromKey(String key, CollisionResponse defaultResponse) {
+        if (key == null || key.isEmpty()) {
+            return defaultResponse;
+        }
+        for (CollisionResponse response : values()) {
+            if (response.key.equalsIgnoreCase(key) || response.name().equalsIgnoreCase(key)) {
+                return response;
+            }
+        }
+        throw new IllegalArgumentException("不明な衝突時の動作です: " + key);
+    }
+}
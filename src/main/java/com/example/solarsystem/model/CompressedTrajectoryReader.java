@@ -0,0 +1,286 @@
+package com.example.solarsystem.model;
+
+import com.example.solarsystem.model.CompressedTrajectoryWriter.BlockInfo;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// CompressedTrajectoryWriterで書き出したファイルを、必要なブロックだけ展開して読む
+// 索引はメモリに持ち、時刻からブロックを二分探索する。展開したブロックは少数だけ保持するので、
+// 連続して再生する間は同じブロックを使い回す。レコードの間はTrajectoryReaderと同じく3次エルミート補間する
+public class CompressedTrajectoryReader implements PlaybackSource, Closeable {
+    private static final int MAX_CACHED_BLOCKS = 4;
+
+    // 展開したブロック（値はレコードごとに天体数×6）
+    private static class Block {
+        final double[] times;
+        final double[] values;
+
+        Block(double[] times, double[] values) {
+            this.times = times;
+            this.values = values;
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final String[] ids;
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private final double precision;
+    private final int blockRecords;
+    private final BlockInfo[] blocks;
+    private final long recordCount;
+    private final Inflater inflater = new Inflater();
+
+    private final Map<Integer, Block> cache = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+            return size() > MAX_CACHED_BLOCKS;
+        }
+    };
+
+    // evaluate用の対応表
+    private BodyState mappedState;
+    private int mappedCount = -1;
+    private int[] stateToBody = new int[0];
+    private final double[] value = new double[6];
+
+    private CompressedTrajectoryReader(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != CompressedTrajectoryWriter.MAGIC) {
+                throw new IOException("圧縮した軌道ファイルではありません: " + path);
+            }
+            int version = in.readInt();
+            if (version != CompressedTrajectoryWriter.FORMAT_VERSION) {
+                throw new IOException("対応していない圧縮軌道ファイルのバージョンです: " + version);
+            }
+            ids = new String[in.readInt()];
+            precision = in.readDouble();
+            blockRecords = in.readInt();
+            for (int b = 0; b < ids.length; b++) {
+                ids[b] = in.readUTF();
+                indexById.put(ids[b], b);
+            }
+        }
+
+        long size = channel.size();
+        ByteBuffer trailer = read(size - CompressedTrajectoryWriter.TRAILER_BYTES, CompressedTrajectoryWriter.TRAILER_BYTES);
+        long indexOffset = trailer.getLong();
+        int blockCount = trailer.getInt();
+        if (trailer.getInt() != CompressedTrajectoryWriter.MAGIC || blockCount < 0 || indexOffset < 0) {
+            throw new IOException("圧縮軌道ファイルの索引がありません（書き出しが完了していない可能性があります）: " + path);
+        }
+        ByteBuffer index = read(indexOffset, blockCount * 36);
+        blocks = new BlockInfo[blockCount];
+        long records = 0;
+        for (int b = 0; b < blockCount; b++) {
+            blocks[b] = new BlockInfo(index.getLong(), index.getInt(), index.getInt(), index.getInt(),
+                index.getDouble(), index.getDouble());
+            records += blocks[b].records;
+        }
+        recordCount = records;
+    }
+
+    public static CompressedTrajectoryReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new CompressedTrajectoryReader(path, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // 先頭のmagicで圧縮形式のファイルかどうかを判定する
+    public static boolean isCompressed(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] head = in.readNBytes(Integer.BYTES);
+            return head.length == Integer.BYTES
+                && ByteBuffer.wrap(head).getInt() == CompressedTrajectoryWriter.MAGIC;
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        if (position < 0) {
+            throw new IOException("圧縮軌道ファイルが壊れています: " + path);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("圧縮軌道ファイルが途中で終わっています: " + path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private Block block(int index) {
+        Block block = cache.get(index);
+        if (block == null) {
+            try {
+                block = decode(blocks[index]);
+            } catch (IOException | DataFormatException e) {
+                throw new IllegalStateException("圧縮軌道ファイルを読めませんでした: " + path, e);
+            }
+            cache.put(index, block);
+        }
+        return block;
+    }
+
+    private Block decode(BlockInfo info) throws IOException, DataFormatException {
+        byte[] compressed = read(info.offset, info.compressedLength).array();
+        byte[] raw = new byte[info.rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        int n = 0;
+        while (n < raw.length && !inflater.finished()) {
+            int read = inflater.inflate(raw, n, raw.length - n);
+            if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                break;
+            }
+            n += read;
+        }
+        if (n != raw.length) {
+            throw new IOException("ブロックの長さが索引と一致しません: " + path);
+        }
+
+        int[] cursor = {0};
+        int records = (int) readVarLong(raw, cursor);
+        double[] times = new double[records];
+        for (int k = 0; k < records; k++) {
+            long bits = 0;
+            for (int j = 0; j < 8; j++) {
+                bits = (bits << 8) | (raw[cursor[0]++] & 0xFF);
+            }
+            times[k] = Double.longBitsToDouble(bits);
+        }
+        int seriesCount = ids.length * 6;
+        double[] values = new double[records * seriesCount];
+        long[] series = new long[records];
+        for (int s = 0; s < seriesCount; s++) {
+            for (int k = 0; k < records; k++) {
+                long residual = readVarLong(raw, cursor);
+                series[k] = CompressedTrajectoryWriter.predict(series, k) + ((residual >>> 1) ^ -(residual & 1));
+                values[k * seriesCount + s] = series[k] * precision;
+            }
+        }
+        return new Block(times, values);
+    }
+
+    private static long readVarLong(byte[] raw, int[] cursor) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = raw[cursor[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    // timeを含むブロック（範囲外なら端）
+    private int findBlock(double time) {
+        int lo = 0, hi = blocks.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (blocks[mid].firstTime <= time) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    // 天体bの時刻timeでの位置と速度をout[6]に書き込む
+    public void evaluate(int body, double time, double[] out) {
+        int b = findBlock(time);
+        Block block = block(b);
+        double[] times = block.times;
+        int k = 0, hi = times.length - 1;
+        while (k < hi) {
+            int mid = (k + hi + 1) >>> 1;
+            if (times[mid] <= time) {
+                k = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int stride = ids.length * 6;
+        System.arraycopy(block.values, k * stride + body * 6, out, 0, 6);
+        if (time <= times[k]) {
+            return;
+        }
+        // 次のレコードは同じブロックか、次のブロックの先頭
+        Block next = block;
+        int nextIndex = k + 1;
+        if (nextIndex >= times.length) {
+            if (b + 1 >= blocks.length) {
+                return;
+            }
+            next = block(b + 1);
+            nextIndex = 0;
+        }
+        TrajectoryReader.hermite(times[k], block.values, k * stride + body * 6,
+            next.times[nextIndex], next.values, nextIndex * stride + body * 6, time, out);
+    }
+
+    @Override
+    public void evaluate(BodyState state, double time) {
+        if (state != mappedState || state.count() != mappedCount) {
+            mappedState = state;
+            mappedCount = state.count();
+            stateToBody = new int[mappedCount];
+            for (int i = 0; i < mappedCount; i++) {
+                stateToBody[i] = indexById.getOrDefault(state.getId(i), -1);
+            }
+        }
+        if (recordCount == 0) {
+            return;
+        }
+        for (int i = 0; i < mappedCount; i++) {
+            int b = stateToBody[i];
+            if (b < 0) continue;
+            evaluate(b, time, value);
+            state.setPosition(i, value[0], value[1], value[2]);
+            state.setVelocity(i, value[3], value[4], value[5]);
+        }
+        state.time = time;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cache.clear();
+        inflater.end();
+        channel.close();
+    }
+
+    @Override
+    public double getStartTime() { return blocks.length > 0 ? blocks[0].firstTime : 0; }
+
+    @Override
+    public double getEndTime() { return blocks.length > 0 ? blocks[blocks.length - 1].lastTime : 0; }
+
+    public Path getPath() { return path; }
+    public long getRecordCount() { return recordCount; }
+    public int getBlockCount() { return blocks.length; }
+    public int getBlockRecords() { return blockRecords; }
+    public double getPrecision() { return precision; }
+    public int getBodyCount() { return ids.length; }
+    public String getId(int body) { return ids[body]; }
+    public int indexOf(String id) { return indexById.getOrDefault(id, -1); }
+}
@@ -0,0 +1,251 @@
+package com.example.solarsystem.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+// 軌道を保存用に圧縮して書き出す（読み出しはCompressedTrajectoryReader）
+// 位置と速度を指定した精度の整数に量子化し、天体・成分ごとに直前の3レコードからの2次の予測との差だけを持つ。
+// 一定数のレコードをまとめたブロックごとに独立してDeflateで圧縮するため、ブロック単位で任意の時刻から読める。
+// ファイルの形式（ビッグエンディアン）:
+//   ヘッダ: magic, version, 天体数, 精度, ブロックのレコード数, 天体id（writeUTF）の並び
+//   ブロック: 圧縮したデータ（レコード数, 時刻の並び, 系列ごとの予測誤差（zigzag + 可変長整数））
+//   索引: ブロックごとに 位置, 圧縮後の長さ, 展開後の長さ, レコード数, 最初の時刻, 最後の時刻
+//   末尾: 索引の位置(long), ブロック数, magic
+public class CompressedTrajectoryWriter implements Closeable {
+    public static final int MAGIC = 0x315A5254;  // "TRZ1"
+    public static final int FORMAT_VERSION = 1;
+    public static final int TRAILER_BYTES = Long.BYTES + 2 * Integer.BYTES;
+    public static final double DEFAULT_PRECISION = 1e-8;  // 量子化の刻み（位置はAU（約1.5km）、速度はAU/年）
+    public static final int DEFAULT_BLOCK_RECORDS = 256;
+
+    // 書き終えたブロックの索引
+    static class BlockInfo {
+        final long offset;
+        final int compressedLength;
+        final int rawLength;
+        final int records;
+        final double firstTime;
+        final double lastTime;
+
+        BlockInfo(long offset, int compressedLength, int rawLength, int records, double firstTime, double lastTime) {
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.rawLength = rawLength;
+            this.records = records;
+            this.firstTime = firstTime;
+            this.lastTime = lastTime;
+        }
+    }
+
+    private final Path path;
+    private final DataOutputStream out;
+    private final int bodyCount;
+    private final int seriesCount;  // 天体数×6（x, y, z, vx, vy, vz）
+    private final double precision;
+    private final int blockRecords;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final List<BlockInfo> blocks = new ArrayList<>();
+
+    // 書き出し前のブロック（量子化済みの値を系列ごとに並べる）
+    private final double[] times;
+    private final long[][] quantized;
+    private int pending;
+
+    private long position;
+    private long recordCount;
+    private double lastTime = Double.NaN;
+    private boolean closed;
+
+    private CompressedTrajectoryWriter(Path path, DataOutputStream out, String[] ids, double precision,
+                                       int blockRecords) throws IOException {
+        this.path = path;
+        this.out = out;
+        this.bodyCount = ids.length;
+        this.seriesCount = bodyCount * 6;
+        this.precision = precision;
+        this.blockRecords = blockRecords;
+        this.times = new double[blockRecords];
+        this.quantized = new long[seriesCount][blockRecords];
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(bodyCount);
+        out.writeDouble(precision);
+        out.writeInt(blockRecords);
+        for (String id : ids) {
+            out.writeUTF(id != null ? id : "");
+        }
+        position = out.size();
+    }
+
+    public static CompressedTrajectoryWriter create(Path path, BodyState layout) throws IOException {
+        return create(path, layout, DEFAULT_PRECISION, DEFAULT_BLOCK_RECORDS);
+    }
+
+    // 既存のファイルは上書きする
+    public static CompressedTrajectoryWriter create(Path path, BodyState layout, double precision,
+                                                    int blockRecords) throws IOException {
+        if (!(precision > 0) || blockRecords < 1) {
+            throw new IllegalArgumentException("精度とブロックのレコード数は正の値である必要があります");
+        }
+        String[] ids = new String[layout.count()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = layout.getId(i);
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        try {
+            return new CompressedTrajectoryWriter(path, out, ids, precision, blockRecords);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    // TrajectoryRecorderの記録をすべて圧縮形式へ書き写す
+    public static void export(TrajectoryReader source, Path path, double precision, int blockRecords)
+            throws IOException {
+        BodyState layout = new BodyState(source.getBodyCount());
+        for (int b = 0; b < source.getBodyCount(); b++) {
+            layout.add(source.getId(b), 0);
+        }
+        double[] value = new double[6];
+        try (CompressedTrajectoryWriter writer = create(path, layout, precision, blockRecords)) {
+            for (long k = 0; k < source.getRecordCount(); k++) {
+                for (int b = 0; b < layout.count(); b++) {
+                    source.readRecord(k, b, value);
+                    layout.setPosition(b, value[0], value[1], value[2]);
+                    layout.setVelocity(b, value[3], value[4], value[5]);
+                }
+                writer.write(layout, source.timeAt(k));
+            }
+        }
+    }
+
+    // 時刻timeの状態を1レコード追加する（時刻は増加していく必要がある）
+    public void write(BodyState state, double time) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("書き出しは終了しています: " + path);
+        }
+        if (state.count() != bodyCount) {
+            throw new IllegalArgumentException("天体数が書き出し開始時と異なります: " + state.count() + " != " + bodyCount);
+        }
+        if (recordCount > 0 && !(time > lastTime)) {
+            throw new IllegalArgumentException("時刻が増加していません: " + time + " <= " + lastTime);
+        }
+        times[pending] = time;
+        double scale = 1 / precision;
+        double[][] columns = {state.x, state.y, state.z, state.vx, state.vy, state.vz};
+        for (int i = 0; i < bodyCount; i++) {
+            for (int c = 0; c < 6; c++) {
+                quantized[i * 6 + c][pending] = Math.round(columns[c][i] * scale);
+            }
+        }
+        pending++;
+        recordCount++;
+        lastTime = time;
+        if (pending == blockRecords) {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (pending == 0) {
+            return;
+        }
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(pending * (8 + seriesCount * 3));
+        writeVarLong(raw, pending);
+        for (int k = 0; k < pending; k++) {
+            long bits = Double.doubleToRawLongBits(times[k]);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                raw.write((int) (bits >>> shift));
+            }
+        }
+        // 系列ごとに並べると、似た大きさの予測誤差が続いて圧縮が効きやすい
+        for (long[] series : quantized) {
+            for (int k = 0; k < pending; k++) {
+                writeVarLong(raw, zigzag(series[k] - predict(series, k)));
+            }
+        }
+        byte[] input = raw.toByteArray();
+        byte[] compressed = deflate(input);
+        out.write(compressed);
+        blocks.add(new BlockInfo(position, compressed.length, input.length, pending, times[0], times[pending - 1]));
+        position += compressed.length;
+        pending = 0;
+    }
+
+    // 直前の3つの値を通る2次式での予測（ブロックの先頭では使える分だけ使う）
+    // 滑らかな軌道では予測誤差が刻みの3乗程度になり、差を取るだけの場合より桁が大きく減る
+    static long predict(long[] series, int k) {
+        if (k == 0) return 0;
+        if (k == 1) return series[0];
+        if (k == 2) return 2 * series[1] - series[0];
+        return 3 * series[k - 1] - 3 * series[k - 2] + series[k - 3];
+    }
+
+    private byte[] deflate(byte[] input) {
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(input.length / 2 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(chunk);
+            compressed.write(chunk, 0, n);
+        }
+        return compressed.toByteArray();
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // 残りのブロックと索引を書いて閉じる
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBlock();
+            long indexOffset = position;
+            for (BlockInfo block : blocks) {
+                out.writeLong(block.offset);
+                out.writeInt(block.compressedLength);
+                out.writeInt(block.rawLength);
+                out.writeInt(block.records);
+                out.writeDouble(block.firstTime);
+                out.writeDouble(block.lastTime);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(blocks.size());
+            out.writeInt(MAGIC);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    public Path getPath() { return path; }
+    public int getBodyCount() { return bodyCount; }
+    public double getPrecision() { return precision; }
+    public long getRecordCount() { return recordCount; }
+    public int getBlockCount() { return blocks.size(); }
+}
@@ -0,0 +1,169 @@
+package com.example.solarsystem.model;
+
+// 全エネルギー・運動量・角運動量を監視し、基準値からの相対的なずれを求める
+// 位置エネルギーはO(N²)なので毎ステップではなく、interval ステップごとにまとめて求める。
+// 刻み幅を大きくしたときに物理が壊れていないかを安く確かめるためのもの。
+// 軌道要素などで動きが決まっている質量を持つ天体（kinematic）があると、系の外から動かされるため
+// 保存量は保存されない。その間は計測せず、ずれは0とする
+public class ConservationMonitor {
+    public static final int DEFAULT_INTERVAL = 60;         // 監視の間隔（ステップ）
+    public static final double DEFAULT_THRESHOLD = 1e-3;   // 警告する相対的なずれ
+
+    private final double g;
+    private int interval = DEFAULT_INTERVAL;
+    private double threshold = DEFAULT_THRESHOLD;
+    private DriftAction action = DriftAction.WARN;
+
+    // 基準値（baselineがfalseなら次の計測を基準にする）
+    private boolean baseline;
+    private double energy0;
+    private double px0, py0, pz0;
+    private double lx0, ly0, lz0;
+
+    // 最新の値
+    private double energy;
+    private double px, py, pz;
+    private double lx, ly, lz;
+    private double energyDrift;
+    private double momentumDrift;
+    private double angularMomentumDrift;
+    private double maxEnergyDrift;
+    private boolean exceeded;  // しきい値を超えたことを通知済みか
+    private boolean driven;    // 動きが決まっている重力源があり、監視できない
+    private long samples;
+
+    public ConservationMonitor(double g) {
+        this.g = g;
+    }
+
+    // ステップ数が監視の間隔に達していれば計測する（0以下なら監視しない）
+    public boolean isDue(long stepCount) {
+        return interval > 0 && stepCount % interval == 0;
+    }
+
+    // 現在の状態から保存量を求める。しきい値を初めて超えた場合はtrueを返す
+    public boolean sample(BodyState state) {
+        int n = state.count();
+        double[] x = state.x, y = state.y, z = state.z;
+        double[] vx = state.vx, vy = state.vy, vz = state.vz;
+        double[] mass = state.mass;
+        boolean[] active = state.active;
+        boolean[] kinematic = state.kinematic;
+
+        for (int i = 0; i < n; i++) {
+            if (active[i] && kinematic[i] && mass[i] > 0) {
+                // 監視できるようになったら、その時点の値を新しい基準にする
+                driven = true;
+                rebaseline();
+                return false;
+            }
+        }
+        driven = false;
+
+        double kinetic = 0, potential = 0;
+        double scale = 0;  // Σ m|v|（全運動量はほぼ0なので、運動量のずれはこれに対する比で表す）
+        double sumPx = 0, sumPy = 0, sumPz = 0;
+        double sumLx = 0, sumLy = 0, sumLz = 0;
+        for (int i = 0; i < n; i++) {
+            double m = mass[i];
+            if (!active[i] || m <= 0) continue;
+            double mvx = m * vx[i], mvy = m * vy[i], mvz = m * vz[i];
+            kinetic += 0.5 * (mvx * vx[i] + mvy * vy[i] + mvz * vz[i]);
+            scale += Math.sqrt(mvx * mvx + mvy * mvy + mvz * mvz);
+            sumPx += mvx;
+            sumPy += mvy;
+            sumPz += mvz;
+            sumLx += y[i] * mvz - z[i] * mvy;
+            sumLy += z[i] * mvx - x[i] * mvz;
+            sumLz += x[i] * mvy - y[i] * mvx;
+            // 各組を一度だけ数える
+            double xi = x[i], yi = y[i], zi = z[i];
+            for (int j = i + 1; j < n; j++) {
+                if (!active[j] || mass[j] <= 0) continue;
+                double dx = x[j] - xi, dy = y[j] - yi, dz = z[j] - zi;
+                double dist = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                if (dist > 0) {
+                    potential -= g * m * mass[j] / dist;
+                }
+            }
+        }
+        energy = kinetic + potential;
+        px = sumPx; py = sumPy; pz = sumPz;
+        lx = sumLx; ly = sumLy; lz = sumLz;
+        samples++;
+
+        if (!baseline) {
+            baseline = true;
+            energy0 = energy;
+            px0 = px; py0 = py; pz0 = pz;
+            lx0 = lx; ly0 = ly; lz0 = lz;
+            exceeded = false;
+            maxEnergyDrift = 0;
+        }
+        energyDrift = energy0 != 0 ? Math.abs((energy - energy0) / energy0) : 0;
+        momentumDrift = scale > 0 ? Math.sqrt(sq(px - px0) + sq(py - py0) + sq(pz - pz0)) / scale : 0;
+        double l0 = Math.sqrt(lx0 * lx0 + ly0 * ly0 + lz0 * lz0);
+        angularMomentumDrift = l0 > 0 ? Math.sqrt(sq(lx - lx0) + sq(ly - ly0) + sq(lz - lz0)) / l0 : 0;
+        maxEnergyDrift = Math.max(maxEnergyDrift, energyDrift);
+
+        if (!exceeded && getMaxDrift() > threshold) {
+            exceeded = true;
+            return true;
+        }
+        return false;
+    }
+
+    private static double sq(double v) {
+        return v * v;
+    }
+
+    // 次の計測を新しい基準にする（天体の追加・表示切り替えなどで系が変わった場合）
+    public void rebaseline() {
+        baseline = false;
+        energyDrift = 0;
+        momentumDrift = 0;
+        angularMomentumDrift = 0;
+    }
+
+    // 3つのずれのうち最大のもの
+    public double getMaxDrift() {
+        return Math.max(energyDrift, Math.max(momentumDrift, angularMomentumDrift));
+    }
+
+    public double getEnergy() { return energy; }
+    public double getEnergyDrift() { return energyDrift; }
+    public double getMaxEnergyDrift() { return maxEnergyDrift; }
+    public double getMomentumDrift() { return momentumDrift; }
+    public double getAngularMomentumDrift() { return angularMomentumDrift; }
+    public long getSampleCount() { return samples; }
+    public boolean hasExceeded() { return exceeded; }
+    public boolean isDriven() { return driven; }
+
+    // ずれを実際に監視しているか（間隔が0、または動きが決まっている重力源がある間はfalseで、ずれは0のまま）
+    public boolean isMonitoring() { return interval > 0 && !driven; }
+
+    public int getInterval() { return interval; }
+
+    public void setInterval(int interval) {
+        this.interval = Math.max(0, interval);
+    }
+
+    public double getThreshold() { return threshold; }
+
+    public void setThreshold(double threshold) {
+        if (!(threshold > 0)) {
+            throw new IllegalArgumentException("しきい値は正の値である必要があります: " + threshold);
+        }
+        this.threshold = threshold;
+        exceeded = false;
+    }
+
+    public DriftAction getAction() { return action; }
+
+    public void setAction(DriftAction action) {
+        if (action == null) {
+            throw new IllegalArgumentException("actionがnullです");
+        }
+        this.action = action;
+    }
+}
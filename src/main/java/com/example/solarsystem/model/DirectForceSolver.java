@@ -0,0 +1,64 @@
+package com.example.solarsystem.model;
+
+import java.util.Arrays;
+
+// 全天体の組を直接計算する方式（O(N²)、誤差なし）
+public class DirectForceSolver implements ForceSolver {
+    private final double g;
+    private double[] nearestSq = new double[0];  // 最も近い重力源までの距離の2乗（天体ごと）
+
+    public DirectForceSolver(double g) {
+        this.g = g;
+    }
+
+    @Override
+    public void prepare(BodyState state) {
+        int n = state.count();
+        if (nearestSq.length < n) {
+            nearestSq = new double[n];
+            Arrays.fill(nearestSq, Double.NaN);
+        }
+    }
+
+    @Override
+    public void computeRange(BodyState state, int from, int to) {
+        int n = state.count();
+        double[] x = state.x, y = state.y, z = state.z;
+        double[] mass = state.mass;
+        boolean[] active = state.active;
+        boolean record = nearestSq.length >= n;  // prepareを経ずに呼ばれた場合は記録しない
+
+        for (int i = from; i < to; i++) {
+            double sumX = 0, sumY = 0, sumZ = 0;
+            double best = Double.POSITIVE_INFINITY;
+            if (active[i]) {
+                double xi = x[i], yi = y[i], zi = z[i];
+                for (int j = 0; j < n; j++) {
+                    if (i == j || !active[j]) continue;
+
+                    double dx = x[j] - xi;
+                    double dy = y[j] - yi;
+                    double dz = z[j] - zi;
+                    double distSq = dx * dx + dy * dy + dz * dz;
+                    if (distSq == 0) continue;
+                    if (distSq < best && mass[j] > 0) best = distSq;
+
+                    double invDist = 1.0 / Math.sqrt(distSq);
+                    double s = g * mass[j] * invDist * invDist * invDist;
+                    sumX += dx * s;
+                    sumY += dy * s;
+                    sumZ += dz * s;
+                }
+            }
+            state.ax[i] = sumX;
+            state.ay[i] = sumY;
+            state.az[i] = sumZ;
+            if (record) nearestSq[i] = best;
+        }
+    }
+
+    @Override
+    public double nearestDistance(int i) {
+        return i < nearestSq.length ? Math.sqrt(nearestSq[i]) : Double.NaN;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.solarsystem.model;
+
+// 保存量のずれがしきい値を超えたときの動作
+public enum DriftAction {
+    NONE("none"),    // 記録するだけ
+    WARN("warn"),    // ログに警告を出す
+    PAUSE("pause");  // 警告を出して一時停止する
+
+    private final String key;
+
+    DriftAction(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // 設定の文字列から取得（未指定の場合は既定値）
+    public static DriftAction fromKey(String key, DriftAction defaultAction) {
+        if (key == null || key.isEmpty()) {
+            return defaultAction;
+        }
+        for (DriftAction action : values()) {
+            if (action.key.equalsIgnoreCase(key) || action.name().equalsIgnoreCase(key)) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("不明なずれ検出時の動作です: " + key);
+    }
+}
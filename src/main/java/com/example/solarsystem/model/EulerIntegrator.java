@@ -0,0 +1,18 @@
+package com.example.solarsystem.model;
+
+// 半陰的オイラー法（v += a*dt の後に x += v*dt）
+// 従来の更新式と同じ。1次精度のため比較用に残している
+public class EulerIntegrator implements Integrator {
+    @Override
+    public void step(BodyState state, ForceSolver solver, double dt) {
+        Integrator.computeForces(state, solver);
+        Integrator.kick(state, dt);
+        Integrator.drift(state, dt);
+        state.invalidateAccelerations();
+    }
+
+    @Override
+    public int forceEvaluationsPerStep() {
+        return 1;
+    }
+}
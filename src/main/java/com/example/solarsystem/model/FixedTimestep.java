@@ -0,0 +1,68 @@
+package com.example.solarsystem.model;
+
+// 固定刻みの物理更新を行うためのアキュムレータ
+// フレーム間隔（ナノ秒）を蓄積し、固定刻みで何ステップ進めるかを返す。
+// 1フレームで進めるステップ数には上限を設け、処理落ち時の「死のスパイラル」を防ぐ
+public class FixedTimestep {
+    private long stepNanos;
+    private int maxSubSteps;
+    private long accumulatorNanos;
+    private long droppedNanos;  // 上限を超えて切り捨てた時間の累計
+
+    public FixedTimestep(double stepsPerSecond, int maxSubSteps) {
+        setStepsPerSecond(stepsPerSecond);
+        setMaxSubSteps(maxSubSteps);
+    }
+
+    // 経過時間を加え、このフレームで実行するステップ数を返す
+    public int advance(long elapsedNanos) {
+        if (elapsedNanos > 0) {
+            accumulatorNanos += elapsedNanos;
+        }
+        long steps = accumulatorNanos / stepNanos;
+        if (steps > maxSubSteps) {
+            long excess = (steps - maxSubSteps) * stepNanos;
+            droppedNanos += excess;
+            accumulatorNanos -= excess;
+            steps = maxSubSteps;
+        }
+        accumulatorNanos -= steps * stepNanos;
+        return (int) steps;
+    }
+
+    // 次のステップまでの進み具合（0〜1）。描画の補間に使える
+    public double getAlpha() {
+        return (double) accumulatorNanos / stepNanos;
+    }
+
+    public void reset() {
+        accumulatorNanos = 0;
+    }
+
+    public double getStepSeconds() {
+        return stepNanos / 1_000_000_000.0;
+    }
+
+    public double getStepsPerSecond() {
+        return 1_000_000_000.0 / stepNanos;
+    }
+
+    public void setStepsPerSecond(double stepsPerSecond) {
+        if (!(stepsPerSecond > 0)) {
+            throw new IllegalArgumentException("物理更新レートは正の値である必要があります: " + stepsPerSecond);
+        }
+        this.stepNanos = Math.max(1, (long) (1_000_000_000.0 / stepsPerSecond));
+    }
+
+    public int getMaxSubSteps() {
+        return maxSubSteps;
+    }
+
+    public void setMaxSubSteps(int maxSubSteps) {
+        this.maxSubSteps = Math.max(1, maxSubSteps);
+    }
+
+    public double getDroppedSeconds() {
+        return droppedNanos / 1_000_000_000.0;
+    }
+}
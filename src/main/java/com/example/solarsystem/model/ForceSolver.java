@@ -0,0 +1,21 @@
+package com.example.solarsystem.model;
+
+// 重力加速度の計算方式
+// prepareで前処理（木の構築など）を行い、computeRangeで[from, to)の天体の加速度を求める
+public interface ForceSolver {
+    default void prepare(BodyState state) {
+    }
+
+    void computeRange(BodyState state, int from, int to);
+
+    default void computeAccelerations(BodyState state) {
+        prepare(state);
+        computeRange(state, 0, state.count());
+    }
+
+    // 直前のcomputeRangeで天体iについて見つかった、最も近い重力源（質量を持つ天体）までの距離
+    // 重力源がなければ無限大、記録しない方式ではNaNを返す（ブロックタイムステップの刻み幅の決定に使う）
+    default double nearestDistance(int i) {
+        return Double.NaN;
+    }
+}
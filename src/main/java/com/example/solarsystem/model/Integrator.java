@@ -0,0 +1,41 @@
+package com.example.solarsystem.model;
+
+// 時間積分の方式
+// stepは計算対象（active）の天体をdtだけ進める。加速度はsolverで計算する
+public interface Integrator {
+    void step(BodyState state, ForceSolver solver, double dt);
+
+    // 1ステップあたりの力の評価回数（性能比較用）
+    int forceEvaluationsPerStep();
+
+    // ドリフト：x += v * dt（位置が外部から与えられる天体は時刻に合わせて更新される）
+    static void drift(BodyState state, double dt) {
+        boolean[] active = state.active;
+        boolean[] kinematic = state.kinematic;
+        for (int i = 0; i < state.count(); i++) {
+            if (!active[i] || kinematic[i]) continue;
+            state.x[i] += state.vx[i] * dt;
+            state.y[i] += state.vy[i] * dt;
+            state.z[i] += state.vz[i] * dt;
+        }
+        state.advanceTime(dt);
+    }
+
+    // キック：v += a * dt
+    static void kick(BodyState state, double dt) {
+        boolean[] active = state.active;
+        boolean[] kinematic = state.kinematic;
+        for (int i = 0; i < state.count(); i++) {
+            if (!active[i] || kinematic[i]) continue;
+            state.vx[i] += state.ax[i] * dt;
+            state.vy[i] += state.ay[i] * dt;
+            state.vz[i] += state.az[i] * dt;
+        }
+    }
+
+    // 加速度を計算し、現在の位置に対して有効であることを記録する
+    static void computeForces(BodyState state, ForceSolver solver) {
+        solver.computeAccelerations(state);
+        state.markAccelerationsValid();
+    }
+}
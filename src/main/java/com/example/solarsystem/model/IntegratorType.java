@@ -0,0 +1,49 @@
+package com.example.solarsystem.model;
+
+// シナリオ（天体データ）から選択できる積分方式
+public enum IntegratorType {
+    EULER("euler"),
+    LEAPFROG("leapfrog"),
+    VELOCITY_VERLET("velocity_verlet"),
+    YOSHIDA4("yoshida4"),
+    BLOCK("block");
+
+    private final String key;
+
+    IntegratorType(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Integrator create() {
+        switch (this) {
+            case EULER:
+                return new EulerIntegrator();
+            case LEAPFROG:
+                return new LeapfrogIntegrator();
+            case YOSHIDA4:
+                return new YoshidaIntegrator();
+            case BLOCK:
+                return new BlockTimestepIntegrator();
+            case VELOCITY_VERLET:
+            default:
+                return new VelocityVerletIntegrator();
+        }
+    }
+
+    // 天体データの文字列から積分方式を取得（未指定・不明な場合は既定値）
+    public static IntegratorType fromKey(String key, IntegratorType defaultType) {
+        if (key == null || key.isEmpty()) {
+            return defaultType;
+        }
+        for (IntegratorType type : values()) {
+            if (type.key.equalsIgnoreCase(key) || type.name().equalsIgnoreCase(key)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("不明な積分方式です: " + key);
+    }
+}
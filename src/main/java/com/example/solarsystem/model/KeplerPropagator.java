@@ -0,0 +1,156 @@
+package com.example.solarsystem.model;
+
+import com.example.solarsystem.data.CelestialDataLoader.OrbitData;
+
+import java.util.Arrays;
+
+// 軌道要素からケプラー方程式を解いて位置と速度を求める（積分誤差なし・任意時刻をO(1)で評価）
+// 軌道面はxz平面を基準とし、傾斜角はx軸まわりの回転として扱う。
+// initialAngleは時刻0における平均近点角（ラジアン）とみなす。位置は原点（太陽）基準
+public class KeplerPropagator implements KinematicSource {
+    private static final int MAX_ITERATIONS = 16;
+    private static final double TOLERANCE = 1e-14;
+
+    private int count;
+    private int[] indices = new int[0];
+    private double[] semiMajorAxis = new double[0];
+    private double[] eccentricity = new double[0];
+    private double[] cosInclination = new double[0];
+    private double[] sinInclination = new double[0];
+    private double[] meanMotion = new double[0];      // ラジアン/年
+    private double[] meanAnomalyAtEpoch = new double[0];
+    private double[] originX = new double[0];         // 周期0の天体（恒星など）の固定位置
+    private double[] originY = new double[0];
+    private double[] originZ = new double[0];
+    private final double[] scratch = new double[6];
+
+    // 天体を軌道要素で動かすように登録する
+    public void register(BodyState state, int index, OrbitData orbit) {
+        checkOrbit(state.getId(index), orbit);
+        double e = orbit != null ? orbit.eccentricity : 0;
+        ensureCapacity(count + 1);
+        int k = count++;
+        indices[k] = index;
+        double a = 0, period = 0, inclination = 0, m0 = 0;
+        if (orbit != null) {
+            a = orbit.semiMajorAxis > 0 ? orbit.semiMajorAxis : orbit.radius;
+            period = orbit.period;
+            inclination = Math.toRadians(orbit.inclination);
+            m0 = orbit.initialAngle;
+        }
+        semiMajorAxis[k] = a;
+        eccentricity[k] = e;
+        cosInclination[k] = Math.cos(inclination);
+        sinInclination[k] = Math.sin(inclination);
+        meanMotion[k] = period > 0 ? 2 * Math.PI / period : 0;
+        meanAnomalyAtEpoch[k] = m0;
+        originX[k] = state.x[index];
+        originY[k] = state.y[index];
+        originZ[k] = state.z[index];
+        state.kinematic[index] = true;
+    }
+
+    // 解析的に扱える軌道か（楕円軌道のみ）を確かめる
+    public static void checkOrbit(String id, OrbitData orbit) {
+        double e = orbit != null ? orbit.eccentricity : 0;
+        if (e < 0 || e >= 1) {
+            throw new IllegalArgumentException("楕円軌道以外は解析的に扱えません: " + id + " e=" + e);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public void apply(BodyState state, double time) {
+        double[] out = scratch;
+        for (int k = 0; k < count; k++) {
+            int i = indices[k];
+            if (semiMajorAxis[k] == 0 || meanMotion[k] == 0) {
+                // 公転しない天体はその場に留まる
+                state.x[i] = originX[k];
+                state.y[i] = originY[k];
+                state.z[i] = originZ[k];
+                state.vx[i] = state.vy[i] = state.vz[i] = 0;
+                continue;
+            }
+            evaluate(semiMajorAxis[k], eccentricity[k], cosInclination[k], sinInclination[k],
+                meanMotion[k], meanAnomalyAtEpoch[k], time, out);
+            state.x[i] = out[0];
+            state.y[i] = out[1];
+            state.z[i] = out[2];
+            state.vx[i] = out[3];
+            state.vy[i] = out[4];
+            state.vz[i] = out[5];
+        }
+    }
+
+    // 1天体の軌道要素から時刻timeの位置と速度（x, y, z, vx, vy, vz）を求める
+    public static double[] stateAt(OrbitData orbit, double time) {
+        double[] out = new double[6];
+        double a = orbit.semiMajorAxis > 0 ? orbit.semiMajorAxis : orbit.radius;
+        if (a == 0 || orbit.period <= 0) {
+            return out;
+        }
+        double inclination = Math.toRadians(orbit.inclination);
+        evaluate(a, orbit.eccentricity, Math.cos(inclination), Math.sin(inclination),
+            2 * Math.PI / orbit.period, orbit.initialAngle, time, out);
+        return out;
+    }
+
+    private static void evaluate(double a, double e, double cosI, double sinI,
+                                 double n, double m0, double time, double[] out) {
+        double bigE = solveEccentricAnomaly(m0 + n * time, e);
+        double cosE = Math.cos(bigE);
+        double sinE = Math.sin(bigE);
+        double b = a * Math.sqrt(1 - e * e);
+
+        // 軌道面内の位置と速度
+        double px = a * (cosE - e);
+        double pz = b * sinE;
+        double eDot = n / (1 - e * cosE);
+        double pvx = -a * sinE * eDot;
+        double pvz = b * cosE * eDot;
+
+        // 傾斜角の分だけ軌道面を傾ける
+        out[0] = px;
+        out[1] = pz * sinI;
+        out[2] = pz * cosI;
+        out[3] = pvx;
+        out[4] = pvz * sinI;
+        out[5] = pvz * cosI;
+    }
+
+    // ケプラー方程式 E - e sin E = M をニュートン法で解く
+    public static double solveEccentricAnomaly(double meanAnomaly, double e) {
+        double m = Math.IEEEremainder(meanAnomaly, 2 * Math.PI);
+        double bigE = e < 0.8 ? m : Math.PI * Math.signum(m == 0 ? 1 : m);
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            double f = bigE - e * Math.sin(bigE) - m;
+            double delta = f / (1 - e * Math.cos(bigE));
+            bigE -= delta;
+            if (Math.abs(delta) < TOLERANCE) {
+                break;
+            }
+        }
+        return bigE;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= indices.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, indices.length * 2 + 4);
+        indices = Arrays.copyOf(indices, newCapacity);
+        semiMajorAxis = Arrays.copyOf(semiMajorAxis, newCapacity);
+        eccentricity = Arrays.copyOf(eccentricity, newCapacity);
+        cosInclination = Arrays.copyOf(cosInclination, newCapacity);
+        sinInclination = Arrays.copyOf(sinInclination, newCapacity);
+        meanMotion = Arrays.copyOf(meanMotion, newCapacity);
+        meanAnomalyAtEpoch = Arrays.copyOf(meanAnomalyAtEpoch, newCapacity);
+        originX = Arrays.copyOf(originX, newCapacity);
+        originY = Arrays.copyOf(originY, newCapacity);
+        originZ = Arrays.copyOf(originZ, newCapacity);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.solarsystem.model;
+
+import java.util.Locale;
+import java.util.logging.Logger;
+
+// シミュレーション状態のキーフレームを保持するリングバッファ
+// 各キーフレームは状態を平坦に並べたdouble配列で、時刻の昇順に並ぶ。
+// 使用メモリは上限を超えない（満杯の場合は最も古いものから上書きし、1つも入らない場合は記録しない）
+public class KeyframeBuffer {
+    private static final Logger LOGGER = Logger.getLogger(KeyframeBuffer.class.getName());
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+    private int frameLength = -1;
+    private int capacity;
+    private double[][] frames = new double[0][];
+    private double[] times = new double[0];
+    private int start;  // 最も古いキーフレームの位置
+    private int size;
+
+    public KeyframeBuffer() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public KeyframeBuffer(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("メモリ上限は0以上である必要があります: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    // 書き込み先の配列を返す（記録できない場合はnull）
+    // 状態の大きさが変わった場合はそれまでのキーフレームを破棄する
+    public double[] beginWrite(double time, int length) {
+        if (length != frameLength) {
+            frameLength = length;
+            long bytesPerFrame = (long) length * Double.BYTES + Double.BYTES;
+            capacity = (int) Math.min(Integer.MAX_VALUE - 8, maxBytes / bytesPerFrame);
+            frames = new double[capacity][];
+            times = new double[capacity];
+            start = 0;
+            size = 0;
+            if (capacity < 2 && maxBytes > 0) {
+                // 1つしか入らないと、過去へ戻るたびに最初から積分し直すことになる
+                LOGGER.warning(String.format(Locale.ROOT,
+                    "キーフレームが%d個しか保持できません（1つ %.1f MB、上限 %.1f MB）。メモリ上限を増やしてください",
+                    capacity, bytesPerFrame / 1048576.0, maxBytes / 1048576.0));
+            }
+        }
+        if (capacity == 0) {
+            return null;
+        }
+        int slot;
+        if (size < capacity) {
+            slot = (start + size) % capacity;
+            size++;
+        } else {
+            slot = start;
+            start = (start + 1) % capacity;
+        }
+        if (frames[slot] == null) {
+            frames[slot] = new double[length];  // 実際に使う分だけ確保する
+        }
+        times[slot] = time;
+        return frames[slot];
+    }
+
+    // time以前で最も新しいキーフレームの番号（古い順に0から）。なければ-1
+    public int findAtOrBefore(double time) {
+        int low = 0, high = size - 1, found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (timeAt(mid) <= time) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // 指定した時刻より後のキーフレームを捨てる（過去へ戻った後に未来を記録し直すため）
+    public void truncateAfter(double time) {
+        while (size > 0 && timeAt(size - 1) > time) {
+            size--;
+        }
+    }
+
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    public double[] get(int k) {
+        return frames[(start + k) % capacity];
+    }
+
+    public double timeAt(int k) {
+        return times[(start + k) % capacity];
+    }
+
+    public int size() { return size; }
+    public int capacity() { return Math.max(capacity, 0); }
+    public long getMaxBytes() { return maxBytes; }
+
+    // 実際に確保している配列のバイト数
+    public long getAllocatedBytes() {
+        long bytes = (long) times.length * Double.BYTES;
+        for (double[] frame : frames) {
+            if (frame != null) bytes += (long) frame.length * Double.BYTES;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.solarsystem.model;
+
+// 積分によらず、時刻から直接位置と速度を与える天体の更新処理
+// BodyState.kinematicがtrueの天体について、指定時刻の状態を書き込む
+public interface KinematicSource {
+    void apply(BodyState state, double time);
+}
@@ -0,0 +1,19 @@
+package com.example.solarsystem.model;
+
+// リープフロッグ法（ドリフト・キック・ドリフト形式、2次精度のシンプレクティック積分）
+// 位置の中間点で力を評価するので、前ステップの加速度を持ち越す必要がない
+public class LeapfrogIntegrator implements Integrator {
+    @Override
+    public void step(BodyState state, ForceSolver solver, double dt) {
+        Integrator.drift(state, dt * 0.5);
+        Integrator.computeForces(state, solver);
+        Integrator.kick(state, dt);
+        Integrator.drift(state, dt * 0.5);
+        state.invalidateAccelerations();
+    }
+
+    @Override
+    public int forceEvaluationsPerStep() {
+        return 1;
+    }
+}
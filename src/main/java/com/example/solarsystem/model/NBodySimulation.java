@@ -0,0 +1,787 @@
+package com.example.solarsystem.model;
+
+import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialData;
+import com.example.solarsystem.data.CelestialDataLoader.OrbitData;
+import com.example.solarsystem.data.CelestialDataLoader.ParticleDistributionData;
+import com.example.solarsystem.data.CelestialDataLoader.ParticlePopulationData;
+import com.example.solarsystem.data.CelestialDataLoader.SimulationData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+// JavaFXに依存しないN体シミュレーション本体
+// 状態・重力計算方式・積分方式・固定刻みの時間管理をまとめて持つ。
+// SolarSystemManagerやシミュレーションスレッドから利用する（スレッドセーフではない）
+public class NBodySimulation {
+    private static final Logger LOGGER = Logger.getLogger(NBodySimulation.class.getName());
+    // 万有引力定数（天体データの単位系：距離AU・質量地球質量・時間年）
+    // 太陽質量333000に対して G * M = 4π² となる
+    public static final double G = 4 * Math.PI * Math.PI / 333000.0;
+    public static final IntegratorType DEFAULT_INTEGRATOR = IntegratorType.VELOCITY_VERLET;
+    public static final double DEFAULT_PHYSICS_RATE = 60.0;  // 物理ステップ/秒（表示のリフレッシュレートとは独立）
+    public static final int DEFAULT_MAX_SUB_STEPS = 64;      // 約1秒分のヒッチまでは追従し、それ以上は切り捨てる
+    public static final double DEFAULT_KEYFRAME_INTERVAL = 0.05;  // キーフレームの記録間隔（年）
+
+    private final BodyState state;
+    private final BodyState initialState;
+    private final FixedTimestep timestep;
+    private final KeplerPropagator keplerPropagator;
+    private final Map<Integer, CelestialBodyData> pendingSatellites;  // 親の解決待ちの衛星
+    private final List<SatelliteSystem> satelliteSystems;             // 親が先に来る順
+    private final List<ParticleSystem> particleSystems;               // 質量を持たない試験粒子
+    private KeyframeBuffer keyframes;      // 巻き戻し用のキーフレーム
+    private double keyframeInterval;
+    private double lastKeyframeTime;
+    private double timelineEnd;            // これまでに到達した最も先の時刻
+    private final ConservationMonitor conservation;  // 保存量のずれの監視
+    private final CollisionDetector collisions;      // 衝突・接近の検出（既定では無効）
+    private PropagationMode defaultPropagation;
+    private int kinematicCount;
+    private ForceSolver forceKernel;   // 選択中の重力計算方式
+    private ForceSolver forceSolver;   // 実際に使う計算器（並列時はforceKernelをラップ）
+    private int threadCount;
+    private IntegratorType integratorType;
+    private Integrator integrator;
+    private double timeScale;
+    private boolean paused;
+    private double currentTime;
+    private long lastUpdateTime;
+    private long stepCount;
+    private Consumer<NBodySimulation> stepListener;  // 1ステップ進むごとに（計算しているスレッドで）呼ぶ
+
+    public NBodySimulation() {
+        this.state = new BodyState();
+        this.initialState = new BodyState();
+        this.timestep = new FixedTimestep(DEFAULT_PHYSICS_RATE, DEFAULT_MAX_SUB_STEPS);
+        this.forceKernel = new DirectForceSolver(G);
+        this.forceSolver = forceKernel;
+        this.threadCount = 1;
+        this.timeScale = 1.0;
+        this.keplerPropagator = new KeplerPropagator();
+        this.pendingSatellites = new LinkedHashMap<>();
+        this.satelliteSystems = new ArrayList<>();
+        this.particleSystems = new ArrayList<>();
+        this.keyframes = new KeyframeBuffer();
+        this.keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+        this.defaultPropagation = PropagationMode.NBODY;
+        this.conservation = new ConservationMonitor(G);
+        this.collisions = new CollisionDetector();
+        setIntegratorType(DEFAULT_INTEGRATOR);
+    }
+
+    // 天体データから初期状態を作る
+    public void loadCatalog(CelestialData data) {
+        applySettings(data.simulation);
+        for (CelestialBodyData bodyData : data.celestialBodies) {
+            addBody(bodyData);
+        }
+        initializeCircularVelocities();
+        if (data.particlePopulations != null) {
+            for (ParticlePopulationData population : data.particlePopulations) {
+                addParticlePopulation(population);
+            }
+        }
+        saveInitialState();
+    }
+
+    public void applySettings(SimulationData settings) {
+        if (settings == null) {
+            return;
+        }
+        try {
+            setIntegratorType(IntegratorType.fromKey(settings.integrator, DEFAULT_INTEGRATOR));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning(e.getMessage() + "（既定の積分方式を使用します）");
+        }
+        if (settings.physicsRate > 0) {
+            setPhysicsRate(settings.physicsRate);
+        }
+        if (settings.maxSubSteps > 0) {
+            setMaxSubSteps(settings.maxSubSteps);
+        }
+        try {
+            defaultPropagation = PropagationMode.fromKey(settings.propagation, PropagationMode.NBODY);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning(e.getMessage() + "（N体計算を使用します）");
+        }
+        if (settings.simd) {
+            useVectorizedDirectSummation();
+        }
+        if (settings.keyframeInterval > 0) {
+            setKeyframeInterval(settings.keyframeInterval);
+        }
+        if (settings.keyframeMemoryMB > 0) {
+            setKeyframeMemoryLimit((long) (settings.keyframeMemoryMB * 1024 * 1024));
+        }
+        if (settings.conservationInterval != null) {
+            conservation.setInterval(settings.conservationInterval);
+        }
+        try {
+            setCollisionResponse(CollisionResponse.fromKey(settings.collisions, collisions.getResponse()));
+            if (settings.restitution != null) {
+                collisions.setRestitution(settings.restitution);
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning(e.getMessage() + "（衝突判定の既定の設定を使用します）");
+        }
+        collisions.setEncounterDistance(settings.encounterDistance);
+        try {
+            if (settings.driftThreshold > 0) {
+                conservation.setThreshold(settings.driftThreshold);
+            }
+            conservation.setAction(DriftAction.fromKey(settings.driftAction, conservation.getAction()));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning(e.getMessage() + "（既定の監視設定を使用します）");
+        }
+    }
+
+    // 軌道データの初期角度・半径から初期位置を決めて天体を追加する
+    // 伝播方式がケプラーの場合は軌道要素から位置と速度を求める
+    // 親天体が指定された衛星は、全天体の追加後に親基準の衛星系としてまとめる
+    // 不正な指定で例外を投げる場合は、天体を追加する前に投げる（呼び出し側の天体の並びと状態の添字をずらさない）
+    public int addBody(CelestialBodyData data) {
+        boolean satellite = data.parent != null && !data.parent.isEmpty();
+        PropagationMode mode = satellite ? PropagationMode.NBODY
+            : PropagationMode.fromKey(data.propagation, defaultPropagation);
+        if (mode == PropagationMode.KEPLER) {
+            KeplerPropagator.checkOrbit(data.id, data.orbit);
+        }
+        int i = state.add(data.id, data.mass);
+        collisions.setRadius(i, data.radius * CollisionDetector.EARTH_RADIUS_AU);
+        OrbitData orbit = data.orbit;
+        if (orbit != null) {
+            // 半径が設定されていない場合は長半径を使用
+            // 衛星も同じ位置に置いておく（親が見つからず通常の天体として扱う場合に、原点に残らないようにする）
+            double radius = orbit.radius > 0 ? orbit.radius : orbit.semiMajorAxis;
+            state.setPosition(i, radius * Math.cos(orbit.initialAngle), 0, radius * Math.sin(orbit.initialAngle));
+        }
+        if (satellite) {
+            state.kinematic[i] = true;  // 衛星系が位置を書き込むため、全体の積分からは外す
+            pendingSatellites.put(i, data);
+            return i;
+        }
+        if (mode == PropagationMode.KEPLER) {
+            keplerPropagator.register(state, i, orbit);
+            state.setKinematicSource(keplerPropagator);
+            kinematicCount++;
+            state.setTime(state.time);
+        }
+        return i;
+    }
+
+    // 全天体が軌道要素で動く場合、任意の時刻へ積分なしで移動できる
+    public boolean isFullyAnalytic() {
+        return kinematicCount > 0 && kinematicCount == state.count();
+    }
+
+    // 最も重い天体を中心とした円軌道の速度を与える
+    public void initializeCircularVelocities() {
+        buildSatelliteSystems();
+        int central = findHeaviestBody();
+        for (int i = 0; i < state.count(); i++) {
+            if (i == central || state.kinematic[i]) continue;
+            double dx = state.x[i] - state.x[central];
+            double dz = state.z[i] - state.z[central];
+            double r = Math.sqrt(dx * dx + dz * dz);
+            if (r == 0) continue;
+            double speed = Math.sqrt(G * (state.mass[central] + state.mass[i]) / r);
+            state.setVelocity(i, -dz / r * speed, 0, dx / r * speed);
+        }
+        for (SatelliteSystem system : satelliteSystems) {
+            system.writeAbsolute(state);
+        }
+    }
+
+    // 親の指定をもとに衛星系を組み立てる
+    // 外側の系からは親とその衛星全体が一つの質点（合計質量）に見えるようにし、
+    // 衛星は全体の重力計算に質量0の追従点として残す
+    private void buildSatelliteSystems() {
+        if (pendingSatellites.isEmpty()) {
+            return;
+        }
+        int n = state.count();
+        Map<String, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            indexById.put(state.getId(i), i);
+        }
+
+        int[] parentOf = new int[n];
+        Arrays.fill(parentOf, -1);
+        for (Map.Entry<Integer, CelestialBodyData> entry : pendingSatellites.entrySet()) {
+            int i = entry.getKey();
+            Integer p = indexById.get(entry.getValue().parent);
+            if (p == null || p == i) {
+                LOGGER.warning("親天体が見つかりません: " + entry.getValue().id + " -> " + entry.getValue().parent);
+                state.kinematic[i] = false;
+                continue;
+            }
+            parentOf[i] = p;
+        }
+        // 循環している親子関係は切る
+        for (int i = 0; i < n; i++) {
+            int p = parentOf[i];
+            for (int d = 0; p >= 0 && d <= n; d++) {
+                p = parentOf[p];
+            }
+            if (p >= 0) {
+                LOGGER.warning("親子関係が循環しています: " + state.getId(i));
+                parentOf[i] = -1;
+                state.kinematic[i] = false;
+            }
+        }
+
+        // 各天体の系の合計質量（自身＋すべての子孫）
+        double[] ownMass = Arrays.copyOf(state.mass, n);
+        double[] systemMass = Arrays.copyOf(state.mass, n);
+        for (int i = 0; i < n; i++) {
+            for (int p = parentOf[i]; p >= 0; p = parentOf[p]) {
+                systemMass[p] += ownMass[i];
+            }
+        }
+
+        // 根から順に衛星系を作る（内側の系は外側の系の後に並ぶ）
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            if (parentOf[i] < 0) {
+                queue.add(i);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int p = queue.poll();
+            SatelliteSystem system = null;
+            for (int i = 0; i < n; i++) {
+                if (parentOf[i] != p) continue;
+                if (system == null) {
+                    system = new SatelliteSystem(G, p, ownMass[p]);
+                    satelliteSystems.add(system);
+                }
+                addSatellite(system, i, pendingSatellites.get(i).orbit, ownMass[p], systemMass[i]);
+                queue.add(i);
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            state.mass[i] = parentOf[i] >= 0 ? 0 : systemMass[i];
+        }
+        state.invalidateAccelerations();
+        pendingSatellites.clear();
+    }
+
+    // 試験粒子の集団を最も重い天体のまわりに置く（天体の初期速度を決めた後に呼ぶ）
+    public ParticleSystem addParticlePopulation(ParticlePopulationData data) {
+        // 省略時は天体と同じfloat64。float32は精度より記憶域を優先する場合に明示して選ぶ
+        boolean single;
+        if (data.precision == null || data.precision.isEmpty() || data.precision.equalsIgnoreCase("float64")) {
+            single = false;
+        } else if (data.precision.equalsIgnoreCase("float32")) {
+            single = true;
+        } else {
+            throw new IllegalArgumentException("不明な精度です: " + data.precision);
+        }
+        int explicit = data.orbits != null ? data.orbits.size() : 0;
+        int generated = data.distribution != null ? data.distribution.count : 0;
+        ParticleSystem particles = new ParticleSystem(data.id, explicit + generated, single);
+
+        int central = findHeaviestBody();
+        double centralMass = central >= 0 ? state.mass[central] : 0;
+        if (data.orbits != null) {
+            for (OrbitData orbit : data.orbits) {
+                if (orbit.period <= 0) {
+                    // 周期が省略された場合は中心天体の質量から求める
+                    OrbitData copy = new OrbitData();
+                    copy.semiMajorAxis = orbit.semiMajorAxis > 0 ? orbit.semiMajorAxis : orbit.radius;
+                    copy.eccentricity = orbit.eccentricity;
+                    copy.inclination = orbit.inclination;
+                    copy.initialAngle = orbit.initialAngle;
+                    copy.period = keplerPeriod(copy.semiMajorAxis, centralMass);
+                    orbit = copy;
+                }
+                addParticle(particles, central, orbit, 0);
+            }
+        }
+        if (data.distribution != null) {
+            ParticleDistributionData d = data.distribution;
+            Random random = new Random(d.seed);
+            OrbitData orbit = new OrbitData();
+            for (int k = 0; k < d.count; k++) {
+                orbit.semiMajorAxis = d.semiMajorAxisMin + random.nextDouble() * (d.semiMajorAxisMax - d.semiMajorAxisMin);
+                orbit.eccentricity = random.nextDouble() * d.eccentricityMax;
+                orbit.inclination = random.nextDouble() * d.inclinationMax;
+                orbit.initialAngle = random.nextDouble() * 2 * Math.PI;
+                orbit.period = keplerPeriod(orbit.semiMajorAxis, centralMass);
+                // 軌道要素に近点の向きがないため、軌道面の法線まわりにランダムに回す
+                addParticle(particles, central, orbit, random.nextDouble() * 2 * Math.PI);
+            }
+        }
+        particles.setParallel(threadCount > 1);
+        particleSystems.add(particles);
+        LOGGER.info("試験粒子を追加しました: " + data.id + " " + particles.count() + "個");
+        return particles;
+    }
+
+    private static double keplerPeriod(double semiMajorAxis, double centralMass) {
+        return centralMass > 0 ? 2 * Math.PI * Math.sqrt(Math.pow(semiMajorAxis, 3) / (G * centralMass)) : 0;
+    }
+
+    private void addParticle(ParticleSystem particles, int central, OrbitData orbit, double rotation) {
+        double[] out = KeplerPropagator.stateAt(orbit, 0);
+        double c = Math.cos(rotation), sn = Math.sin(rotation);
+        double x = out[0] * c - out[2] * sn, z = out[0] * sn + out[2] * c;
+        double vx = out[3] * c - out[5] * sn, vz = out[3] * sn + out[5] * c;
+        double cx = 0, cy = 0, cz = 0, cvx = 0, cvy = 0, cvz = 0;
+        if (central >= 0) {
+            cx = state.x[central]; cy = state.y[central]; cz = state.z[central];
+            cvx = state.vx[central]; cvy = state.vy[central]; cvz = state.vz[central];
+        }
+        particles.add(cx + x, cy + out[1], cz + z, cvx + vx, cvy + out[4], cvz + vz);
+    }
+
+    private int findHeaviestBody() {
+        int central = -1;
+        for (int i = 0; i < state.count(); i++) {
+            if (central < 0 || state.mass[i] > state.mass[central]) {
+                central = i;
+            }
+        }
+        return central;
+    }
+
+    // 親基準の円軌道で衛星を置く
+    private void addSatellite(SatelliteSystem system, int i, OrbitData orbit, double parentMass, double mass) {
+        double radius = 0, angle = 0, period = 0;
+        if (orbit != null) {
+            radius = orbit.radius > 0 ? orbit.radius : orbit.semiMajorAxis;
+            angle = orbit.initialAngle;
+            period = orbit.period;
+        }
+        double x = radius * Math.cos(angle);
+        double z = radius * Math.sin(angle);
+        double vx = 0, vz = 0;
+        if (radius > 0) {
+            double speed = Math.sqrt(G * (parentMass + mass) / radius);
+            vx = -Math.sin(angle) * speed;
+            vz = Math.cos(angle) * speed;
+        }
+        system.addSatellite(state.getId(i), i, mass, x, 0, z, vx, 0, vz, period);
+    }
+
+    // 現在の状態をリセット時の復元先として保存する
+    public void saveInitialState() {
+        initialState.copyFrom(state);
+        for (SatelliteSystem system : satelliteSystems) {
+            system.saveInitialState();
+        }
+        for (ParticleSystem particles : particleSystems) {
+            particles.saveInitialState();
+        }
+        keyframes.clear();
+        recordKeyframe();
+        conservation.rebaseline();
+        conservation.sample(state);
+    }
+
+    public void reset() {
+        restoreInitialState();
+        keyframes.clear();
+        timelineEnd = 0;
+        recordKeyframe();
+        conservation.rebaseline();
+        conservation.sample(state);
+        timeScale = 1.0;
+        paused = false;
+        lastUpdateTime = 0;
+        timestep.reset();
+    }
+
+    private void restoreInitialState() {
+        // 表示状態（active）はリセットしない
+        boolean[] active = Arrays.copyOf(state.active, state.count());
+        state.copyFrom(initialState);
+        System.arraycopy(active, 0, state.active, 0, Math.min(active.length, state.count()));
+        state.invalidateAccelerations();
+        for (SatelliteSystem system : satelliteSystems) {
+            system.restoreInitialState();
+        }
+        for (ParticleSystem particles : particleSystems) {
+            particles.restoreInitialState();
+        }
+        collisions.restoreInitialState(state);
+        currentTime = 0;
+        stepCount = 0;
+    }
+
+    // 実時間（ナノ秒）を受け取り、固定刻みで必要なステップ数だけ進める
+    public int update(long now) {
+        if (paused) {
+            return 0;
+        }
+        if (lastUpdateTime == 0) {
+            lastUpdateTime = now;
+            return 0;
+        }
+        int steps = timestep.advance(now - lastUpdateTime);
+        lastUpdateTime = now;
+
+        double stepTime = timestep.getStepSeconds() * timeScale;
+        int done = 0;
+        while (done < steps && !paused) {  // 保存量の監視で一時停止した場合はそこで止める
+            step(stepTime);
+            done++;
+        }
+        return done;
+    }
+
+    // シミュレーション時間でdtだけ進める
+    public void step(double dt) {
+        // 試験粒子は天体のステップを挟んでキック・ドリフト・キックで進める
+        for (ParticleSystem particles : particleSystems) {
+            particles.beginStep(state, G, dt);
+        }
+        if (isFullyAnalytic()) {
+            state.advanceTime(dt);
+        } else {
+            integrator.step(state, forceSolver, dt);
+        }
+        // 衛星は親が進んだ後に、それぞれの刻み幅で親基準に進める
+        for (SatelliteSystem system : satelliteSystems) {
+            system.advance(state, dt);
+        }
+        if (collisions.detect(state)) {
+            // 合体や跳ね返りで重力源が変わったので、加速度と保存量の基準を求め直す
+            state.invalidateAccelerations();
+            for (ParticleSystem particles : particleSystems) {
+                particles.invalidateAccelerations();
+            }
+            conservation.rebaseline();
+        }
+        for (ParticleSystem particles : particleSystems) {
+            particles.endStep(state, G, dt);
+        }
+        currentTime += dt;
+        stepCount++;
+        if (conservation.isDue(stepCount)) {
+            checkConservation();
+        }
+        timelineEnd = Math.max(timelineEnd, currentTime);
+        if (currentTime - lastKeyframeTime >= keyframeInterval) {
+            recordKeyframe();
+        }
+        if (stepListener != null) {
+            stepListener.accept(this);
+        }
+    }
+
+    private void checkConservation() {
+        if (!conservation.sample(state) || conservation.getAction() == DriftAction.NONE) {
+            return;
+        }
+        LOGGER.warning(String.format(Locale.ROOT,
+            "保存量のずれがしきい値を超えました（t=%.4f年）: エネルギー %.3e, 運動量 %.3e, 角運動量 %.3e",
+            currentTime, conservation.getEnergyDrift(), conservation.getMomentumDrift(),
+            conservation.getAngularMomentumDrift()));
+        if (conservation.getAction() == DriftAction.PAUSE) {
+            setPaused(true);
+        }
+    }
+
+    // 衝突の扱いを切り替える（キーフレームの内容が変わるため記録し直す）
+    public void setCollisionResponse(CollisionResponse response) {
+        if (collisions.getResponse() == response) {
+            return;
+        }
+        collisions.setResponse(response);
+        keyframes.clear();
+        recordKeyframe();
+    }
+
+    // 指定した時刻へ移動する
+    // 全天体が解析的に動く場合は即座に求まる。それ以外は必要に応じて初期状態から積分し直す
+    public void seek(double time) {
+        if (isFullyAnalytic()) {
+            currentTime = time;
+            timelineEnd = Math.max(timelineEnd, time);
+            state.setTime(time);
+            return;
+        }
+        if (time < currentTime) {
+            // 直前のキーフレームから積分し直す（なければ初期状態から）
+            int k = keyframes.findAtOrBefore(time);
+            if (k >= 0) {
+                readKeyframe(keyframes.get(k));
+            } else {
+                restoreInitialState();
+            }
+            keyframes.truncateAfter(currentTime);
+            lastKeyframeTime = currentTime;
+        }
+        double stepTime = timestep.getStepSeconds();
+        while (currentTime + stepTime <= time) {
+            step(stepTime);
+        }
+        if (time > currentTime) {
+            step(time - currentTime);
+        }
+    }
+
+    // キーフレーム1つ分の長さ（時刻・ステップ数・天体・衛星・試験粒子の位置と速度、衝突判定中は質量と半径）
+    public int keyframeLength() {
+        int length = 3 + state.count() * 6 + collisions.stateLength(state);
+        for (SatelliteSystem system : satelliteSystems) {
+            length += system.stateLength();
+        }
+        for (ParticleSystem particles : particleSystems) {
+            length += particles.stateLength();
+        }
+        return length;
+    }
+
+    public void writeKeyframe(double[] out) {
+        int offset = 0;
+        out[offset++] = currentTime;
+        out[offset++] = stepCount;
+        out[offset++] = state.time;
+        for (int i = 0; i < state.count(); i++) {
+            out[offset++] = state.x[i];
+            out[offset++] = state.y[i];
+            out[offset++] = state.z[i];
+            out[offset++] = state.vx[i];
+            out[offset++] = state.vy[i];
+            out[offset++] = state.vz[i];
+        }
+        for (SatelliteSystem system : satelliteSystems) {
+            offset = system.writeState(out, offset);
+        }
+        for (ParticleSystem particles : particleSystems) {
+            offset = particles.writeState(out, offset);
+        }
+        collisions.writeState(state, out, offset);
+    }
+
+    // キーフレームの状態へ戻す（表示状態（active）は変えない）
+    public void readKeyframe(double[] in) {
+        int offset = 0;
+        currentTime = in[offset++];
+        stepCount = (long) in[offset++];
+        state.time = in[offset++];
+        for (int i = 0; i < state.count(); i++) {
+            state.setPosition(i, in[offset], in[offset + 1], in[offset + 2]);
+            state.setVelocity(i, in[offset + 3], in[offset + 4], in[offset + 5]);
+            offset += 6;
+        }
+        for (SatelliteSystem system : satelliteSystems) {
+            offset = system.readState(in, offset);
+        }
+        for (ParticleSystem particles : particleSystems) {
+            offset = particles.readState(in, offset);
+        }
+        collisions.readState(state, in, offset);
+        state.invalidateAccelerations();
+    }
+
+    private void recordKeyframe() {
+        double[] frame = keyframes.beginWrite(currentTime, keyframeLength());
+        if (frame != null) {
+            writeKeyframe(frame);
+        }
+        lastKeyframeTime = currentTime;
+    }
+
+    // キーフレームの記録間隔（シミュレーション時間・年）
+    public double getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public void setKeyframeInterval(double interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("キーフレームの間隔は正の値である必要があります: " + interval);
+        }
+        this.keyframeInterval = interval;
+    }
+
+    // キーフレームに使うメモリの上限（バイト）。変更するとそれまでのキーフレームは破棄される
+    public void setKeyframeMemoryLimit(long maxBytes) {
+        keyframes = new KeyframeBuffer(maxBytes);
+        recordKeyframe();
+    }
+
+    public KeyframeBuffer getKeyframes() {
+        return keyframes;
+    }
+
+    // タイムラインで移動できる範囲の終わり
+    public double getTimelineEnd() {
+        return timelineEnd;
+    }
+
+    public void setActive(int i, boolean active) {
+        if (active && collisions.isMerged(i)) {
+            // 合体で質量を失った天体を戻すと、質量0の抜け殻が衝突判定なしで動き続けてしまう
+            LOGGER.info("合体して消えた天体は再表示できません: " + state.getId(i));
+            return;
+        }
+        if (state.active[i] != active) {
+            state.active[i] = active;
+            state.invalidateAccelerations();
+            for (ParticleSystem particles : particleSystems) {
+                particles.invalidateAccelerations();
+            }
+            conservation.rebaseline();  // 重力源が変わると保存量も変わる
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void setPaused(boolean paused) {
+        if (this.paused == paused) {
+            return;
+        }
+        this.paused = paused;
+        if (paused) {
+            lastUpdateTime = 0;  // 一時停止時にlastUpdateTimeをリセット
+            timestep.reset();
+        } else {
+            lastUpdateTime = System.nanoTime();  // 再開時に現在時刻を設定
+        }
+    }
+
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    public void setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    // 物理更新レート（1秒あたりのステップ数）
+    public double getPhysicsRate() {
+        return timestep.getStepsPerSecond();
+    }
+
+    public void setPhysicsRate(double stepsPerSecond) {
+        timestep.setStepsPerSecond(stepsPerSecond);
+    }
+
+    public double getStepSeconds() {
+        return timestep.getStepSeconds();
+    }
+
+    // 1フレームで実行する最大ステップ数
+    public int getMaxSubSteps() {
+        return timestep.getMaxSubSteps();
+    }
+
+    public void setMaxSubSteps(int maxSubSteps) {
+        timestep.setMaxSubSteps(maxSubSteps);
+    }
+
+    // 積分方式の切り替え
+    public IntegratorType getIntegratorType() {
+        return integratorType;
+    }
+
+    public void setIntegratorType(IntegratorType type) {
+        this.integratorType = type;
+        this.integrator = type.create();
+        state.invalidateAccelerations();
+    }
+
+    // 重力計算方式の切り替え
+    public ForceSolver getForceSolver() {
+        return forceKernel;
+    }
+
+    public void setForceSolver(ForceSolver forceSolver) {
+        if (forceSolver == null) {
+            throw new IllegalArgumentException("forceSolverがnullです");
+        }
+        this.forceKernel = forceSolver;
+        rebuildForceSolver();
+        state.invalidateAccelerations();
+    }
+
+    // 力の計算に使うスレッド数（1なら逐次計算）
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        int newCount = Math.max(1, Math.min(threadCount, Runtime.getRuntime().availableProcessors()));
+        if (newCount != this.threadCount) {
+            this.threadCount = newCount;
+            rebuildForceSolver();
+            for (ParticleSystem particles : particleSystems) {
+                particles.setParallel(newCount > 1);
+            }
+        }
+    }
+
+    private void rebuildForceSolver() {
+        if (forceSolver instanceof ParallelForceSolver parallel) {
+            parallel.close();
+        }
+        forceSolver = threadCount > 1 ? new ParallelForceSolver(forceKernel, threadCount) : forceKernel;
+    }
+
+    // 天体数が多い場合向けにBarnes–Hut法へ切り替える
+    public void useBarnesHut(double openingAngle) {
+        BarnesHutForceSolver solver = new BarnesHutForceSolver(G);
+        solver.setOpeningAngle(openingAngle);
+        setForceSolver(solver);
+    }
+
+    // 影響の小さい相互作用を近傍リストで間引く（toleranceは天体ごとの加速度の相対誤差の許容値）
+    public void usePrunedInteractions(double tolerance) {
+        setForceSolver(new NeighbourListForceSolver(G, tolerance, NeighbourListForceSolver.DEFAULT_REBUILD_INTERVAL));
+    }
+
+    // 直接計算に戻す
+    public void useDirectSummation() {
+        setForceSolver(new DirectForceSolver(G));
+    }
+
+    // 直接計算をVector API（SIMD）版に切り替える
+    // 実行時にjdk.incubator.vectorがない場合は切り替えずにfalseを返す
+    public boolean useVectorizedDirectSummation() {
+        if (!isVectorApiAvailable()) {
+            LOGGER.warning("jdk.incubator.vectorが読み込まれていないため、通常の直接計算を使用します");
+            return false;
+        }
+        setForceSolver(new VectorForceSolver(G));
+        return true;
+    }
+
+    public static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    public void close() {
+        if (forceSolver instanceof ParallelForceSolver parallel) {
+            parallel.close();
+        }
+    }
+
+    public BodyState getState() { return state; }
+    public ConservationMonitor getConservationMonitor() { return conservation; }
+
+    // ステップごとの処理（軌道の記録など）を登録する。待たせる処理は登録しないこと（nullで解除）
+    public void setStepListener(Consumer<NBodySimulation> listener) { this.stepListener = listener; }
+    public CollisionDetector getCollisionDetector() { return collisions; }
+    public boolean isMerged(int i) { return collisions.isMerged(i); }
+    public List<SatelliteSystem> getSatelliteSystems() { return Collections.unmodifiableList(satelliteSystems); }
+    public List<ParticleSystem> getParticleSystems() { return Collections.unmodifiableList(particleSystems); }
+    public double getCurrentTime() { return currentTime; }
+    public long getStepCount() { return stepCount; }
+}
@@ -0,0 +1,241 @@
+package com.example.solarsystem.model;
+
+import java.util.Arrays;
+
+// 近傍リストで相互作用を間引く重力計算
+// 各天体について、影響が無視できない相手（ヒル球の近く、または質量比から見て誤差が許容値を超える相手）だけを
+// 一定回数ごとに作り直すリストに登録する。リストから外した相手の質量は中心天体（最も重い天体）の位置にまとめて扱う。
+// 間引きによる加速度の相対誤差の上限（リスト作成時点）をgetErrorBoundで確認できる
+public class NeighbourListForceSolver implements ForceSolver {
+    public static final double DEFAULT_TOLERANCE = 1e-6;   // 天体ごとの加速度の相対誤差の許容値
+    public static final int DEFAULT_REBUILD_INTERVAL = 32;  // リストを作り直すまでの計算回数
+    private static final double HILL_FACTOR = 3.0;          // ヒル半径の何倍以内を近傍とするか
+
+    private final double g;
+    private double tolerance;
+    private int rebuildInterval;
+    private int callsSinceRebuild;
+    private int builtCount = -1;
+    private boolean[] builtActive = new boolean[0];
+
+    private int central = -1;
+    private double[] foldedMass = new double[0];  // 中心天体にまとめた質量（天体ごと）
+    private int[] neighbourStart = new int[1];     // neighbourIndexの範囲（CSR形式）
+    private int[] neighbourIndex = new int[0];
+    private double[] nearestSq = new double[0];   // 最も近い重力源までの距離の2乗（中心天体と近傍リストから求める）
+    private double errorBound;
+    private long listedPairs;
+
+    public NeighbourListForceSolver(double g) {
+        this(g, DEFAULT_TOLERANCE, DEFAULT_REBUILD_INTERVAL);
+    }
+
+    public NeighbourListForceSolver(double g, double tolerance, int rebuildInterval) {
+        this.g = g;
+        setTolerance(tolerance);
+        setRebuildInterval(rebuildInterval);
+    }
+
+    @Override
+    public void prepare(BodyState state) {
+        if (needsRebuild(state)) {
+            rebuild(state);
+            callsSinceRebuild = 0;
+        }
+        callsSinceRebuild++;
+    }
+
+    private boolean needsRebuild(BodyState state) {
+        int n = state.count();
+        if (n != builtCount || callsSinceRebuild >= rebuildInterval) {
+            return true;
+        }
+        for (int i = 0; i < n; i++) {
+            if (state.active[i] != builtActive[i]) return true;
+        }
+        return false;
+    }
+
+    // 近傍リストを作り直し、間引きによる誤差の上限を見積もる
+    // 相手ごとの誤差を許容値÷候補数以下に抑えるため、天体ごとの誤差の合計は許容値を超えない
+    public void rebuild(BodyState state) {
+        int n = state.count();
+        builtCount = n;
+        builtActive = Arrays.copyOf(state.active, n);
+        foldedMass = new double[n];
+        nearestSq = new double[n];
+        neighbourStart = new int[n + 1];
+        int[] list = new int[Math.max(16, n)];
+        int size = 0;
+
+        central = -1;
+        for (int i = 0; i < n; i++) {
+            if (state.active[i] && (central < 0 || state.mass[i] > state.mass[central])) {
+                central = i;
+            }
+        }
+
+        double[] hill = hillRadii(state);
+        errorBound = 0;
+        listedPairs = 0;
+        for (int i = 0; i < n; i++) {
+            neighbourStart[i] = size;
+            if (!state.active[i]) continue;
+
+            // 直接計算した場合の加速度の大きさと候補数
+            double fullX = 0, fullY = 0, fullZ = 0;
+            int candidates = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == i || !state.active[j] || state.mass[j] == 0) continue;
+                double dx = state.x[j] - state.x[i];
+                double dy = state.y[j] - state.y[i];
+                double dz = state.z[j] - state.z[i];
+                double distSq = dx * dx + dy * dy + dz * dz;
+                if (distSq == 0) continue;
+                double invDist = 1.0 / Math.sqrt(distSq);
+                double s = g * state.mass[j] * invDist * invDist * invDist;
+                fullX += dx * s;
+                fullY += dy * s;
+                fullZ += dz * s;
+                if (j != central) candidates++;
+            }
+            double total = Math.sqrt(fullX * fullX + fullY * fullY + fullZ * fullZ);
+            double perPair = candidates > 0 ? tolerance * total / candidates : 0;
+
+            double pruned = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == i || j == central || !state.active[j] || state.mass[j] == 0) continue;
+                double error = foldingError(state, i, j, hill);
+                if (error <= perPair) {
+                    pruned += error;
+                    if (i != central) foldedMass[i] += state.mass[j];
+                } else {
+                    if (size == list.length) list = Arrays.copyOf(list, size * 2);
+                    list[size++] = j;
+                }
+            }
+            listedPairs += size - neighbourStart[i];
+            if (total > 0) {
+                errorBound = Math.max(errorBound, pruned / total);
+            }
+        }
+        neighbourStart[n] = size;
+        neighbourIndex = Arrays.copyOf(list, size);
+    }
+
+    // 相手jをリストから外した場合の天体iの加速度の誤差
+    // 中心天体以外では、jの質量を中心天体の位置に置いた場合との差になる（ヒル球の近くにいる相手は外さない）
+    private double foldingError(BodyState state, int i, int j, double[] hill) {
+        double dx = state.x[j] - state.x[i];
+        double dy = state.y[j] - state.y[i];
+        double dz = state.z[j] - state.z[i];
+        double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (d == 0 || d < HILL_FACTOR * Math.max(hill[i], hill[j])) {
+            return Double.MAX_VALUE;
+        }
+        double gm = g * state.mass[j];
+        double s = gm / (d * d * d);
+        double ex = dx * s, ey = dy * s, ez = dz * s;
+        if (i != central) {
+            double cx = state.x[central] - state.x[i];
+            double cy = state.y[central] - state.y[i];
+            double cz = state.z[central] - state.z[i];
+            double rc = Math.sqrt(cx * cx + cy * cy + cz * cz);
+            double sc = gm / (rc * rc * rc);
+            ex -= cx * sc;
+            ey -= cy * sc;
+            ez -= cz * sc;
+        }
+        return Math.sqrt(ex * ex + ey * ey + ez * ez);
+    }
+
+    // 中心天体に対するヒル半径 r (m / 3M)^(1/3)
+    private double[] hillRadii(BodyState state) {
+        int n = state.count();
+        double[] hill = new double[n];
+        if (central < 0) return hill;
+        double mc = state.mass[central];
+        for (int i = 0; i < n; i++) {
+            if (i == central || !state.active[i] || mc <= 0) continue;
+            double dx = state.x[i] - state.x[central];
+            double dy = state.y[i] - state.y[central];
+            double dz = state.z[i] - state.z[central];
+            double r = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            hill[i] = r * Math.cbrt(state.mass[i] / (3 * mc));
+        }
+        return hill;
+    }
+
+    @Override
+    public void computeRange(BodyState state, int from, int to) {
+        double[] x = state.x, y = state.y, z = state.z;
+        double[] mass = state.mass;
+        for (int i = from; i < to; i++) {
+            double sumX = 0, sumY = 0, sumZ = 0;
+            double best = Double.POSITIVE_INFINITY;
+            if (state.active[i]) {
+                double xi = x[i], yi = y[i], zi = z[i];
+                if (i != central && central >= 0) {
+                    // 中心天体と、まとめた質量
+                    double dx = x[central] - xi, dy = y[central] - yi, dz = z[central] - zi;
+                    double distSq = dx * dx + dy * dy + dz * dz;
+                    if (distSq > 0) {
+                        if (mass[central] + foldedMass[i] > 0) best = distSq;
+                        double invDist = 1.0 / Math.sqrt(distSq);
+                        double s = g * (mass[central] + foldedMass[i]) * invDist * invDist * invDist;
+                        sumX += dx * s;
+                        sumY += dy * s;
+                        sumZ += dz * s;
+                    }
+                }
+                for (int k = neighbourStart[i]; k < neighbourStart[i + 1]; k++) {
+                    int j = neighbourIndex[k];
+                    double dx = x[j] - xi, dy = y[j] - yi, dz = z[j] - zi;
+                    double distSq = dx * dx + dy * dy + dz * dz;
+                    if (distSq == 0) continue;
+                    if (distSq < best) best = distSq;
+                    double invDist = 1.0 / Math.sqrt(distSq);
+                    double s = g * mass[j] * invDist * invDist * invDist;
+                    sumX += dx * s;
+                    sumY += dy * s;
+                    sumZ += dz * s;
+                }
+            }
+            state.ax[i] = sumX;
+            state.ay[i] = sumY;
+            state.az[i] = sumZ;
+            if (i < nearestSq.length) nearestSq[i] = best;
+        }
+    }
+
+    // 近傍リストから外した相手は影響が小さいため、距離の比較にも含めない
+    @Override
+    public double nearestDistance(int i) {
+        return i < nearestSq.length ? Math.sqrt(nearestSq[i]) : Double.NaN;
+    }
+
+    // 直前のリスト作成時点での、間引きによる加速度の相対誤差の上限（全天体の最大値）
+    public double getErrorBound() { return errorBound; }
+
+    // 直接計算の組み合わせ数に対する、実際に計算する組み合わせの割合
+    public double getPairFraction() {
+        long all = (long) builtCount * (builtCount - 1);
+        return all > 0 ? (double) listedPairs / all : 1.0;
+    }
+
+    public double getTolerance() { return tolerance; }
+
+    public void setTolerance(double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("許容誤差は0以上である必要があります: " + tolerance);
+        }
+        this.tolerance = tolerance;
+        builtCount = -1;
+    }
+
+    public int getRebuildInterval() { return rebuildInterval; }
+
+    public void setRebuildInterval(int rebuildInterval) {
+        this.rebuildInterval = Math.max(1, rebuildInterval);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.solarsystem.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 天体を固定サイズのブロックに分けて複数コアで加速度を計算する
+// 各天体の加速度は担当スレッドに関係なく同じ順序で足し合わせるため、
+// スレッド数を変えても結果はビット単位で一致する
+public class ParallelForceSolver implements ForceSolver, AutoCloseable {
+    private static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private final ForceSolver kernel;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int chunkSize;
+
+    public ParallelForceSolver(ForceSolver kernel, int threadCount) {
+        this(kernel, new ForkJoinPool(Math.max(1, threadCount)), true, DEFAULT_CHUNK_SIZE);
+    }
+
+    // 外部で管理しているプールを使う場合
+    public ParallelForceSolver(ForceSolver kernel, ForkJoinPool pool) {
+        this(kernel, pool, false, DEFAULT_CHUNK_SIZE);
+    }
+
+    private ParallelForceSolver(ForceSolver kernel, ForkJoinPool pool, boolean ownsPool, int chunkSize) {
+        if (kernel == null) {
+            throw new IllegalArgumentException("kernelがnullです");
+        }
+        this.kernel = kernel;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.chunkSize = chunkSize;
+    }
+
+    public ForceSolver getKernel() { return kernel; }
+    public int getThreadCount() { return pool.getParallelism(); }
+
+    @Override
+    public void prepare(BodyState state) {
+        // 木の構築などの前処理は逐次で行う
+        kernel.prepare(state);
+    }
+
+    @Override
+    public void computeRange(BodyState state, int from, int to) {
+        if (to - from <= chunkSize || pool.getParallelism() == 1) {
+            kernel.computeRange(state, from, to);
+            return;
+        }
+        pool.invoke(new RangeTask(state, from, to));
+    }
+
+    // 天体ごとに別々の要素へ書き込むため、記録はkernel側のものをそのまま使える
+    @Override
+    public double nearestDistance(int i) {
+        return kernel.nearestDistance(i);
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private final BodyState state;
+        private final int from;
+        private final int to;
+
+        RangeTask(BodyState state, int from, int to) {
+            this.state = state;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                kernel.computeRange(state, from, to);
+                return;
+            }
+            int mid = from + (to - from) / 2;
+            invokeAll(new RangeTask(state, from, mid), new RangeTask(state, mid, to));
+        }
+    }
+}
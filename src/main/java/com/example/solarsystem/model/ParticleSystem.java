@@ -0,0 +1,318 @@
+package com.example.solarsystem.model;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// 質量を持たない試験粒子の集まり（小惑星帯や破片など）
+// 粒子は質量を持つ天体から重力を受けるが、他へは及ぼさないため計算量はO(N_天体 × N_粒子)になる。
+// 位置・速度・加速度はプリミティブ配列で持ち、単精度を選べば1粒子あたり36バイトで収まる
+public class ParticleSystem {
+    private static final int CHUNK_SIZE = 4096;  // 並列計算時の分割単位
+
+    private final String id;
+    private final boolean singlePrecision;
+    private int count;
+
+    // 倍精度の場合
+    private double[] dx, dy, dz, dvx, dvy, dvz, dax, day, daz;
+    // 単精度の場合
+    private float[] fx, fy, fz, fvx, fvy, fvz, fax, fay, faz;
+
+    private boolean accelerationsValid;
+    private boolean parallel;
+    private ParticleSystem initial;  // リセット時の復元先
+
+    // 重力源（質量を持つ天体）の一時コピー
+    private int sourceCount;
+    private double[] sourceX = new double[0];
+    private double[] sourceY = new double[0];
+    private double[] sourceZ = new double[0];
+    private double[] sourceGm = new double[0];
+
+    public ParticleSystem(String id, int capacity, boolean singlePrecision) {
+        this.id = id;
+        this.singlePrecision = singlePrecision;
+        allocate(Math.max(capacity, 1));
+    }
+
+    private void allocate(int capacity) {
+        if (singlePrecision) {
+            fx = new float[capacity]; fy = new float[capacity]; fz = new float[capacity];
+            fvx = new float[capacity]; fvy = new float[capacity]; fvz = new float[capacity];
+            fax = new float[capacity]; fay = new float[capacity]; faz = new float[capacity];
+        } else {
+            dx = new double[capacity]; dy = new double[capacity]; dz = new double[capacity];
+            dvx = new double[capacity]; dvy = new double[capacity]; dvz = new double[capacity];
+            dax = new double[capacity]; day = new double[capacity]; daz = new double[capacity];
+        }
+    }
+
+    private int capacity() {
+        return singlePrecision ? fx.length : dx.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= capacity()) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, capacity() * 2);
+        if (singlePrecision) {
+            fx = Arrays.copyOf(fx, newCapacity); fy = Arrays.copyOf(fy, newCapacity); fz = Arrays.copyOf(fz, newCapacity);
+            fvx = Arrays.copyOf(fvx, newCapacity); fvy = Arrays.copyOf(fvy, newCapacity); fvz = Arrays.copyOf(fvz, newCapacity);
+            fax = Arrays.copyOf(fax, newCapacity); fay = Arrays.copyOf(fay, newCapacity); faz = Arrays.copyOf(faz, newCapacity);
+        } else {
+            dx = Arrays.copyOf(dx, newCapacity); dy = Arrays.copyOf(dy, newCapacity); dz = Arrays.copyOf(dz, newCapacity);
+            dvx = Arrays.copyOf(dvx, newCapacity); dvy = Arrays.copyOf(dvy, newCapacity); dvz = Arrays.copyOf(dvz, newCapacity);
+            dax = Arrays.copyOf(dax, newCapacity); day = Arrays.copyOf(day, newCapacity); daz = Arrays.copyOf(daz, newCapacity);
+        }
+    }
+
+    // 粒子を追加してインデックスを返す
+    public int add(double x, double y, double z, double vx, double vy, double vz) {
+        ensureCapacity(count + 1);
+        int i = count++;
+        set(i, x, y, z, vx, vy, vz);
+        return i;
+    }
+
+    public void set(int i, double x, double y, double z, double vx, double vy, double vz) {
+        if (singlePrecision) {
+            fx[i] = (float) x; fy[i] = (float) y; fz[i] = (float) z;
+            fvx[i] = (float) vx; fvy[i] = (float) vy; fvz[i] = (float) vz;
+        } else {
+            dx[i] = x; dy[i] = y; dz[i] = z;
+            dvx[i] = vx; dvy[i] = vy; dvz[i] = vz;
+        }
+        accelerationsValid = false;
+    }
+
+    // 1ステップの前半：半分のキックとドリフト（天体がtにある状態で呼ぶ）
+    public void beginStep(BodyState sources, double g, double dt) {
+        if (!accelerationsValid) {
+            computeAccelerations(sources, g);
+        }
+        double half = dt * 0.5;
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (singlePrecision) {
+                    fvx[i] += (float) (fax[i] * half);
+                    fvy[i] += (float) (fay[i] * half);
+                    fvz[i] += (float) (faz[i] * half);
+                    fx[i] += (float) (fvx[i] * dt);
+                    fy[i] += (float) (fvy[i] * dt);
+                    fz[i] += (float) (fvz[i] * dt);
+                } else {
+                    dvx[i] += dax[i] * half;
+                    dvy[i] += day[i] * half;
+                    dvz[i] += daz[i] * half;
+                    dx[i] += dvx[i] * dt;
+                    dy[i] += dvy[i] * dt;
+                    dz[i] += dvz[i] * dt;
+                }
+            }
+        });
+    }
+
+    // 1ステップの後半：天体がt+dtに進んだ後で加速度を求め、残りの半分をキックする
+    // ここで求めた加速度は次のステップの前半でそのまま使う
+    public void endStep(BodyState sources, double g, double dt) {
+        computeAccelerations(sources, g);
+        double half = dt * 0.5;
+        forEachChunk((from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (singlePrecision) {
+                    fvx[i] += (float) (fax[i] * half);
+                    fvy[i] += (float) (fay[i] * half);
+                    fvz[i] += (float) (faz[i] * half);
+                } else {
+                    dvx[i] += dax[i] * half;
+                    dvy[i] += day[i] * half;
+                    dvz[i] += daz[i] * half;
+                }
+            }
+        });
+    }
+
+    // 質量を持つ天体からの加速度を求める
+    public void computeAccelerations(BodyState sources, double g) {
+        collectSources(sources, g);
+        forEachChunk(this::accelerateRange);
+        accelerationsValid = true;
+    }
+
+    private void collectSources(BodyState state, double g) {
+        int n = state.count();
+        if (sourceX.length < n) {
+            sourceX = new double[n];
+            sourceY = new double[n];
+            sourceZ = new double[n];
+            sourceGm = new double[n];
+        }
+        sourceCount = 0;
+        for (int j = 0; j < n; j++) {
+            if (!state.active[j] || state.mass[j] <= 0) continue;
+            sourceX[sourceCount] = state.x[j];
+            sourceY[sourceCount] = state.y[j];
+            sourceZ[sourceCount] = state.z[j];
+            sourceGm[sourceCount] = g * state.mass[j];
+            sourceCount++;
+        }
+    }
+
+    private void accelerateRange(int from, int to) {
+        int m = sourceCount;
+        double[] sx = sourceX, sy = sourceY, sz = sourceZ, gm = sourceGm;
+        for (int i = from; i < to; i++) {
+            double xi = getX(i), yi = getY(i), zi = getZ(i);
+            double sumX = 0, sumY = 0, sumZ = 0;
+            for (int j = 0; j < m; j++) {
+                double ddx = sx[j] - xi;
+                double ddy = sy[j] - yi;
+                double ddz = sz[j] - zi;
+                double distSq = ddx * ddx + ddy * ddy + ddz * ddz;
+                if (distSq == 0) continue;
+                double invDist = 1.0 / Math.sqrt(distSq);
+                double s = gm[j] * invDist * invDist * invDist;
+                sumX += ddx * s;
+                sumY += ddy * s;
+                sumZ += ddz * s;
+            }
+            if (singlePrecision) {
+                fax[i] = (float) sumX;
+                fay[i] = (float) sumY;
+                faz[i] = (float) sumZ;
+            } else {
+                dax[i] = sumX;
+                day[i] = sumY;
+                daz[i] = sumZ;
+            }
+        }
+    }
+
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    // 粒子ごとの計算は互いに独立なので、分割して並列に処理しても結果は変わらない
+    private void forEachChunk(RangeTask task) {
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (!parallel || chunks < 2) {
+            task.run(0, count);
+            return;
+        }
+        IntStream.range(0, chunks).parallel().forEach(c ->
+            task.run(c * CHUNK_SIZE, Math.min(count, (c + 1) * CHUNK_SIZE)));
+    }
+
+    public void saveInitialState() {
+        if (initial == null) {
+            initial = new ParticleSystem(id, count, singlePrecision);
+        }
+        initial.copyFrom(this);
+    }
+
+    public void restoreInitialState() {
+        if (initial != null) {
+            copyFrom(initial);
+        }
+        accelerationsValid = false;
+    }
+
+    // キーフレーム用に位置・速度を書き出す（書き込んだ後の位置を返す）
+    // 単精度の粒子は2つのfloatのビットを1つのdoubleに詰めるので、倍精度の半分の長さで済む
+    public int stateLength() {
+        return singlePrecision ? count * 3 : count * 6;
+    }
+
+    public int writeState(double[] out, int offset) {
+        if (singlePrecision) {
+            for (int i = 0; i < count; i++) {
+                out[offset++] = pack(fx[i], fy[i]);
+                out[offset++] = pack(fz[i], fvx[i]);
+                out[offset++] = pack(fvy[i], fvz[i]);
+            }
+            return offset;
+        }
+        for (int i = 0; i < count; i++) {
+            out[offset++] = dx[i];
+            out[offset++] = dy[i];
+            out[offset++] = dz[i];
+            out[offset++] = dvx[i];
+            out[offset++] = dvy[i];
+            out[offset++] = dvz[i];
+        }
+        return offset;
+    }
+
+    public int readState(double[] in, int offset) {
+        if (singlePrecision) {
+            for (int i = 0; i < count; i++) {
+                long a = Double.doubleToRawLongBits(in[offset++]);
+                long b = Double.doubleToRawLongBits(in[offset++]);
+                long c = Double.doubleToRawLongBits(in[offset++]);
+                fx[i] = high(a); fy[i] = low(a);
+                fz[i] = high(b); fvx[i] = low(b);
+                fvy[i] = high(c); fvz[i] = low(c);
+            }
+            accelerationsValid = false;
+            return offset;
+        }
+        for (int i = 0; i < count; i++) {
+            set(i, in[offset], in[offset + 1], in[offset + 2], in[offset + 3], in[offset + 4], in[offset + 5]);
+            offset += 6;
+        }
+        return offset;
+    }
+
+    // 2つのfloatのビットをそのまま1つのdoubleへ（値としては意味を持たない）
+    private static double pack(float high, float low) {
+        return Double.longBitsToDouble(((long) Float.floatToRawIntBits(high) << 32)
+            | (Float.floatToRawIntBits(low) & 0xFFFFFFFFL));
+    }
+
+    private static float high(long bits) {
+        return Float.intBitsToFloat((int) (bits >>> 32));
+    }
+
+    private static float low(long bits) {
+        return Float.intBitsToFloat((int) bits);
+    }
+
+    private void copyFrom(ParticleSystem other) {
+        int n = other.count;
+        ensureCapacity(n);
+        if (singlePrecision) {
+            System.arraycopy(other.fx, 0, fx, 0, n); System.arraycopy(other.fy, 0, fy, 0, n);
+            System.arraycopy(other.fz, 0, fz, 0, n); System.arraycopy(other.fvx, 0, fvx, 0, n);
+            System.arraycopy(other.fvy, 0, fvy, 0, n); System.arraycopy(other.fvz, 0, fvz, 0, n);
+        } else {
+            System.arraycopy(other.dx, 0, dx, 0, n); System.arraycopy(other.dy, 0, dy, 0, n);
+            System.arraycopy(other.dz, 0, dz, 0, n); System.arraycopy(other.dvx, 0, dvx, 0, n);
+            System.arraycopy(other.dvy, 0, dvy, 0, n); System.arraycopy(other.dvz, 0, dvz, 0, n);
+        }
+        count = n;
+        accelerationsValid = false;
+    }
+
+    // 重力源が変わった場合（表示切り替えなど）は加速度を求め直させる
+    public void invalidateAccelerations() { accelerationsValid = false; }
+
+    public double getX(int i) { return singlePrecision ? fx[i] : dx[i]; }
+    public double getY(int i) { return singlePrecision ? fy[i] : dy[i]; }
+    public double getZ(int i) { return singlePrecision ? fz[i] : dz[i]; }
+    public double getVx(int i) { return singlePrecision ? fvx[i] : dvx[i]; }
+    public double getVy(int i) { return singlePrecision ? fvy[i] : dvy[i]; }
+    public double getVz(int i) { return singlePrecision ? fvz[i] : dvz[i]; }
+
+    // 1粒子あたりの使用メモリ（位置・速度・加速度）
+    public int bytesPerParticle() {
+        return 9 * (singlePrecision ? Float.BYTES : Double.BYTES);
+    }
+
+    public boolean isParallel() { return parallel; }
+    public void setParallel(boolean parallel) { this.parallel = parallel; }
+
+    public String getId() { return id; }
+    public boolean isSinglePrecision() { return singlePrecision; }
+    public int count() { return count; }
+}
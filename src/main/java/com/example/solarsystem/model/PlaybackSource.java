@@ -0,0 +1,36 @@
+package com.example.solarsystem.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+// 記録済みの軌道から任意時刻の状態を与えるもの（シミュレーションの代わりに再生する）
+public interface PlaybackSource {
+    double getStartTime();
+
+    double getEndTime();
+
+    // stateのうちidが一致する天体の位置・速度を時刻timeの値にする（範囲外の時刻は端に丸める）
+    void evaluate(BodyState state, double time);
+
+    // 記録した軌道ファイルを開く（先頭のmagicでTrajectoryRecorderの形式か圧縮形式かを判定する）
+    // 返す再生元はCloseableで、使い終わったら閉じる
+    static PlaybackSource openRecording(Path path) throws IOException {
+        PlaybackSource source;
+        long records;
+        if (CompressedTrajectoryReader.isCompressed(path)) {
+            CompressedTrajectoryReader reader = CompressedTrajectoryReader.open(path);
+            source = reader;
+            records = reader.getRecordCount();
+        } else {
+            TrajectoryReader reader = TrajectoryReader.open(path);
+            source = reader;
+            records = reader.getRecordCount();
+        }
+        if (records == 0) {
+            ((Closeable) source).close();
+            throw new IOException("記録が空です: " + path);
+        }
+        return source;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.solarsystem.model;
+
+// 天体の運動の求め方
+public enum PropagationMode {
+    NBODY("nbody"),    // 重力の相互作用を数値積分する
+    KEPLER("kepler");  // 軌道要素から解析的に求める（他の天体の影響は受けない）
+
+    private final String key;
+
+    PropagationMode(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // 天体データの文字列から取得（未指定の場合は既定値）
+    public static PropagationMode fromKey(String key, PropagationMode defaultMode) {
+        if (key == null || key.isEmpty()) {
+            return defaultMode;
+        }
+        for (PropagationMode mode : values()) {
+            if (mode.key.equalsIgnoreCase(key) || mode.name().equalsIgnoreCase(key)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("不明な伝播方式です: " + key);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.solarsystem.model;
+
+import java.util.Arrays;
+
+// 親天体のまわりを回る衛星群（親天体基準の相対座標で積分する）
+// 衛星は親の1ステップを自分の周期に合った刻み幅で細かく分割して進めるため、
+// 系全体の刻み幅を最も速い衛星に合わせる必要がない。
+// 親以外の天体の影響は、親と衛星に働く重力の差（潮汐項）として加える。
+// 親の1ステップの間、親から見た外部天体の位置は固定とみなす
+public class SatelliteSystem implements ForceSolver {
+    private static final int STEPS_PER_ORBIT = 256;  // 最も短い衛星の周期あたりの分割数
+
+    private final double g;
+    private final int parentIndex;        // 全体の状態における親天体のインデックス
+    private final double parentMass;      // 親天体自身の質量（衛星を含まない）
+    private final BodyState local;        // 親基準の相対位置・速度
+    private final BodyState initialLocal;
+    private final Integrator integrator;
+    private int[] indices;                // 全体の状態における衛星のインデックス
+    private double maxStep;             // 衛星の刻み幅の上限
+    // 外部天体（親基準の位置とGM）
+    private int perturberCount;
+    private double[] perturberX = new double[0];
+    private double[] perturberY = new double[0];
+    private double[] perturberZ = new double[0];
+    private double[] perturberGm = new double[0];
+
+    public SatelliteSystem(double g, int parentIndex, double parentMass) {
+        this.g = g;
+        this.parentIndex = parentIndex;
+        this.parentMass = parentMass;
+        this.local = new BodyState();
+        this.initialLocal = new BodyState();
+        this.integrator = new VelocityVerletIntegrator();
+        this.indices = new int[0];
+        this.maxStep = Double.MAX_VALUE;
+    }
+
+    // 衛星を追加する（位置・速度は親基準、massは衛星自身の系の総質量）
+    public void addSatellite(String id, int globalIndex, double mass,
+                             double x, double y, double z, double vx, double vy, double vz,
+                             double period) {
+        int k = local.add(id, mass);
+        local.setPosition(k, x, y, z);
+        local.setVelocity(k, vx, vy, vz);
+        indices = Arrays.copyOf(indices, k + 1);
+        indices[k] = globalIndex;
+
+        if (period <= 0) {
+            double r = Math.sqrt(x * x + y * y + z * z);
+            period = 2 * Math.PI * Math.sqrt(r * r * r / (g * (parentMass + mass)));
+        }
+        maxStep = Math.min(maxStep, period / STEPS_PER_ORBIT);
+    }
+
+    public void saveInitialState() {
+        initialLocal.copyFrom(local);
+    }
+
+    public void restoreInitialState() {
+        local.copyFrom(initialLocal);
+        local.invalidateAccelerations();
+    }
+
+    // キーフレーム用に相対位置・速度を書き出す（書き込んだ後の位置を返す）
+    public int stateLength() {
+        return local.count() * 6;
+    }
+
+    public int writeState(double[] out, int offset) {
+        for (int k = 0; k < local.count(); k++) {
+            out[offset++] = local.x[k];
+            out[offset++] = local.y[k];
+            out[offset++] = local.z[k];
+            out[offset++] = local.vx[k];
+            out[offset++] = local.vy[k];
+            out[offset++] = local.vz[k];
+        }
+        return offset;
+    }
+
+    public int readState(double[] in, int offset) {
+        for (int k = 0; k < local.count(); k++) {
+            local.setPosition(k, in[offset], in[offset + 1], in[offset + 2]);
+            local.setVelocity(k, in[offset + 3], in[offset + 4], in[offset + 5]);
+            offset += 6;
+        }
+        return offset;
+    }
+
+    // 親天体の1ステップ（dt）分だけ衛星を進め、全体の状態に絶対座標を書き込む
+    // 親天体はすでにステップ後の位置にあるものとする
+    public void advance(BodyState global, double dt) {
+        collectPerturbers(global);
+        local.invalidateAccelerations();
+        int subSteps = (int) Math.max(1, Math.ceil(Math.abs(dt) / maxStep));
+        double h = dt / subSteps;
+        for (int s = 0; s < subSteps; s++) {
+            integrator.step(local, this, h);
+        }
+        writeAbsolute(global);
+    }
+
+    // 親の位置・速度に相対値を足して全体の状態へ反映する
+    public void writeAbsolute(BodyState global) {
+        double px = global.x[parentIndex], py = global.y[parentIndex], pz = global.z[parentIndex];
+        double pvx = global.vx[parentIndex], pvy = global.vy[parentIndex], pvz = global.vz[parentIndex];
+        for (int k = 0; k < local.count(); k++) {
+            int i = indices[k];
+            global.x[i] = px + local.x[k];
+            global.y[i] = py + local.y[k];
+            global.z[i] = pz + local.z[k];
+            global.vx[i] = pvx + local.vx[k];
+            global.vy[i] = pvy + local.vy[k];
+            global.vz[i] = pvz + local.vz[k];
+        }
+    }
+
+    // 親以外の重力源を親基準の位置で記録する
+    private void collectPerturbers(BodyState global) {
+        int n = global.count();
+        if (perturberX.length < n) {
+            perturberX = new double[n];
+            perturberY = new double[n];
+            perturberZ = new double[n];
+            perturberGm = new double[n];
+        }
+        double px = global.x[parentIndex], py = global.y[parentIndex], pz = global.z[parentIndex];
+        perturberCount = 0;
+        for (int j = 0; j < n; j++) {
+            if (j == parentIndex || !global.active[j] || global.mass[j] == 0) continue;
+            perturberX[perturberCount] = global.x[j] - px;
+            perturberY[perturberCount] = global.y[j] - py;
+            perturberZ[perturberCount] = global.z[j] - pz;
+            perturberGm[perturberCount] = g * global.mass[j];
+            perturberCount++;
+        }
+    }
+
+    // 親基準の座標系での加速度（親の重力＋衛星同士の重力＋間接項＋潮汐項）
+    @Override
+    public void computeRange(BodyState state, int from, int to) {
+        int n = state.count();
+        double[] x = state.x, y = state.y, z = state.z;
+        double[] mass = state.mass;
+
+        // 衛星が親を引っ張る分（間接項）
+        double indirectX = 0, indirectY = 0, indirectZ = 0;
+        for (int j = 0; j < n; j++) {
+            double r2 = x[j] * x[j] + y[j] * y[j] + z[j] * z[j];
+            if (r2 == 0) continue;
+            double inv = 1.0 / Math.sqrt(r2);
+            double s = g * mass[j] * inv * inv * inv;
+            indirectX += x[j] * s;
+            indirectY += y[j] * s;
+            indirectZ += z[j] * s;
+        }
+
+        for (int i = from; i < to; i++) {
+            double r2 = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+            double sumX = 0, sumY = 0, sumZ = 0;
+            if (r2 > 0) {
+                double inv = 1.0 / Math.sqrt(r2);
+                double s = g * parentMass * inv * inv * inv;
+                sumX -= x[i] * s;
+                sumY -= y[i] * s;
+                sumZ -= z[i] * s;
+            }
+            for (int j = 0; j < n; j++) {
+                if (i == j) continue;
+                double dx = x[j] - x[i], dy = y[j] - y[i], dz = z[j] - z[i];
+                double d2 = dx * dx + dy * dy + dz * dz;
+                if (d2 == 0) continue;
+                double inv = 1.0 / Math.sqrt(d2);
+                double s = g * mass[j] * inv * inv * inv;
+                sumX += dx * s;
+                sumY += dy * s;
+                sumZ += dz * s;
+            }
+            // 潮汐項（外部天体が衛星を引く力と親を引く力の差）
+            for (int j = 0; j < perturberCount; j++) {
+                double dpx = perturberX[j], dpy = perturberY[j], dpz = perturberZ[j];
+                double dx = dpx - x[i], dy = dpy - y[i], dz = dpz - z[i];
+                double invS = 1.0 / Math.sqrt(dx * dx + dy * dy + dz * dz);
+                double invP = 1.0 / Math.sqrt(dpx * dpx + dpy * dpy + dpz * dpz);
+                double fs = perturberGm[j] * invS * invS * invS;
+                double fp = perturberGm[j] * invP * invP * invP;
+                sumX += dx * fs - dpx * fp;
+                sumY += dy * fs - dpy * fp;
+                sumZ += dz * fs - dpz * fp;
+            }
+            state.ax[i] = sumX - indirectX;
+            state.ay[i] = sumY - indirectY;
+            state.az[i] = sumZ - indirectZ;
+        }
+    }
+
+    public int getParentIndex() { return parentIndex; }
+    public int satelliteCount() { return local.count(); }
+    public int getGlobalIndex(int k) { return indices[k]; }
+    public BodyState getLocalState() { return local; }
+    public double getMaxStep() { return maxStep; }
+}
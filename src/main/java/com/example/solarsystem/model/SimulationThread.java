@@ -0,0 +1,115 @@
+package com.example.solarsystem.model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// 専用スレッドでNBodySimulationを進める
+// UIからの操作はコマンドキュー経由でこのスレッド上で実行し、
+// 結果はトリプルバッファのスナップショットとしてFXスレッドへ渡す
+public class SimulationThread {
+    private static final Logger LOGGER = Logger.getLogger(SimulationThread.class.getName());
+
+    private final NBodySimulation simulation;
+    private final Queue<Consumer<NBodySimulation>> commands;
+    private final TripleBuffer<StateSnapshot> snapshots;
+    private volatile boolean running;
+    private Thread thread;
+    private long version;
+
+    public SimulationThread(NBodySimulation simulation) {
+        this.simulation = simulation;
+        this.commands = new ConcurrentLinkedQueue<>();
+        this.snapshots = new TripleBuffer<>(StateSnapshot::new);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        publish();
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            LOGGER.warning("シミュレーションスレッドが時間内に終了しませんでした（残りの操作は終了時に実行されます）");
+        }
+        thread = null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // シミュレーションスレッドで実行する操作を登録する
+    public void submit(Consumer<NBodySimulation> command) {
+        commands.add(command);
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    // FXスレッドから最新のスナップショットを取得する（ロックなし）
+    public StateSnapshot latestSnapshot() {
+        return snapshots.acquire();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                boolean changed = drainCommands();
+                if (simulation.update(System.nanoTime()) > 0) {
+                    changed = true;
+                }
+                if (changed) {
+                    publish();
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "シミュレーションの更新に失敗しました", e);
+                simulation.setPaused(true);
+                publish();
+            }
+            // 次の物理ステップまで待つ（コマンドが来たら起こされる）
+            LockSupport.parkNanos((long) (simulation.getStepSeconds() * 1_000_000_000L));
+        }
+        // 止める前に登録された操作（記録の終了など）は、stopの待ち時間に関係なくこのスレッドで必ず実行する
+        try {
+            drainCommands();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "終了時の操作に失敗しました", e);
+        }
+    }
+
+    private boolean drainCommands() {
+        boolean executed = false;
+        Consumer<NBodySimulation> command;
+        while ((command = commands.poll()) != null) {
+            command.accept(simulation);
+            executed = true;
+        }
+        return executed;
+    }
+
+    private void publish() {
+        snapshots.writeBuffer().copyFrom(simulation, ++version);
+        snapshots.publish();
+    }
+}
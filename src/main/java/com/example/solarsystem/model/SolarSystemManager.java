@@ -3,30 +3,51 @@ package com.example.solarsystem.model;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.geometry.Point3D;
 import com.example.solarsystem.data.CelestialDataLoader;
 import com.example.solarsystem.data.CelestialDataLoader.CelestialData;
 import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
-import com.example.solarsystem.data.CelestialDataLoader.OrbitData;
+import com.example.solarsystem.data.CelestialDataLoader.ParticlePopulationData;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 public class SolarSystemManager {
     private static final Logger LOGGER = Logger.getLogger(SolarSystemManager.class.getName());
-    private static final double G = 6.67430e-11; // 万有引力定数
-    private static final double TIME_SCALE = 1.0; // 時間スケール（1.0 = 実時間）
+    private static final double TIME_SCALE = 1.0; // 時間スケール（1.0 = 1秒で1年）
+    private static final double MAX_TIME_SCALE = 100.0;
+    private static final double MAX_ANALYTIC_TIME_SCALE = 1.0e7;  // 全天体がケプラー軌道の場合の上限
 
     private final ObservableList<CelestialBody> bodies;
     private final Map<String, CelestialBody> bodyMap;
     private final DoubleProperty timeScale;
     private final BooleanProperty isPaused;
     private final StringProperty statusMessage;
-    private double currentTime;
-    private long lastUpdateTime;  // 追加：最後の更新時間
+    private final DoubleProperty currentTime;   // 表示中の時刻（年）
+    private final DoubleProperty timelineEnd;   // タイムラインで移動できる範囲の終わり
+    private final DoubleProperty energyDrift;          // 全エネルギーの相対的なずれ
+    private final DoubleProperty momentumDrift;        // 全運動量の相対的なずれ
+    private final DoubleProperty angularMomentumDrift; // 全角運動量の相対的なずれ
+    private final BooleanProperty driftMonitored;      // ずれを監視しているか（falseの間、ずれの値は意味を持たない）
+    private final NBodySimulation simulation;  // 物理計算本体（bodiesと同じ並び）
+    private SimulationThread simulationThread;  // nullの場合はupdate()内で同期的に計算する
+    private long lastSyncedVersion;
+
+    // 暦などからの再生（nullでなければシミュレーションの代わりにこちらを表示する）
+    private PlaybackSource playbackSource;
+    private BodyState playbackState;
+    private double playbackTime;
+    private double playbackRate = 1.0;  // 再生速度の倍率（負なら逆再生）
+    private long lastPlaybackUpdate;
+
+    // 軌道の記録（nullなら記録しない）
+    private RecordingHook recording;
 
     public SolarSystemManager() {
         this.bodies = FXCollections.observableArrayList();
@@ -34,8 +55,24 @@ public class SolarSystemManager {
         this.timeScale = new SimpleDoubleProperty(TIME_SCALE);
         this.isPaused = new SimpleBooleanProperty(false);
         this.statusMessage = new SimpleStringProperty("");
-        this.currentTime = 0.0;
-        this.lastUpdateTime = 0;  // 初期化
+        this.currentTime = new SimpleDoubleProperty(0);
+        this.timelineEnd = new SimpleDoubleProperty(0);
+        this.energyDrift = new SimpleDoubleProperty(0);
+        this.momentumDrift = new SimpleDoubleProperty(0);
+        this.angularMomentumDrift = new SimpleDoubleProperty(0);
+        this.driftMonitored = new SimpleBooleanProperty(true);
+        this.simulation = new NBodySimulation();
+
+        // UIからの変更はコマンドとしてシミュレーションへ渡す
+        timeScale.addListener((obs, oldVal, newVal) -> {
+            double value = newVal.doubleValue();
+            submit(sim -> sim.setTimeScale(value));
+        });
+        isPaused.addListener((obs, oldVal, newVal) -> {
+            if (playbackSource == null) {
+                submit(sim -> sim.setPaused(newVal));
+            }
+        });
 
         // データの読み込み
         loadCelestialBodies();
@@ -45,20 +82,36 @@ public class SolarSystemManager {
         try {
             CelestialData data = CelestialDataLoader.loadData();
             LOGGER.info("天体データを読み込みました: " + data.celestialBodies.size() + "個の天体");
+            simulation.applySettings(data.simulation);
 
             for (CelestialBodyData bodyData : data.celestialBodies) {
                 try {
                     CelestialBody body = new CelestialBody(bodyData);
+                    int index = simulation.addBody(bodyData);
                     bodies.add(body);
                     bodyMap.put(bodyData.id, body);
+                    body.visibleProperty().addListener((obs, oldVal, newVal) ->
+                        submit(sim -> sim.setActive(index, newVal)));
                     LOGGER.info("天体を追加しました: " + bodyData.name);
                 } catch (Exception e) {
                     LOGGER.warning("天体の追加に失敗しました: " + bodyData.name + " - " + e.getMessage());
                 }
             }
 
-            // 初期位置の計算
-            calculateInitialPositions();
+            // 初期位置と初期速度の計算
+            simulation.initializeCircularVelocities();
+            if (data.particlePopulations != null) {
+                for (ParticlePopulationData population : data.particlePopulations) {
+                    try {
+                        simulation.addParticlePopulation(population);
+                    } catch (IllegalArgumentException e) {
+                        LOGGER.warning("試験粒子の追加に失敗しました: " + population.id + " - " + e.getMessage());
+                    }
+                }
+            }
+            simulation.saveInitialState();
+            syncBodies(simulation.getState(), simulation::isMerged, true);
+            driftMonitored.set(simulation.getConservationMonitor().isMonitoring());
             statusMessage.set("天体データの読み込みが完了しました");
 
         } catch (Exception e) {
@@ -67,77 +120,262 @@ public class SolarSystemManager {
         }
     }
 
-    private void calculateInitialPositions() {
-        for (CelestialBody body : bodies) {
-            if (body.getOrbitData() != null) {
-                OrbitData orbit = body.getOrbitData();
-                // 初期角度が設定されていない場合は0を使用
-                double angle = orbit.initialAngle;
-                // 半径が設定されていない場合は長半径を使用
-                double radius = orbit.radius > 0 ? orbit.radius : orbit.semiMajorAxis;
-                double x = radius * Math.cos(angle);
-                double z = radius * Math.sin(angle);
-                body.updatePosition(new Point3D(x, 0, z));
+    // プリミティブ状態を天体のプロパティへ反映する（通常は表示中の天体のみ、1フレームに1回）
+    // mergedが与えられれば、衝突で合体して消えた天体を隠す（再生中はnullで、表示はそのまま）
+    private void syncBodies(BodyState state, IntPredicate merged, boolean all) {
+        int n = Math.min(state.count(), bodies.size());
+        for (int i = 0; i < n; i++) {
+            if (merged != null) {
+                bodies.get(i).setRemoved(merged.test(i));
             }
+            if (all || state.active[i]) {
+                bodies.get(i).syncFromState(state.x[i], state.y[i], state.z[i],
+                    state.vx[i], state.vy[i], state.vz[i]);
+            }
+        }
+    }
+
+    // シミュレーションへの操作（スレッド動作中はキュー経由、それ以外は即時実行）
+    private void submit(Consumer<NBodySimulation> command) {
+        if (simulationThread != null) {
+            simulationThread.submit(command);
+        } else {
+            command.accept(simulation);
         }
     }
 
     public void update(long now) {
-        if (isPaused.get()) {
+        if (playbackSource != null) {
+            updatePlayback(now);
             return;
         }
-        if (lastUpdateTime == 0) {
-            lastUpdateTime = now;
+        if (simulationThread != null) {
+            // 物理計算は専用スレッドで行い、ここでは最新のスナップショットを反映するだけ
+            StateSnapshot snapshot = simulationThread.latestSnapshot();
+            if (snapshot.getVersion() != lastSyncedVersion) {
+                lastSyncedVersion = snapshot.getVersion();
+                syncBodies(snapshot.getState(), snapshot::isMerged, false);
+                currentTime.set(snapshot.getTime());
+                timelineEnd.set(snapshot.getTimelineEnd());
+                energyDrift.set(snapshot.getEnergyDrift());
+                momentumDrift.set(snapshot.getMomentumDrift());
+                angularMomentumDrift.set(snapshot.getAngularMomentumDrift());
+                driftMonitored.set(snapshot.isMonitoring());
+                syncAutoPause(snapshot.isPaused());
+            }
             return;
         }
-        double deltaTime = (now - lastUpdateTime) / 1_000_000_000.0 * timeScale.get();
-        lastUpdateTime = now;
 
-        // 天体の位置を更新
-        for (CelestialBody body : bodies) {
-            if (body.isVisible()) {
-                body.updatePosition(deltaTime);
+        if (simulation.update(now) > 0) {
+            // 表示中の天体にだけ結果を反映
+            syncBodies(simulation.getState(), simulation::isMerged, false);
+            currentTime.set(simulation.getCurrentTime());
+            timelineEnd.set(simulation.getTimelineEnd());
+            ConservationMonitor conservation = simulation.getConservationMonitor();
+            energyDrift.set(conservation.getEnergyDrift());
+            momentumDrift.set(conservation.getMomentumDrift());
+            angularMomentumDrift.set(conservation.getAngularMomentumDrift());
+            driftMonitored.set(conservation.isMonitoring());
+            syncAutoPause(simulation.isPaused());
+        }
+    }
+
+    // 記録の間隔が経過するごとに1レコード追記する（物理計算のスレッドでステップごとに呼ばれる）
+    // 1フレームの間に何ステップ進んでも間隔どおりに記録できる。TrajectoryRecorderは待たずに書くので計算は止めない
+    private static class RecordingHook implements Consumer<NBodySimulation> {
+        final TrajectoryRecorder recorder;
+        final double interval;
+        double nextTime;
+
+        RecordingHook(TrajectoryRecorder recorder, double interval) {
+            this.recorder = recorder;
+            this.interval = interval;
+        }
+
+        @Override
+        public void accept(NBodySimulation sim) {
+            double time = sim.getCurrentTime();
+            if (time < recorder.getLastTime()) {
+                nextTime = time;  // 巻き戻した場合はそこから記録し直す
+            }
+            if (time + 1e-12 >= nextTime) {
+                recorder.record(sim.getState(), time);
+                nextTime = time + interval;
             }
         }
+    }
 
-        // 重力の影響を計算
-        calculateGravitationalForces();
+    // 全天体の位置と速度をファイルへ記録する（intervalはシミュレーション時間・年、0なら毎ステップ）
+    public void startRecording(Path path, double interval) throws IOException {
+        stopRecording();
+        BodyState layout = simulationThread != null
+            ? simulationThread.latestSnapshot().getState()
+            : simulation.getState();
+        RecordingHook hook = new RecordingHook(TrajectoryRecorder.create(path, layout), Math.max(0, interval));
+        recording = hook;
+        // 現在の状態を最初のレコードにしてから、以降はステップごとに記録する
+        submit(sim -> {
+            hook.nextTime = sim.getCurrentTime();
+            hook.accept(sim);
+            sim.setStepListener(hook);
+        });
+        statusMessage.set("軌道を記録しています: " + path.getFileName());
     }
 
-    private void calculateGravitationalForces() {
-        for (CelestialBody body1 : bodies) {
-            if (!body1.isVisible()) continue;
+    public void stopRecording() {
+        if (recording == null) {
+            return;
+        }
+        TrajectoryRecorder recorder = recording.recorder;
+        recording = null;
+        // 書き込みは物理計算のスレッドで行っているので、閉じるのも同じスレッドで行う
+        submit(sim -> {
+            sim.setStepListener(null);
+            try {
+                recorder.close();
+                if (recorder.getDroppedCount() > 0) {
+                    LOGGER.warning("記録できなかったレコード: " + recorder.getDroppedCount());
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "記録ファイルを閉じられませんでした: " + recorder.getPath(), e);
+            }
+        });
+    }
 
-            Point3D totalForce = new Point3D(0, 0, 0);
-            for (CelestialBody body2 : bodies) {
-                if (body1 == body2 || !body2.isVisible()) continue;
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    // 保存量の監視でシミュレーションが止まった場合はUIの一時停止状態も合わせる
+    private void syncAutoPause(boolean simulationPaused) {
+        if (simulationPaused && !isPaused.get()) {
+            isPaused.set(true);
+            statusMessage.set(String.format("シミュレーションが一時停止しました（エネルギーのずれ %.2e）",
+                energyDrift.get()));
+        }
+    }
+
+    // 再生中は経過時間×時間スケール×再生速度だけ再生位置を進め、その時刻の状態を評価して表示する
+    private void updatePlayback(long now) {
+        if (isPaused.get() || lastPlaybackUpdate == 0) {
+            lastPlaybackUpdate = now;
+            return;
+        }
+        double elapsed = (now - lastPlaybackUpdate) / 1_000_000_000.0;
+        lastPlaybackUpdate = now;
+        if (elapsed <= 0) {
+            return;
+        }
+        double start = playbackSource.getStartTime();
+        double end = playbackSource.getEndTime();
+        playbackTime = Math.max(start, Math.min(end, playbackTime + elapsed * timeScale.get() * playbackRate));
+        showPlayback();
+        if (playbackRate > 0 && playbackTime >= end) {
+            pause();
+            statusMessage.set("再生が終わりに達しました");
+        } else if (playbackRate < 0 && playbackTime <= start) {
+            pause();
+            statusMessage.set("再生が始まりに戻りました");
+        }
+    }
+
+    private void showPlayback() {
+        playbackSource.evaluate(playbackState, playbackTime);
+        syncBodies(playbackState, null, false);
+        currentTime.set(playbackTime);
+    }
+
+    // 記録済みの軌道から再生する（その間シミュレーションは止めておく）
+    public void startPlayback(PlaybackSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("再生元がnullです");
+        }
+        BodyState template = simulationThread != null
+            ? simulationThread.latestSnapshot().getState()
+            : simulation.getState();
+        playbackState = new BodyState(template.count());
+        playbackState.copyFrom(template);
+        submit(sim -> sim.setPaused(true));
+        playbackSource = source;
+        playbackTime = Math.max(source.getStartTime(), Math.min(source.getEndTime(), currentTime.get()));
+        lastPlaybackUpdate = 0;
+        timelineEnd.set(source.getEndTime());
+        showPlayback();
+    }
 
-                Point3D force = calculateGravitationalForce(body1, body2);
-                totalForce = totalForce.add(force);
+    // 暦ファイルを読み込んで再生する
+    public void playFromEphemeris(Path path) throws IOException {
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.load(path);
+        startPlayback(ephemeris);
+        statusMessage.set("暦から再生しています: " + path.getFileName());
+    }
+
+    // 記録した軌道ファイル（TrajectoryRecorderまたは圧縮形式）を読み込んで再生する（ファイルは必要な部分だけを読む）
+    public void playFromRecording(Path path) throws IOException {
+        PlaybackSource source = PlaybackSource.openRecording(path);
+        startPlayback(source);
+        statusMessage.set("記録から再生しています: " + path.getFileName());
+    }
+
+    // 再生をやめてシミュレーションの表示に戻る
+    public void stopPlayback() {
+        if (playbackSource == null) {
+            return;
+        }
+        if (playbackSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "再生元を閉じられませんでした", e);
             }
+        }
+        playbackSource = null;
+        playbackState = null;
+        boolean paused = isPaused.get();
+        submit(sim -> sim.setPaused(paused));
+        if (simulationThread == null) {
+            syncBodies(simulation.getState(), simulation::isMerged, true);
+            currentTime.set(simulation.getCurrentTime());
+            timelineEnd.set(simulation.getTimelineEnd());
+        } else {
+            lastSyncedVersion = -1;
+        }
+    }
 
-            // 速度と位置の更新
-            Point3D currentVelocity = body1.velocityProperty().get();
-            Point3D newVelocity = currentVelocity.add(totalForce.multiply(timeScale.get()));
-            Point3D currentPosition = body1.positionProperty().get();
-            Point3D newPosition = currentPosition.add(newVelocity.multiply(timeScale.get()));
+    public boolean isPlayingBack() {
+        return playbackSource != null;
+    }
 
-            body1.updateVelocity(newVelocity);
-            body1.updatePosition(newPosition);
+    // 再生速度の倍率を設定する（負の値で逆再生。時間スケールと掛け合わせて使う）
+    public void setPlaybackRate(double rate) {
+        if (!Double.isFinite(rate)) {
+            throw new IllegalArgumentException("再生速度が不正です: " + rate);
         }
+        playbackRate = rate;
     }
 
-    private Point3D calculateGravitationalForce(CelestialBody body1, CelestialBody body2) {
-        Point3D pos1 = body1.positionProperty().get();
-        Point3D pos2 = body2.positionProperty().get();
-        Point3D direction = pos2.subtract(pos1);
-        double distance = direction.magnitude();
+    public double getPlaybackRate() {
+        return playbackRate;
+    }
 
-        if (distance == 0) return new Point3D(0, 0, 0);
+    // 物理計算を専用スレッドで開始する（以降の操作はコマンドキュー経由になる）
+    public void startSimulationThread() {
+        if (simulationThread == null) {
+            simulationThread = new SimulationThread(simulation);
+            simulationThread.start();
+        }
+    }
+
+    public void stopSimulationThread() {
+        stopRecording();
+        if (simulationThread != null) {
+            simulationThread.stop();
+            simulationThread = null;
+        }
+    }
 
-        double forceMagnitude = G * body1.massProperty().get() * body2.massProperty().get() 
-                              / (distance * distance);
-        return direction.normalize().multiply(forceMagnitude);
+    public boolean isSimulationThreadRunning() {
+        return simulationThread != null;
     }
 
     // プロパティのゲッター
@@ -145,16 +383,23 @@ public class SolarSystemManager {
     public DoubleProperty timeScaleProperty() { return timeScale; }
     public BooleanProperty isPausedProperty() { return isPaused; }
     public StringProperty statusMessageProperty() { return statusMessage; }
+    public ReadOnlyDoubleProperty currentTimeProperty() { return currentTime; }
+    public ReadOnlyDoubleProperty timelineEndProperty() { return timelineEnd; }
+    public ReadOnlyDoubleProperty energyDriftProperty() { return energyDrift; }
+    public ReadOnlyDoubleProperty momentumDriftProperty() { return momentumDrift; }
+    public ReadOnlyDoubleProperty angularMomentumDriftProperty() { return angularMomentumDrift; }
+    public ReadOnlyBooleanProperty driftMonitoredProperty() { return driftMonitored; }
 
     // 天体の取得
     public CelestialBody getBody(String id) { return bodyMap.get(id); }
 
     // 時間スケールの設定
     public void setTimeScale(double newTimeScale) {
+        double max = simulation.isFullyAnalytic() ? MAX_ANALYTIC_TIME_SCALE : MAX_TIME_SCALE;
         if (newTimeScale < 0) {
             newTimeScale = 0;
-        } else if (newTimeScale > 100.0) {
-            newTimeScale = 100.0;
+        } else if (newTimeScale > max) {
+            newTimeScale = max;
         }
         
         if (Math.abs(timeScale.get() - newTimeScale) > 0.0001) {
@@ -166,39 +411,155 @@ public class SolarSystemManager {
     public void pause() {
         if (!isPaused.get()) {
             isPaused.set(true);
-            lastUpdateTime = 0;  // 一時停止時にlastUpdateTimeをリセット
         }
     }
 
     public void resume() {
         if (isPaused.get()) {
             isPaused.set(false);
-            lastUpdateTime = System.nanoTime();  // 再開時に現在時刻を設定
         }
     }
 
     // リセット
     public void reset() {
+        stopPlayback();
         isPaused.set(false);
         timeScale.set(1.0);
-        lastUpdateTime = 0;
-        currentTime = 0;
         
         // 天体の状態をリセット
         for (CelestialBody body : bodies) {
             body.reset();
         }
         
-        // 初期位置を再計算
-        calculateInitialPositions();
+        // 初期状態に戻す
+        submit(NBodySimulation::reset);
+        if (simulationThread == null) {
+            syncBodies(simulation.getState(), simulation::isMerged, true);
+        }
+        currentTime.set(0);
+        timelineEnd.set(0);
+    }
+
+    // 指定した時刻（年）へ移動する
+    // 過去へ戻る場合は直前のキーフレームから積分し直す
+    public void seek(double time) {
+        if (playbackSource != null) {
+            playbackTime = Math.max(playbackSource.getStartTime(), Math.min(playbackSource.getEndTime(), time));
+            showPlayback();
+            return;
+        }
+        submit(sim -> sim.seek(time));
+        if (simulationThread == null) {
+            syncBodies(simulation.getState(), simulation::isMerged, true);
+            currentTime.set(simulation.getCurrentTime());
+        }
     }
 
     public List<CelestialBody> getCelestialBodies() {
         return bodies;
     }
 
+    // 物理更新レート（1秒あたりのステップ数）
+    public double getPhysicsRate() {
+        return simulation.getPhysicsRate();
+    }
+
+    public void setPhysicsRate(double stepsPerSecond) {
+        submit(sim -> sim.setPhysicsRate(stepsPerSecond));
+    }
+
+    // 1フレームで実行する最大ステップ数
+    public int getMaxSubSteps() {
+        return simulation.getMaxSubSteps();
+    }
+
+    public void setMaxSubSteps(int maxSubSteps) {
+        submit(sim -> sim.setMaxSubSteps(maxSubSteps));
+    }
+
+    // 積分方式の切り替え
+    public IntegratorType getIntegratorType() {
+        return simulation.getIntegratorType();
+    }
+
+    public void setIntegratorType(IntegratorType type) {
+        submit(sim -> sim.setIntegratorType(type));
+    }
+
+    // 重力計算方式の切り替え
+    public ForceSolver getForceSolver() {
+        return simulation.getForceSolver();
+    }
+
+    public void setForceSolver(ForceSolver forceSolver) {
+        if (forceSolver == null) {
+            throw new IllegalArgumentException("forceSolverがnullです");
+        }
+        submit(sim -> sim.setForceSolver(forceSolver));
+    }
+
+    // 力の計算に使うスレッド数（1なら逐次計算）
+    public int getThreadCount() {
+        return simulation.getThreadCount();
+    }
+
+    public void setThreadCount(int threadCount) {
+        submit(sim -> sim.setThreadCount(threadCount));
+    }
+
+    // 天体数が多い場合向けにBarnes–Hut法へ切り替える
+    public void useBarnesHut(double openingAngle) {
+        submit(sim -> sim.useBarnesHut(openingAngle));
+    }
+
+    // 影響の小さい相互作用を間引く
+    public void usePrunedInteractions(double tolerance) {
+        submit(sim -> sim.usePrunedInteractions(tolerance));
+    }
+
+    // 直接計算に戻す
+    public void useDirectSummation() {
+        submit(NBodySimulation::useDirectSummation);
+    }
+
+    // 直接計算をSIMD版に切り替える（Vector APIが使えない環境では何もしない）
+    public void useVectorizedDirectSummation() {
+        submit(NBodySimulation::useVectorizedDirectSummation);
+    }
+
+    // 保存量の監視の設定（間隔はステップ数、0なら監視しない）
+    public void setConservationInterval(int steps) {
+        submit(sim -> sim.getConservationMonitor().setInterval(steps));
+    }
+
+    public void setDriftThreshold(double threshold, DriftAction action) {
+        if (!(threshold > 0) || action == null) {
+            throw new IllegalArgumentException("保存量の監視の設定が不正です");
+        }
+        submit(sim -> {
+            sim.getConservationMonitor().setThreshold(threshold);
+            sim.getConservationMonitor().setAction(action);
+        });
+    }
+
+    // 衝突時の動作（合体・跳ね返り・記録のみ・判定しない）
+    public void setCollisionResponse(CollisionResponse response) {
+        if (response == null) {
+            throw new IllegalArgumentException("responseがnullです");
+        }
+        submit(sim -> sim.setCollisionResponse(response));
+    }
+
+    // 物理計算本体を取得（専用スレッドの動作中は直接操作しないこと）
+    public NBodySimulation getSimulation() {
+        return simulation;
+    }
+
     // 現在の時間を取得（テスト用）
     public double getCurrentTime() {
-        return currentTime;
+        if (simulationThread != null) {
+            return simulationThread.latestSnapshot().getTime();
+        }
+        return simulation.getCurrentTime();
     }
-} 
\ No newline at end of file
+}
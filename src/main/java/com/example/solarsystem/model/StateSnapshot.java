@@ -0,0 +1,46 @@
+package com.example.solarsystem.model;
+
+// シミュレーションスレッドからFXスレッドへ渡す状態のコピー
+public class StateSnapshot {
+    private final BodyState state = new BodyState();
+    private double time;
+    private double timelineEnd;
+    private long version;
+    private boolean paused;
+    private double energyDrift;
+    private double momentumDrift;
+    private double angularMomentumDrift;
+    private boolean monitoring;  // 保存量のずれを監視しているか
+    private boolean[] merged = new boolean[0];  // 衝突で合体して消えた天体
+
+    void copyFrom(NBodySimulation simulation, long version) {
+        state.copyFrom(simulation.getState());
+        this.time = simulation.getCurrentTime();
+        this.timelineEnd = simulation.getTimelineEnd();
+        this.paused = simulation.isPaused();
+        ConservationMonitor conservation = simulation.getConservationMonitor();
+        this.energyDrift = conservation.getEnergyDrift();
+        this.momentumDrift = conservation.getMomentumDrift();
+        this.angularMomentumDrift = conservation.getAngularMomentumDrift();
+        this.monitoring = conservation.isMonitoring();
+        int n = state.count();
+        if (merged.length != n) {
+            merged = new boolean[n];
+        }
+        for (int i = 0; i < n; i++) {
+            merged[i] = simulation.isMerged(i);
+        }
+        this.version = version;
+    }
+
+    public BodyState getState() { return state; }
+    public double getTime() { return time; }
+    public double getTimelineEnd() { return timelineEnd; }
+    public long getVersion() { return version; }
+    public boolean isPaused() { return paused; }
+    public boolean isMerged(int i) { return i < merged.length && merged[i]; }
+    public double getEnergyDrift() { return energyDrift; }
+    public double getMomentumDrift() { return momentumDrift; }
+    public double getAngularMomentumDrift() { return angularMomentumDrift; }
+    public boolean isMonitoring() { return monitoring; }
+}
@@ -0,0 +1,242 @@
+package com.example.solarsystem.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// TrajectoryRecorderで記録したファイルを読み、任意の時刻の状態を補間して返す
+// ファイル全体ではなく一定の大きさのページ単位でマップし、使ったページだけを少数保持するため、
+// メモリより大きな記録でも再生できる。時刻の検索は前回の位置から始め、離れていれば二分探索する。
+// 隣り合う2レコードの位置と速度から3次エルミート補間するので、記録の間隔が粗くても軌道は滑らかになる
+public class TrajectoryReader implements PlaybackSource, Closeable {
+    private static final long DEFAULT_PAGE_BYTES = 8L * 1024 * 1024;  // 一度にマップする大きさ
+    private static final int MAX_PAGES = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final String[] ids;
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private final int recordSize;
+    private final int headerSize;
+    private final long recordCount;
+    private final long recordsPerPage;
+    private final double startTime;
+    private final double endTime;
+
+    // 最近使ったページ（古いものから外す。外したページのマップはGCで解放される）
+    private final Map<Long, MappedByteBuffer> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, MappedByteBuffer> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    private long lastIndex;  // 前回見つけたレコード（連続して再生する場合はその付近を探す）
+
+    // evaluate用の対応表
+    private BodyState mappedState;
+    private int mappedCount = -1;
+    private int[] stateToBody = new int[0];
+    private final double[] value = new double[6];
+    private final double[] next = new double[6];
+
+    private TrajectoryReader(Path path, FileChannel channel, long pageBytes) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        ByteBuffer fixed = read(0, TrajectoryRecorder.IDS_OFFSET);
+        if (fixed.getInt(0) != TrajectoryRecorder.MAGIC) {
+            throw new IOException("軌道の記録ファイルではありません: " + path);
+        }
+        int version = fixed.getInt(4);
+        if (version != TrajectoryRecorder.FORMAT_VERSION) {
+            throw new IOException("対応していない記録ファイルのバージョンです: " + version);
+        }
+        int bodyCount = fixed.getInt(8);
+        this.recordSize = fixed.getInt(12);
+        this.headerSize = fixed.getInt(16);
+        if (bodyCount < 0 || recordSize != Double.BYTES * (1 + 6 * bodyCount) || headerSize < TrajectoryRecorder.IDS_OFFSET) {
+            throw new IOException("記録ファイルのヘッダが壊れています: " + path);
+        }
+        // 記録中に閉じられなかったファイルでも、書き終えたレコードまでは読めるようにする
+        long available = (channel.size() - headerSize) / recordSize;
+        this.recordCount = Math.max(0, Math.min(fixed.getLong(TrajectoryRecorder.RECORD_COUNT_OFFSET), available));
+        this.recordsPerPage = Math.max(1, pageBytes / recordSize);
+
+        ByteBuffer names = read(TrajectoryRecorder.IDS_OFFSET, headerSize - TrajectoryRecorder.IDS_OFFSET);
+        this.ids = new String[bodyCount];
+        int offset = 0;
+        for (int b = 0; b < bodyCount; b++) {
+            int length = names.getShort(offset);
+            byte[] bytes = new byte[length];
+            names.get(offset + Short.BYTES, bytes);
+            ids[b] = new String(bytes, StandardCharsets.UTF_8);
+            indexById.put(ids[b], b);
+            offset += Short.BYTES + length;
+        }
+        this.startTime = recordCount > 0 ? timeAt(0) : 0;
+        this.endTime = recordCount > 0 ? timeAt(recordCount - 1) : 0;
+    }
+
+    public static TrajectoryReader open(Path path) throws IOException {
+        return open(path, DEFAULT_PAGE_BYTES);
+    }
+
+    static TrajectoryReader open(Path path, long pageBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new TrajectoryReader(path, channel, pageBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("記録ファイルが途中で終わっています: " + path);
+            }
+        }
+        return buffer;
+    }
+
+    private MappedByteBuffer page(long index) {
+        MappedByteBuffer page = pages.get(index);
+        if (page == null) {
+            long first = index * recordsPerPage;
+            long records = Math.min(recordsPerPage, recordCount - first);
+            try {
+                page = channel.map(FileChannel.MapMode.READ_ONLY, headerSize + first * recordSize, records * recordSize);
+            } catch (IOException e) {
+                throw new IllegalStateException("記録ファイルを読めませんでした: " + path, e);
+            }
+            page.order(ByteOrder.LITTLE_ENDIAN);
+            pages.put(index, page);
+        }
+        return page;
+    }
+
+    public double timeAt(long record) {
+        return page(record / recordsPerPage).getDouble((int) ((record % recordsPerPage) * recordSize));
+    }
+
+    // 天体bのレコードkでの位置と速度をout[6]に書き込む
+    public void readRecord(long record, int body, double[] out) {
+        MappedByteBuffer page = page(record / recordsPerPage);
+        int offset = (int) ((record % recordsPerPage) * recordSize) + Double.BYTES + body * 48;
+        for (int c = 0; c < 6; c++) {
+            out[c] = page.getDouble(offset + c * Double.BYTES);
+        }
+    }
+
+    // time以下で最も新しいレコード（範囲外なら端）
+    public long findRecord(double time) {
+        if (recordCount <= 1 || time <= startTime) {
+            return 0;
+        }
+        if (time >= endTime) {
+            return recordCount - 1;
+        }
+        // 前後に1つずれた程度なら二分探索しない
+        for (long k = Math.max(0, lastIndex - 1); k <= Math.min(recordCount - 2, lastIndex + 1); k++) {
+            if (timeAt(k) <= time && time < timeAt(k + 1)) {
+                lastIndex = k;
+                return k;
+            }
+        }
+        long lo = 0, hi = recordCount - 1;
+        while (hi - lo > 1) {
+            long mid = (lo + hi) >>> 1;
+            if (timeAt(mid) <= time) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        lastIndex = lo;
+        return lo;
+    }
+
+    // 天体bの時刻timeでの位置と速度をout[6]に書き込む（前後のレコードから3次エルミート補間）
+    public void evaluate(int body, double time, double[] out, double[] scratch) {
+        long k = findRecord(time);
+        readRecord(k, body, out);
+        if (k + 1 >= recordCount) {
+            return;
+        }
+        double t0 = timeAt(k);
+        double h = timeAt(k + 1) - t0;
+        if (!(h > 0) || time <= t0) {
+            return;
+        }
+        readRecord(k + 1, body, scratch);
+        hermite(t0, out, 0, t0 + h, scratch, 0, time, out);
+    }
+
+    // 時刻t0での値a（位置3つ・速度3つ）とt1での値bから、時刻timeの値を3次エルミート補間してoutに書き込む
+    // outはaと同じ配列でもよい
+    static void hermite(double t0, double[] a, int aOffset, double t1, double[] b, int bOffset,
+                        double time, double[] out) {
+        double h = t1 - t0;
+        double s = Math.max(0, Math.min(1, (time - t0) / h));
+        double s2 = s * s, s3 = s2 * s;
+        double h00 = 2 * s3 - 3 * s2 + 1, h10 = s3 - 2 * s2 + s, h01 = -2 * s3 + 3 * s2, h11 = s3 - s2;
+        double d00 = 6 * s2 - 6 * s, d10 = 3 * s2 - 4 * s + 1, d01 = -d00, d11 = 3 * s2 - 2 * s;
+        for (int c = 0; c < 3; c++) {
+            double p0 = a[aOffset + c], v0 = a[aOffset + c + 3], p1 = b[bOffset + c], v1 = b[bOffset + c + 3];
+            out[c] = h00 * p0 + h10 * h * v0 + h01 * p1 + h11 * h * v1;
+            out[c + 3] = (d00 * p0 + d10 * h * v0 + d01 * p1 + d11 * h * v1) / h;
+        }
+    }
+
+    @Override
+    public void evaluate(BodyState state, double time) {
+        if (state != mappedState || state.count() != mappedCount) {
+            mappedState = state;
+            mappedCount = state.count();
+            stateToBody = new int[mappedCount];
+            for (int i = 0; i < mappedCount; i++) {
+                stateToBody[i] = indexById.getOrDefault(state.getId(i), -1);
+            }
+        }
+        if (recordCount == 0) {
+            return;
+        }
+        for (int i = 0; i < mappedCount; i++) {
+            int b = stateToBody[i];
+            if (b < 0) continue;
+            evaluate(b, time, value, next);
+            state.setPosition(i, value[0], value[1], value[2]);
+            state.setVelocity(i, value[3], value[4], value[5]);
+        }
+        state.time = time;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pages.clear();
+        channel.close();
+    }
+
+    @Override
+    public double getStartTime() { return startTime; }
+
+    @Override
+    public double getEndTime() { return endTime; }
+
+    public Path getPath() { return path; }
+    public long getRecordCount() { return recordCount; }
+    public int getBodyCount() { return ids.length; }
+    public String getId(int body) { return ids[body]; }
+    public int indexOf(String id) { return indexById.getOrDefault(id, -1); }
+}
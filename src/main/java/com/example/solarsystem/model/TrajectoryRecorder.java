@@ -0,0 +1,270 @@
+package com.example.solarsystem.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// 全天体の位置・速度を固定長のレコードとしてメモリマップトファイルへ追記する
+// ファイルの形式（リトルエンディアン）:
+//   ヘッダ: magic, version, 天体数, レコード長, ヘッダ長, 予約, レコード数(long), 最初の時刻, 最後の時刻,
+//           天体id（長さ(short)+UTF-8）の並び、8バイト境界まで詰め物
+//   レコード: 時刻, 天体ごとに x, y, z, vx, vy, vz（すべてdouble）
+// レコードは時刻の昇順に並ぶため、時刻での検索は二分探索で行える（時刻の索引はレコード自体が兼ねる）。
+// 書き込みはプリミティブ配列からマップ済みの領域へ直接行い、次の領域のマップは別スレッドで先に済ませておく
+public class TrajectoryRecorder implements Closeable {
+    public static final int MAGIC = 0x314A5254;  // "TRJ1"
+    public static final int FORMAT_VERSION = 1;
+    public static final int RECORD_COUNT_OFFSET = 24;
+    public static final int FIRST_TIME_OFFSET = 32;
+    public static final int LAST_TIME_OFFSET = 40;
+    public static final int IDS_OFFSET = 48;
+    private static final long DEFAULT_REGION_BYTES = 16L * 1024 * 1024;  // 一度にマップする大きさ
+
+    private static final Logger LOGGER = Logger.getLogger(TrajectoryRecorder.class.getName());
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int bodyCount;
+    private final int recordSize;
+    private final int headerSize;
+    private final long recordsPerRegion;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private final ExecutorService mapper;
+    private Future<MappedByteBuffer> pendingRegion;  // 先にマップしている次の領域
+
+    private long recordCount;
+    private long droppedCount;
+    private double firstTime = Double.NaN;
+    private double lastTime = Double.NaN;
+    private boolean closed;
+
+    private TrajectoryRecorder(Path path, FileChannel channel, String[] ids, long regionBytes) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.bodyCount = ids.length;
+        this.recordSize = Double.BYTES * (1 + 6 * bodyCount);
+        this.recordsPerRegion = Math.max(1, regionBytes / recordSize);
+
+        byte[][] encoded = new byte[ids.length][];
+        int idsLength = 0;
+        for (int b = 0; b < ids.length; b++) {
+            encoded[b] = (ids[b] != null ? ids[b] : "").getBytes(StandardCharsets.UTF_8);
+            idsLength += Short.BYTES + encoded[b].length;
+        }
+        this.headerSize = (IDS_OFFSET + idsLength + 7) & ~7;
+
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.putInt(4, FORMAT_VERSION);
+        header.putInt(8, bodyCount);
+        header.putInt(12, recordSize);
+        header.putInt(16, headerSize);
+        header.putInt(20, 0);
+        header.putLong(RECORD_COUNT_OFFSET, 0);
+        header.putDouble(FIRST_TIME_OFFSET, Double.NaN);
+        header.putDouble(LAST_TIME_OFFSET, Double.NaN);
+        int offset = IDS_OFFSET;
+        for (byte[] id : encoded) {
+            header.putShort(offset, (short) id.length);
+            header.put(offset + Short.BYTES, id);
+            offset += Short.BYTES + id.length;
+        }
+
+        this.mapper = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "trajectory-mapper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        regions.add(mapRegion(0));
+        prefetch();
+    }
+
+    // 既存のファイルは上書きする
+    public static TrajectoryRecorder create(Path path, BodyState layout) throws IOException {
+        return create(path, layout, DEFAULT_REGION_BYTES);
+    }
+
+    static TrajectoryRecorder create(Path path, BodyState layout, long regionBytes) throws IOException {
+        String[] ids = new String[layout.count()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = layout.getId(i);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            return new TrajectoryRecorder(path, channel, ids, regionBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedByteBuffer mapRegion(int index) throws IOException {
+        long position = headerSize + index * recordsPerRegion * recordSize;
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, position, recordsPerRegion * recordSize);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+        return region;
+    }
+
+    private void prefetch() {
+        int index = regions.size();
+        pendingRegion = mapper.submit(() -> mapRegion(index));
+    }
+
+    // 時刻timeの状態を1レコード追記する。次の領域のマップが間に合わなかった場合は書かずにfalseを返す
+    // 以前の時刻へ戻った場合（巻き戻し・リセット）は、その時刻以降のレコードを捨ててから追記する
+    public boolean record(BodyState state, double time) {
+        try {
+            return write(state, time, false);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // 待たない場合は投げない
+        }
+    }
+
+    // 次の領域のマップが済むまで待ってから追記する（レコードを落とせないヘッドレス実行用）
+    // マップに失敗した場合はIOExceptionを投げる
+    public void recordWaiting(BodyState state, double time) throws IOException {
+        write(state, time, true);
+    }
+
+    private boolean write(BodyState state, double time, boolean wait) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("記録は終了しています: " + path);
+        }
+        if (state.count() != bodyCount) {
+            throw new IllegalArgumentException("天体数が記録開始時と異なります: " + state.count() + " != " + bodyCount);
+        }
+        if (recordCount > 0 && !(time > lastTime)) {
+            truncate(time);
+        }
+        int regionIndex = (int) (recordCount / recordsPerRegion);
+        if (regionIndex >= regions.size() && !takePendingRegion(wait)) {
+            droppedCount++;
+            return false;
+        }
+        MappedByteBuffer region = regions.get(regionIndex);
+        int offset = (int) ((recordCount % recordsPerRegion) * recordSize);
+        region.putDouble(offset, time);
+        offset += Double.BYTES;
+        double[] x = state.x, y = state.y, z = state.z;
+        double[] vx = state.vx, vy = state.vy, vz = state.vz;
+        for (int i = 0; i < bodyCount; i++) {
+            region.putDouble(offset, x[i]);
+            region.putDouble(offset + 8, y[i]);
+            region.putDouble(offset + 16, z[i]);
+            region.putDouble(offset + 24, vx[i]);
+            region.putDouble(offset + 32, vy[i]);
+            region.putDouble(offset + 40, vz[i]);
+            offset += 48;
+        }
+        if (recordCount == 0) {
+            firstTime = time;
+            header.putDouble(FIRST_TIME_OFFSET, time);
+        }
+        lastTime = time;
+        recordCount++;
+        // レコードを書き終えてから件数を更新する（読み手は件数までを有効とみなす）
+        header.putDouble(LAST_TIME_OFFSET, time);
+        header.putLong(RECORD_COUNT_OFFSET, recordCount);
+        return true;
+    }
+
+    // 先にマップしておいた領域を受け取る（waitがfalseでまだなら待たずにfalse）
+    private boolean takePendingRegion(boolean wait) throws IOException {
+        if (wait) {
+            try {
+                regions.add(pendingRegion.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("記録先の領域の準備を待つ間に中断されました: " + path, e);
+            } catch (ExecutionException e) {
+                throw new IOException("記録先の領域をマップできませんでした: " + path, e.getCause());
+            }
+            prefetch();
+            return true;
+        }
+        if (!pendingRegion.isDone()) {
+            if (droppedCount == 0) {
+                LOGGER.warning("記録先の領域の準備が間に合わないため、レコードを間引きます: " + path);
+            }
+            return false;
+        }
+        try {
+            regions.add(pendingRegion.get());
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "記録先の領域をマップできませんでした: " + path, e);
+            prefetch();
+            return false;
+        }
+        prefetch();
+        return true;
+    }
+
+    // time以降のレコードを捨てる
+    private void truncate(double time) {
+        long lo = 0, hi = recordCount;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (timeAt(mid) < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        recordCount = lo;
+        lastTime = recordCount > 0 ? timeAt(recordCount - 1) : Double.NaN;
+        header.putLong(RECORD_COUNT_OFFSET, recordCount);
+        header.putDouble(LAST_TIME_OFFSET, lastTime);
+    }
+
+    private double timeAt(long record) {
+        MappedByteBuffer region = regions.get((int) (record / recordsPerRegion));
+        return region.getDouble((int) ((record % recordsPerRegion) * recordSize));
+    }
+
+    // 使った分だけを残してファイルを閉じる
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        mapper.shutdownNow();
+        header.force();
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+        try {
+            channel.truncate(headerSize + recordCount * recordSize);
+        } catch (IOException e) {
+            // マップ中の切り詰めができない環境ではそのまま残す（読み手はヘッダの件数を使う）
+            LOGGER.fine("記録ファイルを切り詰められませんでした: " + e.getMessage());
+        } finally {
+            channel.close();
+        }
+    }
+
+    public Path getPath() { return path; }
+    public int getBodyCount() { return bodyCount; }
+    public int getRecordSize() { return recordSize; }
+    public int getHeaderSize() { return headerSize; }
+    public long getRecordCount() { return recordCount; }
+    public long getDroppedCount() { return droppedCount; }
+    public double getFirstTime() { return firstTime; }
+    public double getLastTime() { return lastTime; }
+}
@@ -0,0 +1,54 @@
+package com.example.solarsystem.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// 書き込み側と読み込み側がロックなしで最新の状態を受け渡すためのトリプルバッファ
+// 書き込み側はwriteBufferに書いてpublishし、読み込み側はacquireで最新のバッファを受け取る。
+// 3つのバッファを交換するだけなので、どちらの側も相手を待つことはない
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0x3;
+    private static final int DIRTY = 0x4;
+
+    private final Object[] buffers;
+    private final AtomicInteger shared;  // 受け渡し中のバッファ番号と更新フラグ
+    private int writeIndex;
+    private int readIndex;
+
+    public TripleBuffer(Supplier<T> factory) {
+        this.buffers = new Object[] {factory.get(), factory.get(), factory.get()};
+        this.writeIndex = 0;
+        this.readIndex = 1;
+        this.shared = new AtomicInteger(2);
+    }
+
+    // 書き込み側：次に書き込むバッファ
+    @SuppressWarnings("unchecked")
+    public T writeBuffer() {
+        return (T) buffers[writeIndex];
+    }
+
+    // 書き込み側：書き込んだバッファを公開し、別のバッファを書き込み用に受け取る
+    public void publish() {
+        int previous = shared.getAndSet(writeIndex | DIRTY);
+        writeIndex = previous & INDEX_MASK;
+    }
+
+    // 読み込み側：新しいバッファが公開されていれば交換し、最新のバッファを返す
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        int current = shared.get();
+        while ((current & DIRTY) != 0) {
+            if (shared.compareAndSet(current, readIndex)) {
+                readIndex = current & INDEX_MASK;
+                break;
+            }
+            current = shared.get();
+        }
+        return (T) buffers[readIndex];
+    }
+
+    public boolean hasUpdate() {
+        return (shared.get() & DIRTY) != 0;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.solarsystem.model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API（SIMD）による直接計算（O(N²)）
+// 相手側の天体jをレーン数（AVX2で4、AVX-512で8）ずつまとめて処理する。
+// 実行には --add-modules jdk.incubator.vector が必要（NBodySimulation側で有無を確認する）
+public class VectorForceSolver implements ForceSolver {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final double g;
+    private double[] sourceMass = new double[0];  // 計算対象外の天体は0にした質量
+    private double[] nearestSq = new double[0];   // 最も近い重力源までの距離の2乗（天体ごと）
+
+    public VectorForceSolver(double g) {
+        this.g = g;
+    }
+
+    // 1回の処理でまとめる天体数
+    public static int laneCount() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void prepare(BodyState state) {
+        int n = state.count();
+        if (sourceMass.length < n) {
+            sourceMass = new double[n];
+            nearestSq = new double[n];
+        }
+        for (int j = 0; j < n; j++) {
+            sourceMass[j] = state.active[j] ? state.mass[j] : 0;
+        }
+    }
+
+    @Override
+    public void computeRange(BodyState state, int from, int to) {
+        int n = state.count();
+        double[] x = state.x, y = state.y, z = state.z;
+        double[] m = sourceMass;
+        int upper = SPECIES.loopBound(n);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector infinity = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+
+        for (int i = from; i < to; i++) {
+            if (!state.active[i]) {
+                state.ax[i] = 0;
+                state.ay[i] = 0;
+                state.az[i] = 0;
+                nearestSq[i] = Double.POSITIVE_INFINITY;
+                continue;
+            }
+            double xi = x[i], yi = y[i], zi = z[i];
+            DoubleVector vxi = DoubleVector.broadcast(SPECIES, xi);
+            DoubleVector vyi = DoubleVector.broadcast(SPECIES, yi);
+            DoubleVector vzi = DoubleVector.broadcast(SPECIES, zi);
+            DoubleVector sumX = DoubleVector.zero(SPECIES);
+            DoubleVector sumY = DoubleVector.zero(SPECIES);
+            DoubleVector sumZ = DoubleVector.zero(SPECIES);
+            DoubleVector minSq = infinity;
+
+            int j = 0;
+            for (; j < upper; j += SPECIES.length()) {
+                DoubleVector dx = DoubleVector.fromArray(SPECIES, x, j).sub(vxi);
+                DoubleVector dy = DoubleVector.fromArray(SPECIES, y, j).sub(vyi);
+                DoubleVector dz = DoubleVector.fromArray(SPECIES, z, j).sub(vzi);
+                DoubleVector distSq = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+                // 自分自身や同一座標の天体（距離0）は除外する
+                VectorMask<Double> valid = distSq.compare(VectorOperators.GT, 0.0);
+                DoubleVector invDist = one.div(distSq.lanewise(VectorOperators.SQRT)).blend(0.0, valid.not());
+                DoubleVector mj = DoubleVector.fromArray(SPECIES, m, j);
+                DoubleVector s = mj.mul(invDist.mul(invDist).mul(invDist));
+                VectorMask<Double> source = valid.and(mj.compare(VectorOperators.GT, 0.0));
+                minSq = minSq.min(distSq.blend(infinity, source.not()));
+                sumX = dx.fma(s, sumX);
+                sumY = dy.fma(s, sumY);
+                sumZ = dz.fma(s, sumZ);
+            }
+
+            double ax = sumX.reduceLanes(VectorOperators.ADD);
+            double ay = sumY.reduceLanes(VectorOperators.ADD);
+            double az = sumZ.reduceLanes(VectorOperators.ADD);
+            double best = minSq.reduceLanes(VectorOperators.MIN);
+            // 端数はスカラーで処理する
+            for (; j < n; j++) {
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double dz = z[j] - zi;
+                double distSq = dx * dx + dy * dy + dz * dz;
+                if (distSq == 0) continue;
+                if (distSq < best && m[j] > 0) best = distSq;
+                double invDist = 1.0 / Math.sqrt(distSq);
+                double s = m[j] * invDist * invDist * invDist;
+                ax += dx * s;
+                ay += dy * s;
+                az += dz * s;
+            }
+            state.ax[i] = g * ax;
+            state.ay[i] = g * ay;
+            state.az[i] = g * az;
+            nearestSq[i] = best;
+        }
+    }
+
+    @Override
+    public double nearestDistance(int i) {
+        return i < nearestSq.length ? Math.sqrt(nearestSq[i]) : Double.NaN;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.solarsystem.model;
+
+// 速度ベルレ法（キック・ドリフト・キック形式、2次精度のシンプレクティック積分）
+// ステップ終了時の加速度を次のステップの最初のキックに再利用する
+public class VelocityVerletIntegrator implements Integrator {
+    @Override
+    public void step(BodyState state, ForceSolver solver, double dt) {
+        if (!state.hasValidAccelerations()) {
+            Integrator.computeForces(state, solver);
+        }
+        Integrator.kick(state, dt * 0.5);
+        Integrator.drift(state, dt);
+        Integrator.computeForces(state, solver);
+        Integrator.kick(state, dt * 0.5);
+    }
+
+    @Override
+    public int forceEvaluationsPerStep() {
+        return 1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.solarsystem.model;
+
+// 吉田の4次シンプレクティック積分（リープフロッグ3段の合成）
+// 1ステップで3回力を評価するが、同じエネルギー誤差なら2次法より大きな刻み幅を取れる
+public class YoshidaIntegrator implements Integrator {
+    private static final double CBRT2 = Math.cbrt(2.0);
+    private static final double W1 = 1.0 / (2.0 - CBRT2);
+    private static final double W0 = -CBRT2 / (2.0 - CBRT2);
+    private static final double[] DRIFT = {W1 / 2, (W0 + W1) / 2, (W0 + W1) / 2, W1 / 2};
+    private static final double[] KICK = {W1, W0, W1};
+
+    @Override
+    public void step(BodyState state, ForceSolver solver, double dt) {
+        for (int k = 0; k < KICK.length; k++) {
+            Integrator.drift(state, DRIFT[k] * dt);
+            Integrator.computeForces(state, solver);
+            Integrator.kick(state, KICK[k] * dt);
+        }
+        Integrator.drift(state, DRIFT[3] * dt);
+        state.invalidateAccelerations();
+    }
+
+    @Override
+    public int forceEvaluationsPerStep() {
+        return 3;
+    }
+}
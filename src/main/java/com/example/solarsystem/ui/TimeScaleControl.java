@@ -8,9 +8,11 @@ import javafx.scene.layout.VBox;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.beans.property.StringProperty;
 import javafx.util.converter.NumberStringConverter;
 import java.text.DecimalFormat;
+import java.util.function.DoubleConsumer;
 
 public class TimeScaleControl extends VBox {
     private static final double[] PRESET_SCALES = {0.1, 1.0, 10.0, 100.0};
@@ -22,11 +24,25 @@ public class TimeScaleControl extends VBox {
     private final ToggleButton pauseButton;
     private final Label statusLabel;
     private final HBox presetButtons;
+    private Slider timelineSlider;
+    private Label timelineLabel;
+    private boolean updatingTimeline;  // モデル側からスライダーを動かしている間はシークしない
 
     public TimeScaleControl(
             DoubleProperty timeScale,
             BooleanProperty isPaused,
             StringProperty statusMessage) {
+        this(timeScale, isPaused, statusMessage, null, null, null);
+    }
+
+    // タイムラインのスクラバー付き（currentTime・timelineEnd・seekのいずれかがnullなら表示しない）
+    public TimeScaleControl(
+            DoubleProperty timeScale,
+            BooleanProperty isPaused,
+            StringProperty statusMessage,
+            ReadOnlyDoubleProperty currentTime,
+            ReadOnlyDoubleProperty timelineEnd,
+            DoubleConsumer seek) {
 
         setSpacing(10);
         setPadding(new Insets(10));
@@ -99,6 +115,10 @@ public class TimeScaleControl extends VBox {
             statusLabel
         );
 
+        if (currentTime != null && timelineEnd != null && seek != null) {
+            getChildren().add(1, createTimeline(currentTime, timelineEnd, seek));
+        }
+
         // スタイルの設定
         setStyle("-fx-background-color: rgba(255, 255, 255, 0.9);" +
                  "-fx-background-radius: 5;" +
@@ -106,6 +126,49 @@ public class TimeScaleControl extends VBox {
                  "-fx-border-radius: 5;");
     }
 
+    // 経過時間のスクラバー（ドラッグ中は動かさず、離した時点で移動する）
+    private HBox createTimeline(ReadOnlyDoubleProperty currentTime, ReadOnlyDoubleProperty timelineEnd,
+                                DoubleConsumer seek) {
+        timelineSlider = new Slider(0, 1, 0);
+        timelineSlider.setPrefWidth(300);
+        timelineLabel = new Label();
+        DecimalFormat format = new DecimalFormat("#0.00");
+
+        timelineEnd.addListener((obs, oldVal, newVal) ->
+            setTimelineValue(timelineSlider.getValue(), Math.max(newVal.doubleValue(), 1e-9)));
+        currentTime.addListener((obs, oldVal, newVal) -> {
+            if (!timelineSlider.isValueChanging()) {
+                setTimelineValue(newVal.doubleValue(), Math.max(timelineSlider.getMax(), newVal.doubleValue()));
+            }
+            timelineLabel.setText("経過時間: " + format.format(newVal.doubleValue()) + " 年");
+        });
+        timelineSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (!updatingTimeline && !timelineSlider.isValueChanging()) {
+                seek.accept(newVal.doubleValue());
+            }
+        });
+        timelineSlider.valueChangingProperty().addListener((obs, wasChanging, changing) -> {
+            if (!changing) {
+                seek.accept(timelineSlider.getValue());
+            }
+        });
+        timelineLabel.setText("経過時間: " + format.format(currentTime.get()) + " 年");
+
+        HBox timelineBox = new HBox(10, new Label("タイムライン:"), timelineSlider, timelineLabel);
+        timelineBox.setAlignment(Pos.CENTER);
+        return timelineBox;
+    }
+
+    private void setTimelineValue(double value, double max) {
+        updatingTimeline = true;
+        try {
+            timelineSlider.setMax(max);
+            timelineSlider.setValue(Math.min(value, max));
+        } finally {
+            updatingTimeline = false;
+        }
+    }
+
     // スライダーの値を対数スケールに変換
     private double toLogScale(double value) {
         return Math.log10(value);
@@ -47,8 +47,8 @@ public class Camera {
         }
         
         focusedBody = body;
-        targetX = -body.getX();
-        targetY = -body.getY();
+        targetX = -body.getDisplayX();
+        targetY = -body.getDisplayY();
         targetScale = FOCUS_SCALE;
         focusProgress = 0.0;
     }
@@ -17,6 +17,13 @@ public abstract class CelestialBody {
     protected double eccentricity = 0.0;  // 軌道離心率
     protected double inclination = 0.0;   // 軌道傾斜角（ラジアン）
     protected boolean visible = true;
+    private int orbitVersion;  // 軌道の形や位置が変わるたびに増える（描画側のキャッシュの判定用）
+
+    // 描画用のコピー（シミュレーションスレッドのスナップショットからFXスレッドで設定する）
+    protected double displayX;
+    protected double displayY;
+    protected double displayAngle;
+    protected boolean displayVisible = true;
 
     public CelestialBody(String name, double distance, double angle, double radius) {
         this.name = name;
@@ -28,6 +35,7 @@ public abstract class CelestialBody {
         this.centerX = 0;
         this.centerY = 0;
         updatePosition();
+        syncDisplay();
     }
 
     public void update() {
@@ -36,19 +44,8 @@ public abstract class CelestialBody {
     }
 
     public void updatePosition() {
-        // 軌道上の位置を計算
-        double r = distance * (1 - eccentricity * eccentricity) /
-                  (1 + eccentricity * Math.cos(angle));
-        
-        // 軌道傾斜を考慮した位置計算
-        double baseX = r * Math.cos(angle);
-        double baseY = r * Math.sin(angle);
-        double rotatedX = baseX * Math.cos(inclination);
-        double rotatedY = baseY;
-
-        // 中心位置を加算
-        x = centerX + rotatedX;
-        y = centerY + rotatedY;
+        x = orbitX(angle);
+        y = orbitY(angle);
 
         // 角度を更新（速度に基づいて）
         angle += speed;
@@ -57,13 +54,77 @@ public abstract class CelestialBody {
         }
     }
 
+    // 角度angleでの軌道上の位置（軌道傾斜を考慮し、中心位置を加算する）
+    protected double orbitX(double angle) {
+        return centerX + orbitRadius(angle) * Math.cos(angle) * Math.cos(inclination);
+    }
+
+    protected double orbitY(double angle) {
+        return centerY + orbitRadius(angle) * Math.sin(angle);
+    }
+
+    private double orbitRadius(double angle) {
+        return distance * (1 - eccentricity * eccentricity) /
+               (1 + eccentricity * Math.cos(angle));
+    }
+
+    // 記録の再生用：角度angleの位置を描画用の座標にだけ設定する（シミュレーション側の値は変えない）
+    public void showAt(double angle) {
+        applySnapshot(orbitX(angle), orbitY(angle), angle, displayVisible);
+    }
+
     public void draw(GraphicsContext gc) {
-        if (!visible) return;
+        if (!displayVisible) return;
+        drawDisc(gc);
+    }
+
+    // 画面上の大きさに応じて描く（小さければ点や単色の円だけにする）
+    public void draw(GraphicsContext gc, LevelOfDetail lod, SpriteCache sprites) {
+        if (!displayVisible) return;
+        switch (lod.detailFor(radius)) {
+            case POINT:
+                drawPoint(gc, lod.getPixelSize());
+                break;
+            case DISC:
+                drawDisc(gc);
+                break;
+            default:
+                drawDetailed(gc, lod, sprites);
+        }
+    }
+
+    // 装飾を含めて描く（装飾のあるサブクラスは、あらかじめ画像にした見た目を使う）
+    protected void drawDetailed(GraphicsContext gc, LevelOfDetail lod, SpriteCache sprites) {
+        draw(gc);
+    }
+
+    protected void drawDisc(GraphicsContext gc) {
+        gc.setFill(color);
+        gc.fillOval(displayX - radius, displayY - radius, radius * 2, radius * 2);
+    }
+
+    protected void drawPoint(GraphicsContext gc, double size) {
         gc.setFill(color);
-        gc.fillOval(x - radius, y - radius, radius * 2, radius * 2);
+        gc.fillRect(displayX - size / 2, displayY - size / 2, size, size);
+    }
+
+    // スナップショットの値を描画用の座標に反映する
+    public void applySnapshot(double x, double y, double angle, boolean visible) {
+        this.displayX = x;
+        this.displayY = y;
+        this.displayAngle = angle;
+        this.displayVisible = visible;
+    }
+
+    // シミュレーション側の値をそのまま描画用にコピーする（同一スレッドで更新する場合）
+    public void syncDisplay() {
+        applySnapshot(x, y, angle, visible);
     }
 
     public void setCenter(double centerX, double centerY) {
+        if (centerX != this.centerX || centerY != this.centerY) {
+            orbitVersion++;
+        }
         this.centerX = centerX;
         this.centerY = centerY;
         updatePosition();
@@ -81,6 +142,22 @@ public abstract class CelestialBody {
         return y;
     }
 
+    public double getDisplayX() {
+        return displayX;
+    }
+
+    public double getDisplayY() {
+        return displayY;
+    }
+
+    public double getDisplayAngle() {
+        return displayAngle;
+    }
+
+    public boolean isDisplayVisible() {
+        return displayVisible;
+    }
+
     public double getRadius() {
         return radius;
     }
@@ -126,13 +203,23 @@ public abstract class CelestialBody {
     }
 
     public void setEccentricity(double eccentricity) {
+        if (eccentricity != this.eccentricity) {
+            orbitVersion++;
+        }
         this.eccentricity = eccentricity;
     }
 
     public void setInclination(double inclination) {
+        if (inclination != this.inclination) {
+            orbitVersion++;
+        }
         this.inclination = inclination;
     }
 
+    public int getOrbitVersion() {
+        return orbitVersion;
+    }
+
     public boolean isVisible() { return visible; }
     public void setVisible(boolean v) { this.visible = v; }
     public void toggleVisible() { this.visible = !this.visible; }
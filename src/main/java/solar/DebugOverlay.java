@@ -70,7 +70,7 @@ public class DebugOverlay {
         CelestialBody focused = solarSystem.getFocusedBody();
         if (focused != null) {
             gc.fillText(String.format("Focus: %s (%.1f, %.1f)", 
-                focused.getName(), focused.getX(), focused.getY()), 20, 50);
+                focused.getName(), focused.getDisplayX(), focused.getDisplayY()), 20, 50);
         }
 
         // 天体の表示状態
@@ -78,7 +78,7 @@ public class DebugOverlay {
         int y = 100;
         for (CelestialBody body : solarSystem.getBodies()) {
             gc.fillText(String.format("%s: %s", 
-                body.getName(), body.isVisible() ? "表示" : "非表示"), 30, y);
+                body.getName(), body.isDisplayVisible() ? "表示" : "非表示"), 30, y);
             y += 20;
         }
 
@@ -100,6 +100,7 @@ public class DebugOverlay {
             gc.fillText("C: 中心線表示切替", 30, y + 260);
             gc.fillText("B: 距離ガイド表示切替", 30, y + 280);
             gc.fillText("0-9: 個別天体の表示切替", 30, y + 300);
+            gc.fillText("[ ]: 再生速度  BackSpace: 逆再生", 30, y + 320);
         }
 
         gc.restore();
@@ -0,0 +1,62 @@
+package solar;
+
+// 画面上の大きさに応じた描画の詳細度
+// カメラの倍率から天体や軌道が画面で何ピクセルになるかを求め、
+// 軌道の分割数、点としてだけ描くか、大気やクレーターなどの装飾を描くかを決める
+public class LevelOfDetail {
+    // 天体の描き方
+    public enum Detail {
+        POINT,  // 1ピクセルの点
+        DISC,   // 単色の円のみ
+        FULL    // 装飾を含めてすべて
+    }
+
+    private static final double POINT_RADIUS_PIXELS = 0.5;       // これより小さい天体は点にする
+    private static final double DECORATION_RADIUS_PIXELS = 4.0;  // これより小さい天体は装飾を省く
+    private static final double PIXELS_PER_SEGMENT = 4.0;        // 軌道の折れ線1本あたりの画面上の長さ
+    private static final int MIN_ORBIT_SEGMENTS = 16;
+    private static final int MAX_ORBIT_SEGMENTS = 629;           // 0.01ラジアン刻みと同じ
+    private static final double MIN_ORBIT_RADIUS_PIXELS = 0.5;   // これより小さい軌道は描かない
+
+    private double scale = 1.0;
+
+    // カメラの倍率（ワールド座標1あたりのピクセル数）
+    public void setScale(double scale) {
+        if (!(scale > 0)) {
+            throw new IllegalArgumentException("倍率は正の値である必要があります: " + scale);
+        }
+        this.scale = scale;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    // 1ピクセルに相当するワールド座標での長さ
+    public double getPixelSize() {
+        return 1 / scale;
+    }
+
+    public Detail detailFor(double radius) {
+        double pixels = radius * scale;
+        if (pixels < POINT_RADIUS_PIXELS) {
+            return Detail.POINT;
+        }
+        return pixels < DECORATION_RADIUS_PIXELS ? Detail.DISC : Detail.FULL;
+    }
+
+    public boolean isOrbitVisible(double semiMajorAxis) {
+        return semiMajorAxis * scale >= MIN_ORBIT_RADIUS_PIXELS;
+    }
+
+    // 軌道の分割数（画面上の周長から決め、倍率が少し変わるたびに作り直さないよう2の累乗に揃える）
+    public int orbitSegments(double semiMajorAxis) {
+        double circumference = 2 * Math.PI * semiMajorAxis * scale;
+        int wanted = (int) Math.min(MAX_ORBIT_SEGMENTS, Math.ceil(circumference / PIXELS_PER_SEGMENT));
+        int segments = MIN_ORBIT_SEGMENTS;
+        while (segments < wanted) {
+            segments <<= 1;
+        }
+        return Math.min(segments, MAX_ORBIT_SEGMENTS);
+    }
+}
@@ -10,7 +10,10 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 import javafx.animation.AnimationTimer;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
+import com.example.solarsystem.model.PlaybackSource;
 
 public class MainFX extends Application {
     private static final int WINDOW_WIDTH = 800;
@@ -21,6 +24,14 @@ public class MainFX extends Application {
     private Camera camera;
     private DebugOverlay debugOverlay;
 
+    // 静的な層と、それを描いたときの状態
+    private Canvas staticCanvas;
+    private boolean staticLayerValid = false;
+    private long staticLayerVersion;
+    private double staticCameraX;
+    private double staticCameraY;
+    private double staticCameraScale;
+
     @Override
     public void init() {
         // フォントの読み込み
@@ -44,7 +55,8 @@ public class MainFX extends Application {
 
     @Override
     public void start(Stage primaryStage) {
-        // キャンバスの作成
+        // キャンバスの作成（背景と軌道の静的な層の上に、天体を描く動的な層を重ねる）
+        staticCanvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
         Canvas canvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
         GraphicsContext gc = canvas.getGraphicsContext2D();
 
@@ -64,6 +76,10 @@ public class MainFX extends Application {
 
                 // カメラの更新
                 camera.update();
+
+                // 記録の再生中はその位置を、そうでなければシミュレーションスレッドの最新状態を反映
+                solarSystem.updatePlayback(deltaTime);
+                solarSystem.applyLatestSnapshot();
                 
                 // 描画処理
                 draw(gc);
@@ -71,7 +87,7 @@ public class MainFX extends Application {
         };
 
         // シーンの設定
-        StackPane root = new StackPane(canvas);
+        StackPane root = new StackPane(staticCanvas, canvas);
         Scene scene = new Scene(root, WINDOW_WIDTH, WINDOW_HEIGHT);
         
         // キーイベントの設定
@@ -132,6 +148,15 @@ public class MainFX extends Application {
                 case "DIGIT0":
                     solarSystem.toggleVisibility("Sun");
                     break;
+                case "OPEN_BRACKET":
+                    solarSystem.setPlaybackRate(solarSystem.getPlaybackRate() / 2);
+                    break;
+                case "CLOSE_BRACKET":
+                    solarSystem.setPlaybackRate(solarSystem.getPlaybackRate() * 2);
+                    break;
+                case "BACK_SPACE":
+                    solarSystem.setPlaybackRate(-solarSystem.getPlaybackRate());
+                    break;
                 case "Y":
                     // TODO: YAML出力機能の実装
                     System.out.println("YAML出力機能は未実装です");
@@ -167,10 +192,27 @@ public class MainFX extends Application {
         primaryStage.setScene(scene);
         primaryStage.show();
 
+        // --replay=記録ファイル を指定すると、記録した軌道を再生する
+        String replay = getParameters().getNamed().get("replay");
+        if (replay != null) {
+            try {
+                solarSystem.startPlayback(PlaybackSource.openRecording(Paths.get(replay)));
+            } catch (IOException e) {
+                System.err.println("記録ファイルを開けませんでした: " + e.getMessage());
+            }
+        }
+
         // アニメーション開始
+        solarSystem.startSimulation();
         timer.start();
     }
 
+    @Override
+    public void stop() {
+        solarSystem.stopPlayback();
+        solarSystem.stopSimulation();
+    }
+
     private CelestialBody findBodyAtPosition(double screenX, double screenY) {
         // スクリーン座標をワールド座標に変換
         double worldX = (screenX - camera.getX()) / camera.getScale();
@@ -178,8 +220,8 @@ public class MainFX extends Application {
 
         // 天体を検索（大きい順に）
         for (CelestialBody body : solarSystem.getBodies()) {
-            double dx = worldX - body.getX();
-            double dy = worldY - body.getY();
+            double dx = worldX - body.getDisplayX();
+            double dy = worldY - body.getDisplayY();
             double distance = Math.sqrt(dx * dx + dy * dy);
             
             if (distance <= body.getRadius()) {
@@ -190,16 +232,33 @@ public class MainFX extends Application {
     }
 
     private void draw(GraphicsContext gc) {
+        // 静的な層はカメラか軌道が変わったときだけ描き直す
+        long version = solarSystem.getStaticLayerVersion();
+        if (!staticLayerValid || version != staticLayerVersion || camera.getX() != staticCameraX
+                || camera.getY() != staticCameraY || camera.getScale() != staticCameraScale) {
+            drawStaticLayer(staticCanvas.getGraphicsContext2D());
+            staticLayerValid = true;
+            staticLayerVersion = version;
+            staticCameraX = camera.getX();
+            staticCameraY = camera.getY();
+            staticCameraScale = camera.getScale();
+        }
+
+        gc.clearRect(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
+        camera.apply(gc);
+        solarSystem.drawDynamicLayer(gc, camera.getScale());
+        gc.restore();
+        debugOverlay.draw(gc, solarSystem, camera);
+    }
+
+    private void drawStaticLayer(GraphicsContext gc) {
         // 背景を黒で塗りつぶす
         gc.setFill(Color.BLACK);
         gc.fillRect(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
 
-        gc.save();
         camera.apply(gc);
-        solarSystem.update();
-        solarSystem.draw(gc);
+        solarSystem.drawStaticLayer(gc, camera.getScale());
         gc.restore();
-        debugOverlay.draw(gc, solarSystem, camera);
     }
 
     public static void main(String[] args) {
@@ -7,6 +7,7 @@ public class Moon extends CelestialBody {
     private static final Color MOON_COLOR = Color.rgb(200, 200, 200);
     private Planet parent;  // 親となる惑星（地球）
     private double angle;   // 親惑星からの角度
+    private final double orbitDistance;  // 親惑星からの距離
 
     public Moon(String name, double distance, double radius, Planet parent) {
         super(name, 0, 0, radius);
@@ -14,21 +15,38 @@ public class Moon extends CelestialBody {
         this.color = MOON_COLOR;
         this.speed = 0.02;  // 月は惑星より速く回転
         this.angle = 0;
+        this.orbitDistance = distance;
         this.x = parent.getX() + distance;  // 初期位置を設定
         this.y = parent.getY();
+        syncDisplay();
     }
 
     @Override
     public void update() {
         // 親惑星（地球）の位置を基準に月の位置を更新
         angle += speed;
-        double distance = 20;  // 地球からの距離
-        x = parent.getX() + Math.cos(angle) * distance;
-        y = parent.getY() + Math.sin(angle) * distance;
+        x = parent.getX() + Math.cos(angle) * orbitDistance;
+        y = parent.getY() + Math.sin(angle) * orbitDistance;
+    }
+
+    // 再生時の角度は親惑星から見た向き（親惑星の描画位置を先に決めておくこと）
+    @Override
+    public void showAt(double angle) {
+        applySnapshot(parent.getDisplayX() + Math.cos(angle) * orbitDistance,
+                      parent.getDisplayY() + Math.sin(angle) * orbitDistance, angle, displayVisible);
     }
 
     @Override
     public void draw(GraphicsContext gc) {
+        paint(gc, displayX, displayY, radius);
+    }
+
+    @Override
+    protected void drawDetailed(GraphicsContext gc, LevelOfDetail lod, SpriteCache sprites) {
+        sprites.draw(gc, SpriteCache.Kind.MOON, color, displayX, displayY, radius, 1, lod.getScale(), this::paint);
+    }
+
+    private void paint(GraphicsContext gc, double x, double y, double radius) {
         // 月の表面のクレーター効果を描画
         gc.setFill(color);
         gc.fillOval(x - radius, y - radius, radius * 2, radius * 2);
@@ -5,62 +5,90 @@ import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 import javafx.scene.text.Font;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 public class OrbitRenderer {
     private static final double ORBIT_ALPHA = 0.3;  // 軌道の透明度
     private static final double ORBIT_STROKE_WIDTH = 1.0;  // 軌道の線の太さ
     private boolean showOrbits = true;  // 軌道表示フラグ
     private boolean showLabels = true;  // ラベル表示フラグ
 
-    public void drawOrbit(GraphicsContext gc, CelestialBody body) {
-        if (!body.isVisible()) return;
+    // 天体ごとの軌道の折れ線（軌道の形や中心、分割数が変わったときだけ計算し直す）
+    private static class OrbitPath {
+        int version = -1;
+        int segments;
+        double[] xs = new double[0];
+        double[] ys = new double[0];
+        int count;
+        Color source;   // 元の色
+        Color stroke;   // 20%明るくした色
+    }
 
-        // 軌道の色を20%明るく
-        Color orbitColor = body.getColor();
-        Color brighterColor = orbitColor.brighter().brighter(); // 20%明るく
-        gc.setStroke(brighterColor);
-        gc.setLineWidth(1.0);
+    private final Map<CelestialBody, OrbitPath> paths = new IdentityHashMap<>();
+
+    public void drawOrbit(GraphicsContext gc, CelestialBody body, LevelOfDetail lod) {
+        if (!body.isDisplayVisible()) return;
+        if (!lod.isOrbitVisible(body.getDistance())) return;
+
+        OrbitPath path = pathFor(body, lod.orbitSegments(body.getDistance()));
+        gc.setStroke(path.stroke);
+        gc.setLineWidth(ORBIT_STROKE_WIDTH);
+        gc.strokePolyline(path.xs, path.ys, path.count);
+    }
+
+    // ラベルは天体の位置に合わせて動くため、軌道とは別に毎フレーム描く
+    public void drawLabel(GraphicsContext gc, CelestialBody body, LevelOfDetail lod) {
+        if (!showLabels || !lod.isOrbitVisible(body.getDistance())) return;
+        drawOrbitLabel(gc, body);
+    }
 
-        // 楕円軌道の描画
+    private OrbitPath pathFor(CelestialBody body, int segments) {
+        OrbitPath path = paths.computeIfAbsent(body, b -> new OrbitPath());
+        if (path.version != body.getOrbitVersion() || path.segments != segments) {
+            tessellate(body, path, segments);
+            path.version = body.getOrbitVersion();
+            path.segments = segments;
+        }
+        if (path.source != body.getColor()) {
+            // 軌道の色を20%明るく
+            path.source = body.getColor();
+            path.stroke = path.source.brighter().brighter();
+        }
+        return path;
+    }
+
+    // 楕円軌道をsegments本の折れ線にする（最後に始点へ戻して閉じる）
+    private void tessellate(CelestialBody body, OrbitPath path, int segments) {
         double a = body.getDistance();
         double e = body.getEccentricity();
-        double b = a * Math.sqrt(1 - e * e);
-
-        gc.beginPath();
-        for (double angle = 0; angle <= 2 * Math.PI; angle += 0.01) {
-            double r = a * (1 - e * e) / (1 + e * Math.cos(angle));
-            
-            // 軌道傾斜を考慮
-            double baseX = r * Math.cos(angle);
-            double baseY = r * Math.sin(angle);
-            double rotatedX = baseX * Math.cos(body.getInclination());
-            double rotatedY = baseY;
-
-            double x = body.getCenterX() + rotatedX;
-            double y = body.getCenterY() + rotatedY;
-
-            if (angle == 0) {
-                gc.moveTo(x, y);
-            } else {
-                gc.lineTo(x, y);
-            }
+        double cosInclination = Math.cos(body.getInclination());
+        double step = 2 * Math.PI / segments;
+        if (path.xs.length < segments + 1) {
+            path.xs = new double[segments + 1];
+            path.ys = new double[segments + 1];
         }
-        gc.closePath();
-        gc.stroke();
+        for (int k = 0; k < segments; k++) {
+            double angle = k * step;
+            double r = a * (1 - e * e) / (1 + e * Math.cos(angle));
 
-        // ラベルの描画
-        if (showLabels) {
-            drawOrbitLabel(gc, body);
+            // 軌道傾斜を考慮
+            path.xs[k] = body.getCenterX() + r * Math.cos(angle) * cosInclination;
+            path.ys[k] = body.getCenterY() + r * Math.sin(angle);
         }
+        path.xs[segments] = path.xs[0];
+        path.ys[segments] = path.ys[0];
+        path.count = segments + 1;
     }
 
     private void drawOrbitLabel(GraphicsContext gc, CelestialBody body) {
-        if (!body.isVisible()) return;
+        if (!body.isDisplayVisible()) return;
 
         // 衛星のラベルは非表示
         if (body.getParent() != null) return;
 
         // 惑星のラベルを軌道上に配置
-        double labelAngle = body.getAngle() + Math.PI/4; // 45度の位置
+        double labelAngle = body.getDisplayAngle() + Math.PI/4; // 45度の位置
 
         // 楕円軌道を考慮した位置計算
         double r = body.getDistance() * (1 - body.getEccentricity() * body.getEccentricity()) /
@@ -55,7 +55,7 @@ public class Planet extends CelestialBody {
     public void draw(GraphicsContext gc) {
         // 大気圏を描画
         gc.setFill(atmosphereColor);
-        gc.fillOval(x - radius * 1.2, y - radius * 1.2, radius * 2.4, radius * 2.4);
+        gc.fillOval(displayX - radius * 1.2, displayY - radius * 1.2, radius * 2.4, radius * 2.4);
 
         // 惑星本体を描画
         super.draw(gc);
@@ -66,6 +66,22 @@ public class Planet extends CelestialBody {
         }
     }
 
+    // 大気と本体は1枚の画像で描く（小さく見えるときは呼ばれず、大気と月は省かれる）
+    @Override
+    protected void drawDetailed(GraphicsContext gc, LevelOfDetail lod, SpriteCache sprites) {
+        sprites.draw(gc, SpriteCache.Kind.PLANET, color, displayX, displayY, radius, 1.2, lod.getScale(), this::paint);
+        for (Moon moon : moons) {
+            moon.draw(gc, lod, sprites);
+        }
+    }
+
+    private void paint(GraphicsContext gc, double x, double y, double radius) {
+        gc.setFill(atmosphereColor);
+        gc.fillOval(x - radius * 1.2, y - radius * 1.2, radius * 2.4, radius * 2.4);
+        gc.setFill(color);
+        gc.fillOval(x - radius, y - radius, radius * 2, radius * 2);
+    }
+
     @Override
     public void update() {
         super.update();
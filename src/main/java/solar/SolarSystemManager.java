@@ -1,18 +1,46 @@
 package solar;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
+import com.example.solarsystem.model.BodyState;
+import com.example.solarsystem.model.PlaybackSource;
+import com.example.solarsystem.model.TripleBuffer;
 
 public class SolarSystemManager {
     private List<CelestialBody> bodies;
     private Star sun;
     private OrbitRenderer orbitRenderer;
+    private final LevelOfDetail levelOfDetail = new LevelOfDetail();
+    private final SpriteCache sprites = new SpriteCache();
     private CelestialBody focusedBody;
     private DebugOverlay debugOverlay;
     private static final double WINDOW_CENTER_X = 400;  // ウィンドウの中心X
     private static final double WINDOW_CENTER_Y = 300;  // ウィンドウの中心Y
+    private static final double TICK_SECONDS = 1.0 / 60.0;  // speedは1ティック（従来の60FPSの1フレーム）あたりの角度
+    private static final int MAX_TICKS_PER_FRAME = 8;       // 処理落ち時に追いつこうとして止まらないための上限
+    private double tickAccumulator = 0;
+
+    // シミュレーションスレッド関連
+    private static final int SNAPSHOT_STRIDE = 4;  // 天体ごとに x, y, angle, visible
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private TripleBuffer<double[]> snapshots;
+    private volatile boolean simulationRunning = false;
+    private Thread simulationThread;
+
+    // 記録の再生（nullでなければ天体の更新の代わりに記録から描画位置を決める）
+    // 記録の天体idは天体名を小文字にしたもの。描画上の軌道の大きさはそのままで、公転の角度だけを記録から取る
+    private static final double DEFAULT_PLAYBACK_RATE = 0.1;  // 1秒あたりに進む記録上の年数（地球の表示上の公転とほぼ同じ）
+    private PlaybackSource playbackSource;
+    private BodyState playbackState;
+    private double playbackTime;
+    private double playbackRate = DEFAULT_PLAYBACK_RATE;
 
     public SolarSystemManager(DebugOverlay debugOverlay) {
         this.bodies = new ArrayList<>();
@@ -120,18 +148,237 @@ public class SolarSystemManager {
         }
     }
 
+    // フレームの経過時間（秒）に応じて固定刻みで更新する
+    // 表示のリフレッシュレートに関係なく公転速度が一定になる
+    // シミュレーションスレッドを使わない場合はFXスレッドから呼び、描画用の座標も更新する
+    public void update(double deltaTime) {
+        if (playbackSource != null) {
+            updatePlayback(deltaTime);
+            return;
+        }
+        if (advance(deltaTime) > 0 && !simulationRunning) {
+            for (CelestialBody body : bodies) {
+                body.syncDisplay();
+            }
+        }
+    }
+
+    private int advance(double deltaTime) {
+        tickAccumulator += Math.max(0, deltaTime);
+        int ticks = 0;
+        while (tickAccumulator >= TICK_SECONDS && ticks < MAX_TICKS_PER_FRAME) {
+            update();
+            tickAccumulator -= TICK_SECONDS;
+            ticks++;
+        }
+        if (ticks == MAX_TICKS_PER_FRAME) {
+            // 追いつけない分は切り捨てる
+            tickAccumulator = Math.min(tickAccumulator, TICK_SECONDS);
+        }
+        return ticks;
+    }
+
+    // 天体の更新を専用スレッドで開始する
+    // 以降、天体の状態はシミュレーションスレッドだけが書き換え、
+    // FXスレッドはapplyLatestSnapshot()で描画用の座標を受け取る
+    public synchronized void startSimulation() {
+        if (simulationRunning) {
+            return;
+        }
+        snapshots = new TripleBuffer<>(() -> new double[bodies.size() * SNAPSHOT_STRIDE]);
+        publishSnapshot();
+        simulationRunning = true;
+        simulationThread = new Thread(this::runSimulation, "solar-simulation");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+    }
+
+    public synchronized void stopSimulation() {
+        if (!simulationRunning) {
+            return;
+        }
+        simulationRunning = false;
+        LockSupport.unpark(simulationThread);
+        try {
+            simulationThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        simulationThread = null;
+    }
+
+    private void runSimulation() {
+        long last = System.nanoTime();
+        while (simulationRunning) {
+            boolean changed = false;
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                command.run();
+                changed = true;
+            }
+            long now = System.nanoTime();
+            if (advance((now - last) / 1_000_000_000.0) > 0) {
+                changed = true;
+            }
+            last = now;
+            if (changed) {
+                publishSnapshot();
+            }
+            LockSupport.parkNanos((long) (TICK_SECONDS * 1_000_000_000L));
+        }
+    }
+
+    private void publishSnapshot() {
+        double[] buffer = snapshots.writeBuffer();
+        for (int i = 0; i < bodies.size(); i++) {
+            CelestialBody body = bodies.get(i);
+            int base = i * SNAPSHOT_STRIDE;
+            buffer[base] = body.getX();
+            buffer[base + 1] = body.getY();
+            buffer[base + 2] = body.getAngle();
+            buffer[base + 3] = body.isVisible() ? 1 : 0;
+        }
+        snapshots.publish();
+    }
+
+    // FXスレッド：最新のスナップショットを描画用の座標に反映する（ロックなし）
+    public void applyLatestSnapshot() {
+        if (playbackSource != null || !simulationRunning || !snapshots.hasUpdate()) {
+            return;
+        }
+        double[] buffer = snapshots.acquire();
+        for (int i = 0; i < bodies.size(); i++) {
+            int base = i * SNAPSHOT_STRIDE;
+            bodies.get(i).applySnapshot(buffer[base], buffer[base + 1], buffer[base + 2], buffer[base + 3] != 0);
+        }
+    }
+
+    // 天体の状態を変える操作（スレッド動作中はシミュレーションスレッドで実行する）
+    private void submit(Runnable command) {
+        if (simulationRunning) {
+            commands.add(command);
+            LockSupport.unpark(simulationThread);
+        } else {
+            command.run();
+            for (CelestialBody body : bodies) {
+                body.syncDisplay();
+            }
+        }
+    }
+
+    // 記録からの再生を始める（以降、描画位置はupdatePlayback()で決まる）
+    public void startPlayback(PlaybackSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("再生元がnullです");
+        }
+        playbackState = new BodyState(bodies.size());
+        for (CelestialBody body : bodies) {
+            playbackState.add(body.getName().toLowerCase(Locale.ROOT), 0);
+        }
+        playbackSource = source;
+        playbackTime = source.getStartTime();
+        showPlayback();
+    }
+
+    // 再生をやめて天体の更新に戻る（次のスナップショットから通常の表示になる）
+    public void stopPlayback() {
+        if (playbackSource == null) {
+            return;
+        }
+        if (playbackSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                System.err.println("再生元を閉じられませんでした: " + e.getMessage());
+            }
+        }
+        playbackSource = null;
+        playbackState = null;
+        if (!simulationRunning) {
+            for (CelestialBody body : bodies) {
+                body.syncDisplay();
+            }
+        }
+    }
+
+    public boolean isPlayingBack() {
+        return playbackSource != null;
+    }
+
+    // 1秒あたりに進む記録上の年数（負の値で逆再生）
+    public void setPlaybackRate(double rate) {
+        if (!Double.isFinite(rate)) {
+            throw new IllegalArgumentException("再生速度が不正です: " + rate);
+        }
+        playbackRate = rate;
+    }
+
+    public double getPlaybackRate() {
+        return playbackRate;
+    }
+
+    // 再生位置を指定した時刻（年）へ移す（記録の範囲に収める）
+    public void seekPlayback(double time) {
+        if (playbackSource == null) {
+            return;
+        }
+        playbackTime = Math.max(playbackSource.getStartTime(), Math.min(playbackSource.getEndTime(), time));
+        showPlayback();
+    }
+
+    public double getPlaybackTime() {
+        return playbackTime;
+    }
+
+    // FXスレッド：フレームの経過時間だけ再生位置を進めて描画位置を更新する（端に達したらそこで止まる）
+    public void updatePlayback(double deltaTime) {
+        if (playbackSource == null) {
+            return;
+        }
+        seekPlayback(playbackTime + Math.max(0, deltaTime) * playbackRate);
+    }
+
+    // 記録上の位置から公転の角度を求め、描画用の座標に反映する
+    // 惑星は太陽から、月は親惑星から見た向き（軌道面はx-z平面）を使う
+    private void showPlayback() {
+        double[] x = playbackState.x, z = playbackState.z;
+        Arrays.fill(x, Double.NaN);  // 記録にない天体は評価後もNaNのまま残る
+        playbackSource.evaluate(playbackState, playbackTime);
+        int sunIndex = bodies.indexOf(sun);
+        for (int i = 0; i < bodies.size(); i++) {
+            CelestialBody body = bodies.get(i);
+            if (body == sun || Double.isNaN(x[i])) {
+                continue;
+            }
+            int reference = body.getParent() != null ? bodies.indexOf(body.getParent()) : sunIndex;
+            double cx = reference >= 0 && !Double.isNaN(x[reference]) ? x[reference] : 0;
+            double cz = reference >= 0 && !Double.isNaN(x[reference]) ? z[reference] : 0;
+            body.showAt(Math.atan2(z[i] - cz, x[i] - cx));
+        }
+    }
+
+    // 1ティック分進める
     public void update() {
         for (CelestialBody body : bodies) {
             body.update();
         }
     }
 
-    public void draw(GraphicsContext gc) {
+    // scaleはカメラの倍率（画面上の大きさに応じて描画の詳細度を変える）
+    public void draw(GraphicsContext gc, double scale) {
+        drawStaticLayer(gc, scale);
+        drawDynamicLayer(gc, scale);
+    }
+
+    // 静的な層：カメラか軌道が変わらない限り同じ内容になるもの（軌道・中心線）
+    public void drawStaticLayer(GraphicsContext gc, double scale) {
+        levelOfDetail.setScale(scale);
+
         // 軌道の描画
         if (debugOverlay.isShowOrbits()) {
             for (CelestialBody body : bodies) {
                 if (body != sun) {
-                    orbitRenderer.drawOrbit(gc, body);
+                    orbitRenderer.drawOrbit(gc, body, levelOfDetail);
                 }
             }
         }
@@ -147,25 +394,48 @@ public class SolarSystemManager {
             // 横線
             gc.strokeLine(centerX - 1000, centerY, centerX + 1000, centerY);
         }
+    }
+
+    // 動的な層：天体の移動に合わせて毎フレーム描くもの（軌道のラベル・距離ガイド・天体）
+    public void drawDynamicLayer(GraphicsContext gc, double scale) {
+        levelOfDetail.setScale(scale);
+
+        if (debugOverlay.isShowOrbits()) {
+            for (CelestialBody body : bodies) {
+                if (body != sun && body.isDisplayVisible()) {
+                    orbitRenderer.drawLabel(gc, body, levelOfDetail);
+                }
+            }
+        }
 
         // 距離ガイドの描画
         if (debugOverlay.isShowDistance()) {
             gc.setStroke(Color.rgb(0, 255, 0, 0.3));
             for (CelestialBody body : bodies) {
                 if (body instanceof Planet) {
-                    gc.strokeLine(WINDOW_CENTER_X, WINDOW_CENTER_Y, body.getX(), body.getY());
+                    gc.strokeLine(WINDOW_CENTER_X, WINDOW_CENTER_Y, body.getDisplayX(), body.getDisplayY());
                 }
             }
         }
 
         // 天体の描画
+        sprites.beginFrame();
         for (CelestialBody body : bodies) {
-            if (body.isVisible() && debugOverlay.isShowBodies()) {
-                body.draw(gc);
+            if (body.isDisplayVisible() && debugOverlay.isShowBodies()) {
+                body.draw(gc, levelOfDetail, sprites);
             }
         }
     }
 
+    // 静的な層の内容が変わったかを判定するための値（軌道の形・天体の表示状態・表示設定から求める）
+    public long getStaticLayerVersion() {
+        long version = (debugOverlay.isShowOrbits() ? 1 : 0) | (debugOverlay.isShowCenterLine() ? 2 : 0);
+        for (CelestialBody body : bodies) {
+            version = version * 31 + body.getOrbitVersion() * 2L + (body.isDisplayVisible() ? 1 : 0);
+        }
+        return version;
+    }
+
     public List<CelestialBody> getBodies() {
         return bodies;
     }
@@ -196,13 +466,15 @@ public class SolarSystemManager {
 
     public void toggleVisibility(String name) {
         System.out.println("Toggling visibility for: " + name);  // デバッグ出力
-        for (CelestialBody body : bodies) {
-            System.out.println("Checking body: " + body.getName());  // デバッグ出力
-            if (body.getName().equalsIgnoreCase(name)) {
-                System.out.println("Found matching body: " + body.getName());  // デバッグ出力
-                body.toggleVisible();
-                break;
+        submit(() -> {
+            for (CelestialBody body : bodies) {
+                System.out.println("Checking body: " + body.getName());  // デバッグ出力
+                if (body.getName().equalsIgnoreCase(name)) {
+                    System.out.println("Found matching body: " + body.getName());  // デバッグ出力
+                    body.toggleVisible();
+                    break;
+                }
             }
-        }
+        });
     }
 } 
\ No newline at end of file
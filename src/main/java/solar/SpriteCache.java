@@ -0,0 +1,137 @@
+package solar;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// 天体の見た目（恒星の光、大気、クレーター）をあらかじめ画像にしておき、drawImageの1回で描く
+// 画像は種類・色・画面上の半径ごとに作る。半径は√2倍ずつの粗い段階に切り上げ、間の大きさはdrawImageの縮小で描くので、
+// ズームを続けても段階をまたぐときにしか画像を作らない。しばらく使われていない画像はフレームごとの掃除で捨てる。
+// FXスレッドからだけ使う
+public class SpriteCache {
+    // 天体の描き方の種類（同じ種類・色なら同じ見た目になる）
+    public enum Kind { STAR, PLANET, MOON }
+
+    // 中心(x, y)・半径radiusの天体を描く処理（画像を作るときと、直接描くときの両方で使う）
+    @FunctionalInterface
+    public interface Painter {
+        void paint(GraphicsContext gc, double x, double y, double radius);
+    }
+
+    private static final int MAX_SPRITES = 256;
+    private static final int MAX_BUCKET = 14;          // 半径 √2^14 = 128ピクセル。これより大きく見える天体は画像を拡大して描く
+    private static final int MAX_IDLE_FRAMES = 600;    // これだけのフレームの間使われなかった画像は捨てる
+    private static final int SWEEP_INTERVAL = 60;      // 掃除の間隔（フレーム）
+
+    private static class Key {
+        final Kind kind;
+        final Color color;
+        final int bucket;
+
+        Key(Kind kind, Color color, int bucket) {
+            this.kind = kind;
+            this.color = color;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return kind == other.kind && bucket == other.bucket && color.equals(other.color);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, color, bucket);
+        }
+    }
+
+    private static class Sprite {
+        final WritableImage image;
+        long lastUsed;  // 最後に描いたフレーム
+
+        Sprite(WritableImage image) {
+            this.image = image;
+        }
+    }
+
+    // 最近使った画像（古いものから捨てる）
+    private final Map<Key, Sprite> sprites = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Sprite> eldest) {
+            return size() > MAX_SPRITES;
+        }
+    };
+    private final SnapshotParameters parameters = new SnapshotParameters();
+    private long created;
+    private long frame;
+
+    public SpriteCache() {
+        parameters.setFill(Color.TRANSPARENT);
+    }
+
+    // フレームの描画の始めに呼ぶ（一定の間隔で、しばらく使われていない画像を捨てる）
+    public void beginFrame() {
+        frame++;
+        if (frame % SWEEP_INTERVAL == 0) {
+            sprites.values().removeIf(sprite -> frame - sprite.lastUsed > MAX_IDLE_FRAMES);
+        }
+    }
+
+    // 中心(x, y)・半径radiusの天体を描く。extentは見た目が半径の何倍まで広がるか（光や大気を含む）
+    // scaleはカメラの倍率で、画面上の大きさ以上の解像度の画像を使う
+    public void draw(GraphicsContext gc, Kind kind, Color color, double x, double y, double radius,
+                     double extent, double scale, Painter painter) {
+        int bucket = bucketFor(radius * scale);
+        Key key = new Key(kind, color, bucket);
+        Sprite sprite = sprites.get(key);
+        if (sprite == null) {
+            sprite = new Sprite(render(bucketRadius(bucket), extent, painter));
+            sprites.put(key, sprite);
+        }
+        sprite.lastUsed = frame;
+        double half = radius * extent;
+        gc.drawImage(sprite.image, x - half, y - half, half * 2, half * 2);
+    }
+
+    // 画面上の半径（ピクセル）を√2倍ごとの段階に切り上げる
+    static int bucketFor(double pixels) {
+        if (!(pixels > 1)) {
+            return 0;
+        }
+        return (int) Math.min(MAX_BUCKET, Math.ceil(2 * Math.log(pixels) / Math.log(2)));
+    }
+
+    // 段階bucketの画像の半径（ピクセル）
+    static double bucketRadius(int bucket) {
+        return Math.pow(2, bucket / 2.0);
+    }
+
+    private WritableImage render(double radius, double extent, Painter painter) {
+        int size = (int) Math.ceil(radius * extent * 2);
+        Canvas canvas = new Canvas(size, size);
+        painter.paint(canvas.getGraphicsContext2D(), size / 2.0, size / 2.0, radius);
+        created++;
+        return canvas.snapshot(parameters, new WritableImage(size, size));
+    }
+
+    public int size() {
+        return sprites.size();
+    }
+
+    // これまでに作った画像の数（捨てて作り直した分を含む）
+    public long getCreatedCount() {
+        return created;
+    }
+
+    public void clear() {
+        sprites.clear();
+    }
+}
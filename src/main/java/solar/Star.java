@@ -16,6 +16,15 @@ public class Star extends CelestialBody {
 
     @Override
     public void draw(GraphicsContext gc) {
+        paint(gc, displayX, displayY, radius);
+    }
+
+    @Override
+    protected void drawDetailed(GraphicsContext gc, LevelOfDetail lod, SpriteCache sprites) {
+        sprites.draw(gc, SpriteCache.Kind.STAR, STAR_COLOR, displayX, displayY, radius, 2, lod.getScale(), Star::paint);
+    }
+
+    private static void paint(GraphicsContext gc, double x, double y, double radius) {
         // 光る効果を描画
         RadialGradient gradient = new RadialGradient(
             0, 0, x, y, radius * 2,
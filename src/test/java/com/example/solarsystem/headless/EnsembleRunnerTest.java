@@ -0,0 +1,74 @@
+package com.example.solarsystem.headless;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class EnsembleRunnerTest {
+    private static final String CATALOG = "{\"celestialBodies\": ["
+        + "{\"id\": \"sun\", \"name\": \"sun\", \"type\": \"star\", \"mass\": 333000, \"radius\": 109,"
+        + " \"orbit\": {\"semiMajorAxis\": 0, \"eccentricity\": 0, \"inclination\": 0, \"period\": 0}},"
+        + "{\"id\": \"earth\", \"name\": \"earth\", \"type\": \"planet\", \"mass\": 1, \"radius\": 1,"
+        + " \"orbit\": {\"semiMajorAxis\": 1, \"eccentricity\": 0, \"inclination\": 0, \"period\": 1}},"
+        + "{\"id\": \"jupiter\", \"name\": \"jupiter\", \"type\": \"planet\", \"mass\": 317.8, \"radius\": 11,"
+        + " \"orbit\": {\"semiMajorAxis\": 5.2, \"eccentricity\": 0, \"inclination\": 0, \"period\": 11.86}}]}";
+
+    @Test
+    void testAggregatesPerturbedRuns(@TempDir Path dir) throws Exception {
+        Path data = dir.resolve("catalog.json");
+        Files.writeString(data, CATALOG);
+        EnsembleRunner.Options options = EnsembleRunner.Options.parse(new String[] {
+            "--data", data.toString(), "--runs", "16", "--years", "0.5", "--dt", "0.002",
+            "--axis-sigma", "0.01", "--parallelism", "4", "--output", dir.resolve("summary.csv").toString()
+        });
+
+        EnsembleStatistics statistics = EnsembleRunner.run(options);
+        assertEquals(16, statistics.runs());
+        assertEquals(0, statistics.totalEjections());
+        EnsembleStatistics.BodySummary earth = statistics.get("earth");
+        assertEquals(16, earth.semiMajorAxis.count());
+        // 円軌道の半径を1%ばらつかせたので、長半径の平均は1付近でばらつきを持つ
+        assertEquals(1.0, earth.semiMajorAxis.mean(), 0.02);
+        assertTrue(earth.semiMajorAxis.standardDeviation() > 0.001);
+        assertTrue(earth.eccentricity.max() < 0.05);
+        assertNull(statistics.get("sun"));
+
+        List<String> lines = Files.readAllLines(dir.resolve("summary.csv"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).startsWith("earth,16,0,"));
+    }
+
+    @Test
+    void testCountsUnboundBodiesAsEjected(@TempDir Path dir) throws Exception {
+        Path data = dir.resolve("catalog.json");
+        Files.writeString(data, CATALOG);
+        EnsembleRunner.Options options = EnsembleRunner.Options.parse(new String[] {
+            "--data", data.toString(), "--runs", "3", "--years", "0.01", "--ejection-radius", "2"
+        });
+        EnsembleStatistics statistics = EnsembleRunner.run(options);
+        assertEquals(3, statistics.get("jupiter").ejections());
+        assertEquals(0, statistics.get("earth").ejections());
+    }
+
+    @Test
+    void testMergedStatisticsMatchSequential() {
+        EnsembleStatistics.Running all = new EnsembleStatistics.Running();
+        EnsembleStatistics.Running left = new EnsembleStatistics.Running();
+        EnsembleStatistics.Running right = new EnsembleStatistics.Running();
+        for (int k = 0; k < 10; k++) {
+            double value = Math.sin(k) * 3 + k;
+            all.add(value);
+            (k < 4 ? left : right).add(value);
+        }
+        left.merge(right);
+        assertEquals(all.count(), left.count());
+        assertEquals(all.mean(), left.mean(), 1e-12);
+        assertEquals(all.variance(), left.variance(), 1e-12);
+        assertEquals(all.min(), left.min());
+        assertEquals(all.max(), left.max());
+    }
+}
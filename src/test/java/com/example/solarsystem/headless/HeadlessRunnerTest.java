@@ -0,0 +1,52 @@
+package com.example.solarsystem.headless;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class HeadlessRunnerTest {
+    private static final String CATALOG = "{\"celestialBodies\": ["
+        + "{\"id\": \"sun\", \"name\": \"sun\", \"type\": \"star\", \"mass\": 333000, \"radius\": 109,"
+        + " \"orbit\": {\"semiMajorAxis\": 0, \"eccentricity\": 0, \"inclination\": 0, \"period\": 0}},"
+        + "{\"id\": \"earth\", \"name\": \"earth\", \"type\": \"planet\", \"mass\": 1, \"radius\": 1,"
+        + " \"orbit\": {\"semiMajorAxis\": 1, \"eccentricity\": 0, \"inclination\": 0, \"period\": 1}}]}";
+
+    @Test
+    void testPropagatesCatalogAndWritesTrajectory(@TempDir Path dir) throws Exception {
+        Path data = dir.resolve("catalog.json");
+        Files.writeString(data, CATALOG);
+        HeadlessRunner.Options options = HeadlessRunner.Options.parse(new String[] {
+            "--data", data.toString(), "--years", "1", "--dt", "0.001", "--sample", "0.25",
+            "--output", dir.resolve("out/trajectory.csv").toString(),
+            "--final-state", dir.resolve("state.csv").toString()
+        });
+
+        HeadlessRunner.Result result = HeadlessRunner.run(options);
+        assertEquals(1000, result.steps);
+        assertEquals(1.0, result.simulatedYears, 1e-9);
+        assertTrue(result.stepsPerSecond() > 0);
+
+        List<String> trajectory = Files.readAllLines(dir.resolve("out/trajectory.csv"));
+        assertEquals("time,id,x,y,z,vx,vy,vz", trajectory.get(0));
+        assertEquals(1 + 2 * result.samples, trajectory.size());
+        assertEquals(5, result.samples);
+
+        // 1年後の地球はほぼ元の位置に戻る
+        String[] earth = Files.readAllLines(dir.resolve("state.csv")).get(2).split(",");
+        assertEquals("earth", earth[1]);
+        assertEquals(1.0, Double.parseDouble(earth[2]), 0.01);
+        assertEquals(0.0, Double.parseDouble(earth[4]), 0.02);
+    }
+
+    @Test
+    void testRejectsUnknownOption() {
+        assertThrows(IllegalArgumentException.class,
+            () -> HeadlessRunner.Options.parse(new String[] {"--speed", "1"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> HeadlessRunner.Options.parse(new String[] {"--years", "-1"}));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.example.solarsystem.model.TestBodies.randomCloud;
+
+public class BarnesHutForceSolverTest {
+    private static final double G = 1.0;
+
+    private static double[][] accelerations(BodyState state) {
+        double[][] result = new double[state.count()][];
+        for (int i = 0; i < state.count(); i++) {
+            result[i] = new double[] {state.ax[i], state.ay[i], state.az[i]};
+        }
+        return result;
+    }
+
+    @Test
+    void testZeroOpeningAngleMatchesDirectSummation() {
+        BodyState state = randomCloud(500, 1);
+        new DirectForceSolver(G).computeAccelerations(state);
+        double[][] expected = accelerations(state);
+
+        new BarnesHutForceSolver(G, 0.0, 0).computeAccelerations(state);
+        for (int i = 0; i < state.count(); i++) {
+            assertEquals(expected[i][0], state.ax[i], 1e-9 * Math.abs(expected[i][0]) + 1e-12);
+            assertEquals(expected[i][1], state.ay[i], 1e-9 * Math.abs(expected[i][1]) + 1e-12);
+            assertEquals(expected[i][2], state.az[i], 1e-9 * Math.abs(expected[i][2]) + 1e-12);
+        }
+    }
+
+    @Test
+    void testOpeningAngleKeepsErrorSmall() {
+        BodyState state = randomCloud(2000, 2);
+        new DirectForceSolver(G).computeAccelerations(state);
+        double[][] expected = accelerations(state);
+
+        new BarnesHutForceSolver(G, 0.5, 0).computeAccelerations(state);
+        double errorSum = 0;
+        for (int i = 0; i < state.count(); i++) {
+            double ex = state.ax[i] - expected[i][0];
+            double ey = state.ay[i] - expected[i][1];
+            double ez = state.az[i] - expected[i][2];
+            double norm = Math.sqrt(expected[i][0] * expected[i][0]
+                + expected[i][1] * expected[i][1] + expected[i][2] * expected[i][2]);
+            errorSum += Math.sqrt(ex * ex + ey * ey + ez * ez) / norm;
+        }
+        assertTrue(errorSum / state.count() < 0.01, "平均相対誤差は1%未満のはず");
+    }
+
+    @Test
+    void testSmallBodyCountFallsBackToDirectSummation() {
+        BodyState state = randomCloud(10, 3);
+        new DirectForceSolver(G).computeAccelerations(state);
+        double[][] expected = accelerations(state);
+
+        new BarnesHutForceSolver(G, 1.0, 256).computeAccelerations(state);
+        for (int i = 0; i < state.count(); i++) {
+            assertEquals(expected[i][0], state.ax[i]);
+            assertEquals(expected[i][1], state.ay[i]);
+            assertEquals(expected[i][2], state.az[i]);
+        }
+    }
+
+    @Test
+    void testCoincidentBodiesDoNotOverflowTree() {
+        BodyState state = new BodyState();
+        for (int i = 0; i < 300; i++) {
+            state.add("same" + i, 1.0);
+            state.setPosition(i, 1.0, 2.0, 3.0);
+        }
+        int far = state.add("far", 1.0);
+        state.setPosition(far, 10.0, 0.0, 0.0);
+
+        new BarnesHutForceSolver(G, 0.5, 0).computeAccelerations(state);
+        assertTrue(Double.isFinite(state.ax[far]));
+        assertTrue(state.ax[far] < 0, "遠方の天体は塊の方向へ引かれるはず");
+    }
+
+    @Test
+    void testLargeOpeningAngleDoesNotPullBodyTowardsItself() {
+        // 原点の天体と、x=10の4つの天体。根ノードの重心はx=5にあり、θ=3では原点の天体から見て条件を満たす
+        BodyState state = new BodyState();
+        state.add("single", 1.0);
+        for (int k = 0; k < 4; k++) {
+            int index = state.add("cluster" + k, 0.25);
+            state.setPosition(index, 10.0, (k & 1) == 0 ? 0.1 : -0.1, (k & 2) == 0 ? 0.1 : -0.1);
+        }
+        new DirectForceSolver(G).computeAccelerations(state);
+        double[][] expected = accelerations(state);
+
+        new BarnesHutForceSolver(G, 3.0, 0).computeAccelerations(state);
+        for (int i = 0; i < state.count(); i++) {
+            assertEquals(expected[i][0], state.ax[i], 0.01 * Math.abs(expected[i][0]), "body " + i);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockTimestepIntegratorTest {
+    private static final double G = NBodySimulation.G;
+    private static final double DT = 1.0 / 60;
+    private static final int HOT = 1;
+
+    // 太陽・周期約4日の灼熱惑星・外側の惑星10個（周期の差が大きい系）
+    private static BodyState mixedSystem() {
+        BodyState state = new BodyState();
+        state.add("sun", 333000);
+        addCircular(state, "hot", 1, 0.05, 0.0);
+        for (int k = 0; k < 10; k++) {
+            addCircular(state, "outer" + k, 10, 5.0 + 2.5 * k, k * 0.7);
+        }
+        return state;
+    }
+
+    private static void addCircular(BodyState state, String id, double mass, double r, double angle) {
+        int i = state.add(id, mass);
+        double speed = Math.sqrt(G * 333000 / r);
+        state.setPosition(i, r * Math.cos(angle), 0, r * Math.sin(angle));
+        state.setVelocity(i, -Math.sin(angle) * speed, 0, Math.cos(angle) * speed);
+    }
+
+    private static double radius(BodyState state, int i) {
+        double dx = state.x[i] - state.x[0], dy = state.y[i] - state.y[0], dz = state.z[i] - state.z[0];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    @Test
+    void testAssignsFinerLevelsToFastBodies() {
+        BodyState state = mixedSystem();
+        BlockTimestepIntegrator integrator = new BlockTimestepIntegrator();
+        integrator.step(state, new DirectForceSolver(G), DT);
+        assertTrue(integrator.getLevel(HOT) >= 6);
+        for (int i = 2; i < state.count(); i++) {
+            assertEquals(0, integrator.getLevel(i));
+        }
+    }
+
+    @Test
+    void testMatchesUniformStepWithFarFewerForceEvaluations() {
+        BodyState block = mixedSystem();
+        BlockTimestepIntegrator integrator = new BlockTimestepIntegrator();
+        ForceSolver solver = new DirectForceSolver(G);
+        for (int s = 0; s < 60; s++) {
+            integrator.step(block, solver, DT);
+            assertEquals(0.05, radius(block, HOT), 0.05 * 0.01);
+        }
+
+        // 最も速い天体に必要な刻み幅で全体を進めた場合
+        int subSteps = 1 << integrator.getLevel(HOT);
+        BodyState uniform = mixedSystem();
+        Integrator verlet = new VelocityVerletIntegrator();
+        for (int s = 0; s < 60 * subSteps; s++) {
+            verlet.step(uniform, solver, DT / subSteps);
+        }
+        for (int i = 2; i < uniform.count(); i++) {
+            assertEquals(uniform.x[i], block.x[i], 1e-4 * radius(uniform, i));
+            assertEquals(uniform.z[i], block.z[i], 1e-4 * radius(uniform, i));
+        }
+
+        long uniformEvaluations = (long) uniform.count() * (60L * subSteps + 1);
+        assertTrue(uniformEvaluations > 8 * integrator.getBodyForceEvaluations(),
+            uniformEvaluations + " vs " + integrator.getBodyForceEvaluations());
+    }
+
+    @Test
+    void testNearestDistanceComesFromSolver() {
+        ForceSolver[] solvers = {
+            new DirectForceSolver(G),
+            new BarnesHutForceSolver(G, 0.5, 0),
+            new VectorForceSolver(G),
+            new NeighbourListForceSolver(G),
+            new ParallelForceSolver(new DirectForceSolver(G), 2)
+        };
+        for (ForceSolver solver : solvers) {
+            BodyState state = mixedSystem();
+            solver.computeAccelerations(state);
+            assertEquals(0.05, solver.nearestDistance(HOT), 1e-12, solver.getClass().getSimpleName());
+            assertEquals(0.05, solver.nearestDistance(0), 1e-12, solver.getClass().getSimpleName());
+
+            BlockTimestepIntegrator integrator = new BlockTimestepIntegrator();
+            integrator.step(state, solver, DT);
+            assertTrue(integrator.getLevel(HOT) >= 6, solver.getClass().getSimpleName());
+            if (solver instanceof ParallelForceSolver parallel) {
+                parallel.close();
+            }
+        }
+    }
+
+    @Test
+    void testSelectableFromScenario() {
+        assertEquals(IntegratorType.BLOCK, IntegratorType.fromKey("block", IntegratorType.VELOCITY_VERLET));
+        assertTrue(IntegratorType.BLOCK.create() instanceof BlockTimestepIntegrator);
+    }
+}
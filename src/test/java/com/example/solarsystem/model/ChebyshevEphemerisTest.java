@@ -0,0 +1,64 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.example.solarsystem.model.TestBodies.threeBodies;
+
+import java.nio.file.Path;
+
+public class ChebyshevEphemerisTest {
+    private static final double DT = 1.0 / 600;
+
+    @Test
+    void testMatchesIntegratedTrajectory() {
+        // 標本点に合わせて刻みが変わるため、積分誤差が十分小さくなる刻み幅で比べる
+        double dt = DT / 10;
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.build(threeBodies(), 1.0, 1.0 / 16, 12, dt);
+        assertEquals(0.0, ephemeris.getStartTime());
+        assertEquals(1.0, ephemeris.getEndTime(), 1e-12);
+
+        NBodySimulation reference = threeBodies();
+        BodyState state = reference.getState();
+        double[] out = new double[6];
+        int earth = ephemeris.indexOf("earth");
+        for (int s = 1; s <= 6000; s++) {
+            reference.step(dt);
+            if (s % 900 != 0) continue;
+            ephemeris.evaluate(earth, reference.getCurrentTime(), out);
+            assertEquals(state.x[1], out[0], 1e-7);
+            assertEquals(state.z[1], out[2], 1e-7);
+            assertEquals(state.vx[1], out[3], 1e-5);
+            assertEquals(state.vz[1], out[5], 1e-5);
+        }
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip(@TempDir Path dir) throws Exception {
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.build(threeBodies(), 0.5, 1.0 / 32, 8, DT);
+        Path file = dir.resolve("ephemeris.bin");
+        ephemeris.save(file);
+        ChebyshevEphemeris loaded = ChebyshevEphemeris.load(file);
+        assertTrue(loaded.hasSameCoefficients(ephemeris));
+        assertEquals(ephemeris.getEndTime(), loaded.getEndTime());
+        assertEquals(8, loaded.getDegree());
+    }
+
+    @Test
+    void testEvaluatesIntoStateById() {
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.build(threeBodies(), 0.5, 1.0 / 16, 10, DT);
+        // 並びが異なり、暦にない天体を含む状態でもidで対応付ける
+        BodyState state = new BodyState();
+        state.add("comet", 0);
+        state.add("earth", 1);
+        state.setPosition(0, 7, 7, 7);
+        ephemeris.evaluate(state, 0.25);
+
+        double[] out = new double[6];
+        ephemeris.evaluate(ephemeris.indexOf("earth"), 0.25, out);
+        assertEquals(out[0], state.x[1]);
+        assertEquals(out[2], state.z[1]);
+        assertEquals(7, state.x[0]);
+        assertEquals(0.25, state.time);
+    }
+}
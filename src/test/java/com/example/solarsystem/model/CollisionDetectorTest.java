@@ -0,0 +1,135 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
+
+public class CollisionDetectorTest {
+    private static BodyState pair(double massA, double massB, double distance, double speed) {
+        BodyState state = new BodyState();
+        state.add("a", massA);
+        state.add("b", massB);
+        state.setPosition(0, 0, 0, 0);
+        state.setPosition(1, distance, 0, 0);
+        state.setVelocity(0, speed, 0, 0);
+        state.setVelocity(1, -speed, 0.5, 0);
+        return state;
+    }
+
+    private static CollisionDetector detector(CollisionResponse response, double radius, int count) {
+        CollisionDetector detector = new CollisionDetector();
+        detector.setResponse(response);
+        for (int i = 0; i < count; i++) {
+            detector.setRadius(i, radius);
+        }
+        return detector;
+    }
+
+    @Test
+    void testMergeConservesMassAndMomentum() {
+        BodyState state = pair(2, 1, 0.15, 1);
+        CollisionDetector detector = detector(CollisionResponse.MERGE, 0.1, 2);
+        double px = 2 * 1 + 1 * -1, py = 1 * 0.5;
+
+        assertTrue(detector.detect(state));
+        assertEquals(3, state.mass[0]);
+        assertEquals(0, state.mass[1]);
+        assertFalse(state.active[1]);
+        assertTrue(detector.isMerged(1));
+        assertEquals(px, 3 * state.vx[0], 1e-12);
+        assertEquals(py, 3 * state.vy[0], 1e-12);
+        assertEquals(0.05, state.x[0], 1e-12);  // 重心
+        assertEquals(Math.cbrt(2) * 0.1, detector.getRadius(0), 1e-12);
+        assertEquals(1, detector.getMergeCount());
+    }
+
+    @Test
+    void testElasticBounceExchangesVelocities() {
+        BodyState state = pair(1, 1, 0.15, 1);
+        state.setVelocity(1, -1, 0, 0);
+        CollisionDetector detector = detector(CollisionResponse.BOUNCE, 0.1, 2);
+
+        assertTrue(detector.detect(state));
+        assertEquals(-1, state.vx[0], 1e-12);
+        assertEquals(1, state.vx[1], 1e-12);
+        // 重なりは解消される
+        assertEquals(0.2, state.x[1] - state.x[0], 1e-12);
+        assertTrue(state.active[0] && state.active[1]);
+    }
+
+    @Test
+    void testOnlyTouchingPairsAreReported() {
+        // 間隔1の格子に並べ、1組だけ重ねる
+        BodyState state = new BodyState();
+        int side = 10;
+        for (int k = 0; k < side * side * side; k++) {
+            int i = state.add("b" + k, 1);
+            state.setPosition(i, k % side, (k / side) % side, k / (side * side));
+        }
+        int last = state.add("touching", 1);
+        state.setPosition(last, 5.05, 5, 5);
+        CollisionDetector detector = detector(CollisionResponse.LOG, 0.1, state.count());
+        detector.setEncounterDistance(0.5);
+
+        assertFalse(detector.detect(state));
+        assertEquals(1, detector.getCollisionCount());
+        assertEquals(0, detector.getEncounterCount());
+        // 接触が続いている間は重ねて数えない
+        detector.detect(state);
+        assertEquals(1, detector.getCollisionCount());
+
+        state.setPosition(last, 5.3, 5, 5);
+        detector.detect(state);
+        assertEquals(1, detector.getEncounterCount());
+    }
+
+    private static NBodySimulation mergingPair() {
+        NBodySimulation simulation = new NBodySimulation();
+        for (String id : new String[] {"a", "b"}) {
+            CelestialBodyData data = new CelestialBodyData();
+            data.id = id;
+            data.name = id;
+            data.mass = 1;
+            data.radius = 100;  // 約0.004 AU
+            simulation.addBody(data);
+        }
+        BodyState state = simulation.getState();
+        state.setPosition(1, 0.1, 0, 0);
+        state.setVelocity(0, 1, 0, 0);
+        simulation.setCollisionResponse(CollisionResponse.MERGE);
+        simulation.saveInitialState();
+
+        for (int s = 0; s < 10; s++) {
+            simulation.step(0.01);
+        }
+        return simulation;
+    }
+
+    @Test
+    void testResetUndoesMerges() {
+        NBodySimulation simulation = mergingPair();
+        BodyState state = simulation.getState();
+        assertFalse(state.active[1]);
+        assertEquals(2, state.mass[0], 1e-12);
+
+        simulation.reset();
+        assertTrue(state.active[1]);
+        assertEquals(1, state.mass[0]);
+        assertEquals(1, state.mass[1]);
+        assertFalse(simulation.getCollisionDetector().isMerged(1));
+    }
+
+    @Test
+    void testMergedBodyCannotBeReactivated() {
+        NBodySimulation simulation = mergingPair();
+        assertTrue(simulation.isMerged(1));
+
+        simulation.setActive(1, true);
+        assertFalse(simulation.getState().active[1]);
+
+        StateSnapshot snapshot = new StateSnapshot();
+        snapshot.copyFrom(simulation, 1);
+        assertTrue(snapshot.isMerged(1));
+        assertFalse(snapshot.isMerged(0));
+    }
+}
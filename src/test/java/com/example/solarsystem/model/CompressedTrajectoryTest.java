@@ -0,0 +1,142 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.example.solarsystem.model.TestBodies.body;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class CompressedTrajectoryTest {
+    private static final double DT = 1.0 / 600;
+    private static final double SAMPLE = 0.01;
+
+    // 同じ軌道を生の記録と圧縮形式の両方に書き出す
+    private static void recordBoth(Path raw, Path compressed, double years, int blockRecords) throws Exception {
+        NBodySimulation simulation = new NBodySimulation();
+        simulation.addBody(body("sun", 333000, 0));
+        simulation.addBody(body("mercury", 0.055, 0.387));
+        simulation.addBody(body("earth", 1, 1));
+        simulation.addBody(body("mars", 0.107, 1.524));
+        simulation.addBody(body("jupiter", 317.8, 5.2));
+        simulation.addBody(body("saturn", 95.2, 9.58));
+        simulation.initializeCircularVelocities();
+        simulation.saveInitialState();
+        simulation.setKeyframeMemoryLimit(0);
+        BodyState state = simulation.getState();
+        try (TrajectoryRecorder recorder = TrajectoryRecorder.create(raw, state);
+             CompressedTrajectoryWriter writer = CompressedTrajectoryWriter.create(compressed, state,
+                 CompressedTrajectoryWriter.DEFAULT_PRECISION, blockRecords)) {
+            int samples = (int) Math.round(years / SAMPLE);
+            int stepsPerSample = (int) Math.round(SAMPLE / DT);
+            for (int k = 0; k <= samples; k++) {
+                if (k > 0) {
+                    for (int s = 0; s < stepsPerSample; s++) {
+                        simulation.step(DT);
+                    }
+                }
+                recorder.record(state, simulation.getCurrentTime());
+                writer.write(state, simulation.getCurrentTime());
+            }
+        } finally {
+            simulation.close();
+        }
+    }
+
+    @Test
+    void testRoundTripWithinPrecisionAndSmallerThanDoubles(@TempDir Path dir) throws Exception {
+        Path raw = dir.resolve("trajectory.bin");
+        Path compressed = dir.resolve("trajectory.trz");
+        recordBoth(raw, compressed, 20, CompressedTrajectoryWriter.DEFAULT_BLOCK_RECORDS);
+
+        long rawSize = Files.size(raw);
+        long compressedSize = Files.size(compressed);
+        assertTrue(rawSize >= 5 * compressedSize,
+            "圧縮率が足りません: " + rawSize + " / " + compressedSize);
+
+        double[] expected = new double[6], actual = new double[6];
+        try (TrajectoryReader original = TrajectoryReader.open(raw);
+             CompressedTrajectoryReader reader = CompressedTrajectoryReader.open(compressed)) {
+            assertEquals(original.getRecordCount(), reader.getRecordCount());
+            assertEquals(original.getStartTime(), reader.getStartTime());
+            assertEquals(original.getEndTime(), reader.getEndTime());
+            assertTrue(CompressedTrajectoryReader.isCompressed(compressed));
+            assertFalse(CompressedTrajectoryReader.isCompressed(raw));
+
+            // 記録した時刻では量子化の誤差（刻みの半分）しかずれない
+            double tolerance = CompressedTrajectoryWriter.DEFAULT_PRECISION / 2 + 1e-15;
+            for (long k = 0; k < original.getRecordCount(); k += 7) {
+                double t = original.timeAt(k);
+                for (int b = 0; b < original.getBodyCount(); b++) {
+                    original.readRecord(k, b, expected);
+                    reader.evaluate(b, t, actual);
+                    for (int c = 0; c < 6; c++) {
+                        assertEquals(expected[c], actual[c], tolerance, "k=" + k + " body=" + b + " c=" + c);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRandomAccessAcrossBlocks(@TempDir Path dir) throws Exception {
+        Path raw = dir.resolve("trajectory.bin");
+        Path compressed = dir.resolve("trajectory.trz");
+        recordBoth(raw, compressed, 2, 16);
+
+        double[] expected = new double[6], scratch = new double[6], actual = new double[6];
+        try (TrajectoryReader original = TrajectoryReader.open(raw);
+             CompressedTrajectoryReader reader = CompressedTrajectoryReader.open(compressed)) {
+            assertEquals(13, reader.getBlockCount());
+            int earth = reader.indexOf("earth");
+            // ブロックの境目をまたぐ補間も含め、順不同に読んでも生の記録とほぼ同じ値になる
+            // （補間した速度には位置の量子化誤差が記録の間隔で割った大きさで効く）
+            double[] times = {1.555, 0.16, 0.155, 0.0, 1.99, 0.7123, 2.5, -1};
+            for (double t : times) {
+                original.evaluate(earth, t, expected, scratch);
+                reader.evaluate(earth, t, actual);
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(expected[c], actual[c], 1e-7, "t=" + t + " c=" + c);
+                    assertEquals(expected[c + 3], actual[c + 3], 1e-5, "t=" + t + " c=" + (c + 3));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRejectsNonIncreasingTimeAndUnfinishedFile(@TempDir Path dir) throws Exception {
+        BodyState state = new BodyState();
+        state.add("sun", 333000);
+        Path file = dir.resolve("t.trz");
+        try (CompressedTrajectoryWriter writer = CompressedTrajectoryWriter.create(file, state)) {
+            writer.write(state, 1);
+            assertThrows(IllegalArgumentException.class, () -> writer.write(state, 1));
+        }
+        // 索引のないファイル（書き出しの途中）は開けない
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = dir.resolve("truncated.trz");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> CompressedTrajectoryReader.open(truncated));
+    }
+
+    @Test
+    void testOpenRecordingDetectsFormat(@TempDir Path dir) throws Exception {
+        Path raw = dir.resolve("trajectory.bin");
+        Path compressed = dir.resolve("trajectory.trz");
+        recordBoth(raw, compressed, 0.1, 4);
+
+        PlaybackSource original = PlaybackSource.openRecording(raw);
+        PlaybackSource packed = PlaybackSource.openRecording(compressed);
+        try {
+            assertInstanceOf(TrajectoryReader.class, original);
+            assertInstanceOf(CompressedTrajectoryReader.class, packed);
+            assertEquals(original.getEndTime(), packed.getEndTime());
+        } finally {
+            ((TrajectoryReader) original).close();
+            ((CompressedTrajectoryReader) packed).close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.example.solarsystem.model.TestBodies.body;
+import static com.example.solarsystem.model.TestBodies.threeBodies;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
+
+public class ConservationMonitorTest {
+    @Test
+    void testSymplecticIntegratorStaysWithinThreshold() {
+        NBodySimulation simulation = threeBodies(IntegratorType.VELOCITY_VERLET);
+        ConservationMonitor monitor = simulation.getConservationMonitor();
+        for (int s = 0; s < 600; s++) {
+            simulation.step(1.0 / 600);
+        }
+        assertEquals(11, monitor.getSampleCount());  // 初期状態 + 60ステップごと
+        assertTrue(monitor.getEnergyDrift() < 1e-6, "energy drift " + monitor.getEnergyDrift());
+        assertTrue(monitor.getMomentumDrift() < 1e-9, "momentum drift " + monitor.getMomentumDrift());
+        assertTrue(monitor.getAngularMomentumDrift() < 1e-9);
+        assertFalse(monitor.hasExceeded());
+    }
+
+    @Test
+    void testPausesWhenDriftExceedsThreshold() {
+        NBodySimulation simulation = threeBodies(IntegratorType.EULER);
+        ConservationMonitor monitor = simulation.getConservationMonitor();
+        monitor.setInterval(1);
+        monitor.setThreshold(1e-4);
+        monitor.setAction(DriftAction.PAUSE);
+        int steps = 0;
+        // 大きすぎる刻み幅
+        while (!simulation.isPaused() && steps < 10000) {
+            simulation.step(0.05);
+            steps++;
+        }
+        assertTrue(simulation.isPaused());
+        assertTrue(monitor.hasExceeded());
+        assertTrue(monitor.getMaxDrift() > 1e-4);
+        assertTrue(steps < 10000);
+    }
+
+    @Test
+    void testRebaselinesWhenBodyIsHidden() {
+        NBodySimulation simulation = threeBodies(IntegratorType.VELOCITY_VERLET);
+        ConservationMonitor monitor = simulation.getConservationMonitor();
+        monitor.setInterval(1);
+        simulation.step(1.0 / 600);
+        double before = monitor.getEnergy();
+        simulation.setActive(2, false);
+        simulation.step(1.0 / 600);
+        // 木星を外すと全エネルギーは大きく変わるが、ずれは新しい基準に対して測る
+        assertNotEquals(before, monitor.getEnergy(), Math.abs(before) * 0.1);
+        assertEquals(0, monitor.getEnergyDrift(), 1e-12);
+    }
+
+    @Test
+    void testSkipsSystemsDrivenByKeplerOrbits() {
+        NBodySimulation simulation = new NBodySimulation();
+        simulation.addBody(body("sun", 333000, 0));
+        simulation.addBody(body("earth", 1, 1));
+        CelestialBodyData jupiter = body("jupiter", 317.8, 5.2);
+        jupiter.propagation = "kepler";
+        simulation.addBody(jupiter);
+        simulation.initializeCircularVelocities();
+        simulation.saveInitialState();
+        ConservationMonitor monitor = simulation.getConservationMonitor();
+        monitor.setInterval(1);
+        monitor.setAction(DriftAction.PAUSE);
+        for (int s = 0; s < 600; s++) {
+            simulation.step(1.0 / 60);
+        }
+        // 軌道要素で動く木星は運動量を保存しないが、それで一時停止してはいけない
+        assertTrue(monitor.isDriven());
+        assertFalse(monitor.isMonitoring());
+        StateSnapshot snapshot = new StateSnapshot();
+        snapshot.copyFrom(simulation, 1);
+        assertFalse(snapshot.isMonitoring(), "ずれが0でも監視していないことを表示側へ伝えるはず");
+        assertFalse(simulation.isPaused());
+        assertFalse(monitor.hasExceeded());
+        assertEquals(0, monitor.getMaxDrift());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
+
+public class FixedTimestepTest {
+    private static int stepsForOneSecond(double displayHz) {
+        FixedTimestep timestep = new FixedTimestep(120, 64);
+        long frame = (long) (1_000_000_000L / displayHz);
+        int steps = 0;
+        for (long t = 0; t + frame <= 1_000_000_000L; t += frame) {
+            steps += timestep.advance(frame);
+        }
+        return steps;
+    }
+
+    @Test
+    void testStepCountIndependentOfDisplayRate() {
+        int at30 = stepsForOneSecond(30);
+        int at60 = stepsForOneSecond(60);
+        int at144 = stepsForOneSecond(144);
+        assertTrue(Math.abs(at30 - 120) <= 1, "30Hz: " + at30);
+        assertTrue(Math.abs(at60 - 120) <= 1, "60Hz: " + at60);
+        assertTrue(Math.abs(at144 - 120) <= 1, "144Hz: " + at144);
+    }
+
+    @Test
+    void testSubStepsAreCapped() {
+        FixedTimestep timestep = new FixedTimestep(60, 5);
+        assertEquals(5, timestep.advance(2_000_000_000L), "1フレームのステップ数は上限で止まるはず");
+        assertTrue(timestep.getDroppedSeconds() > 1.8);
+        assertTrue(timestep.getAlpha() < 1.0, "切り捨て後は蓄積が1ステップ未満になるはず");
+    }
+
+    @Test
+    void testStepListenerSeesEveryStepOfAFrame() {
+        NBodySimulation simulation = new NBodySimulation();
+        CelestialBodyData sun = new CelestialBodyData();
+        sun.id = "sun";
+        sun.name = "sun";
+        sun.mass = 333000;
+        simulation.addBody(sun);
+        simulation.saveInitialState();
+        int[] calls = {0};
+        simulation.setStepListener(sim -> calls[0]++);
+        simulation.update(1_000_000_000L);
+        // 1フレームで複数ステップ進んでも、ステップごとに呼ばれる
+        int steps = simulation.update(1_100_000_000L);
+        assertTrue(steps > 1, "steps " + steps);
+        assertEquals(steps, calls[0]);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegratorTest {
+    private static final double G = NBodySimulation.G;
+
+    // 太陽と離心率0.5の惑星（天体データと同じ単位系）
+    private static BodyState sunAndPlanet() {
+        BodyState state = new BodyState();
+        int sun = state.add("sun", 333000);
+        int planet = state.add("planet", 1);
+        double mu = G * 333001;
+        double a = 1.0, e = 0.5;
+        double rPeri = a * (1 - e);
+        state.setPosition(planet, rPeri, 0, 0);
+        state.setVelocity(planet, 0, 0, Math.sqrt(mu * (2 / rPeri - 1 / a)));
+        // 重心を原点に固定
+        double ratio = 1.0 / 333000;
+        state.setPosition(sun, -rPeri * ratio, 0, 0);
+        state.setVelocity(sun, 0, 0, -state.vz[planet] * ratio);
+        return state;
+    }
+
+    private static double energy(BodyState state) {
+        double kinetic = 0, potential = 0;
+        for (int i = 0; i < state.count(); i++) {
+            kinetic += 0.5 * state.mass[i] * (state.vx[i] * state.vx[i]
+                + state.vy[i] * state.vy[i] + state.vz[i] * state.vz[i]);
+            for (int j = i + 1; j < state.count(); j++) {
+                double dx = state.x[i] - state.x[j];
+                double dy = state.y[i] - state.y[j];
+                double dz = state.z[i] - state.z[j];
+                potential -= G * state.mass[i] * state.mass[j] / Math.sqrt(dx * dx + dy * dy + dz * dz);
+            }
+        }
+        return kinetic + potential;
+    }
+
+    private static double maxEnergyError(IntegratorType type, double dt, int steps) {
+        BodyState state = sunAndPlanet();
+        ForceSolver solver = new DirectForceSolver(G);
+        Integrator integrator = type.create();
+        double e0 = energy(state);
+        double maxError = 0;
+        for (int s = 0; s < steps; s++) {
+            integrator.step(state, solver, dt);
+            maxError = Math.max(maxError, Math.abs((energy(state) - e0) / e0));
+        }
+        return maxError;
+    }
+
+    @Test
+    void testSymplecticSchemesHaveBoundedEnergyError() {
+        // 10周回分
+        assertTrue(maxEnergyError(IntegratorType.LEAPFROG, 1.0 / 500, 5000) < 1e-3);
+        assertTrue(maxEnergyError(IntegratorType.VELOCITY_VERLET, 1.0 / 500, 5000) < 1e-3);
+        assertTrue(maxEnergyError(IntegratorType.YOSHIDA4, 1.0 / 500, 5000) < 1e-5);
+    }
+
+    @Test
+    void testYoshidaBeatsSecondOrderAtLargerStep() {
+        double verlet = maxEnergyError(IntegratorType.VELOCITY_VERLET, 1.0 / 2000, 20000);
+        double yoshida = maxEnergyError(IntegratorType.YOSHIDA4, 1.0 / 200, 2000);
+        assertTrue(yoshida < verlet,
+            String.format("4次法（刻み10倍）の誤差 %.3e は2次法 %.3e より小さいはず", yoshida, verlet));
+    }
+
+    @Test
+    void testEulerDriftsMoreThanVerlet() {
+        double euler = maxEnergyError(IntegratorType.EULER, 1.0 / 500, 5000);
+        double verlet = maxEnergyError(IntegratorType.VELOCITY_VERLET, 1.0 / 500, 5000);
+        assertTrue(euler > verlet);
+    }
+
+    @Test
+    void testFromKey() {
+        assertEquals(IntegratorType.YOSHIDA4, IntegratorType.fromKey("yoshida4", IntegratorType.EULER));
+        assertEquals(IntegratorType.LEAPFROG, IntegratorType.fromKey(null, IntegratorType.LEAPFROG));
+        assertThrows(IllegalArgumentException.class, () -> IntegratorType.fromKey("rk4", IntegratorType.EULER));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
+import com.example.solarsystem.data.CelestialDataLoader.OrbitData;
+
+public class KeplerPropagatorTest {
+    private static OrbitData orbit(double a, double e, double inclination, double period, double initialAngle) {
+        OrbitData orbit = new OrbitData();
+        orbit.semiMajorAxis = a;
+        orbit.eccentricity = e;
+        orbit.inclination = inclination;
+        orbit.period = period;
+        orbit.initialAngle = initialAngle;
+        return orbit;
+    }
+
+    @Test
+    void testSolvesKeplerEquation() {
+        for (double e : new double[] {0.0, 0.3, 0.9, 0.99}) {
+            for (double m = -3.0; m <= 3.0; m += 0.25) {
+                double bigE = KeplerPropagator.solveEccentricAnomaly(m, e);
+                assertEquals(m, bigE - e * Math.sin(bigE), 1e-12, "e=" + e + ", M=" + m);
+            }
+        }
+    }
+
+    @Test
+    void testReturnsToStartAfterOnePeriod() {
+        OrbitData mars = orbit(1.524, 0.0934, 1.85, 1.88, 0.7);
+        double[] start = KeplerPropagator.stateAt(mars, 0.0);
+        double[] later = KeplerPropagator.stateAt(mars, 1.88 * 1000);
+        for (int k = 0; k < 6; k++) {
+            assertEquals(start[k], later[k], 1e-9);
+        }
+    }
+
+    @Test
+    void testSatisfiesVisViva() {
+        double a = 1.524, period = 1.88;
+        double n = 2 * Math.PI / period;
+        double mu = n * n * a * a * a;
+        OrbitData orbit = orbit(a, 0.3, 20, period, 0.0);
+        for (double t = 0; t < period; t += 0.1) {
+            double[] s = KeplerPropagator.stateAt(orbit, t);
+            double r = Math.sqrt(s[0] * s[0] + s[1] * s[1] + s[2] * s[2]);
+            double v2 = s[3] * s[3] + s[4] * s[4] + s[5] * s[5];
+            assertEquals(mu * (2 / r - 1 / a), v2, 1e-9);
+        }
+    }
+
+    @Test
+    void testKinematicBodiesFollowTimeDuringIntegration() {
+        BodyState state = new BodyState();
+        int sun = state.add("sun", 333000);
+        int earth = state.add("earth", 1);
+        KeplerPropagator propagator = new KeplerPropagator();
+        propagator.register(state, earth, orbit(1, 0.0167, 0, 1, 0));
+        state.setKinematicSource(propagator);
+        state.setTime(0);
+
+        Integrator integrator = IntegratorType.YOSHIDA4.create();
+        ForceSolver solver = new DirectForceSolver(NBodySimulation.G);
+        for (int s = 0; s < 250; s++) {
+            integrator.step(state, solver, 0.001);
+        }
+        double[] expected = KeplerPropagator.stateAt(orbit(1, 0.0167, 0, 1, 0), state.time);
+        assertEquals(0.25, state.time, 1e-12);
+        assertEquals(expected[0], state.x[earth], 1e-12);
+        assertEquals(expected[2], state.z[earth], 1e-12);
+        assertTrue(state.x[sun] != 0 || state.z[sun] != 0, "積分される太陽は地球に引かれて動くはず");
+    }
+
+    @Test
+    void testRejectedBodiesLeaveNoSlotBehind() {
+        String[][] catalog = {
+            {"sun", null, "0"},
+            {"comet", "kepler", "1.5"},  // 双曲線軌道は解析的に扱えない
+            {"probe", "warp", "0"},      // 不明な伝播方式
+            {"earth", "kepler", "0.0167"},
+        };
+        NBodySimulation simulation = new NBodySimulation();
+        int added = 0;
+        // 天体の管理側と同じく、追加できない天体は飛ばして続ける
+        for (String[] entry : catalog) {
+            CelestialBodyData data = new CelestialBodyData();
+            data.id = entry[0];
+            data.name = entry[0];
+            data.mass = entry[0].equals("sun") ? 333000 : 1;
+            data.propagation = entry[1];
+            data.orbit = orbit(entry[0].equals("sun") ? 0 : 1, Double.parseDouble(entry[2]), 0, 1, 0);
+            try {
+                assertEquals(added, simulation.addBody(data));
+                added++;
+            } catch (IllegalArgumentException e) {
+                // 想定どおり
+            }
+        }
+        BodyState state = simulation.getState();
+        assertEquals(2, state.count());
+        assertEquals("sun", state.getId(0));
+        assertEquals("earth", state.getId(1));
+    }
+}
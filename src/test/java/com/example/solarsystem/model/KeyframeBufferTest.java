@@ -0,0 +1,82 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.example.solarsystem.model.TestBodies.threeBodies;
+
+public class KeyframeBufferTest {
+    @Test
+    void testOverwritesOldestWithinMemoryCap() {
+        int length = 10;
+        long bytesPerFrame = (length + 1) * Double.BYTES;
+        KeyframeBuffer buffer = new KeyframeBuffer(bytesPerFrame * 4);
+        for (int k = 0; k < 10; k++) {
+            buffer.beginWrite(k, length)[0] = k;
+        }
+        assertEquals(4, buffer.capacity());
+        assertEquals(4, buffer.size());
+        assertTrue(buffer.getAllocatedBytes() <= buffer.getMaxBytes());
+        assertEquals(6.0, buffer.timeAt(0));
+        assertEquals(9.0, buffer.get(3)[0]);
+    }
+
+    @Test
+    void testSkipsFramesLargerThanCap() {
+        KeyframeBuffer buffer = new KeyframeBuffer(64);
+        assertNull(buffer.beginWrite(0, 100));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testFindsAndTruncates() {
+        KeyframeBuffer buffer = new KeyframeBuffer();
+        for (int k = 0; k < 5; k++) {
+            buffer.beginWrite(k * 0.5, 1);
+        }
+        assertEquals(-1, buffer.findAtOrBefore(-0.1));
+        assertEquals(2, buffer.findAtOrBefore(1.2));
+        assertEquals(4, buffer.findAtOrBefore(100));
+        buffer.truncateAfter(1.0);
+        assertEquals(3, buffer.size());
+        assertEquals(2, buffer.findAtOrBefore(100));
+    }
+
+    @Test
+    void testSeekBackReproducesTrajectory() {
+        double dt = 1.0 / 60;
+        NBodySimulation simulation = threeBodies();
+        BodyState state = simulation.getState();
+        for (int s = 0; s < 30; s++) {
+            simulation.step(dt);
+        }
+        double x = state.x[1], z = state.z[1], time = simulation.getCurrentTime();
+        for (int s = 0; s < 60; s++) {
+            simulation.step(dt);
+        }
+        assertTrue(simulation.getKeyframes().size() > 2);
+
+        simulation.seek(time);
+        assertEquals(time, simulation.getCurrentTime(), 1e-12);
+        // 再積分の刻み幅は物理更新レートから求めるため、丸めの差だけずれる
+        assertEquals(x, state.x[1], 1e-9);
+        assertEquals(z, state.z[1], 1e-9);
+        // 移動先より後のキーフレームは捨てられている
+        int last = simulation.getKeyframes().size() - 1;
+        assertTrue(simulation.getKeyframes().timeAt(last) <= time + 1e-12);
+    }
+
+    @Test
+    void testSeekBeforeOldestKeyframeFallsBackToInitialState() {
+        double dt = 1.0 / 60;
+        NBodySimulation simulation = threeBodies();
+        simulation.setKeyframeMemoryLimit((3 + 3 * 6 + 1) * Double.BYTES * 2);
+        BodyState state = simulation.getState();
+        simulation.step(dt);
+        double x = state.x[1];
+        for (int s = 0; s < 60; s++) {
+            simulation.step(dt);
+        }
+        simulation.seek(dt);
+        assertEquals(x, state.x[1], 1e-9);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+
+public class NeighbourListForceSolverTest {
+    private static final double G = NBodySimulation.G;
+
+    // 太陽・惑星4個・小天体300個（円盤状に分布）
+    private static BodyState planetarySystem() {
+        Random random = new Random(11);
+        BodyState state = new BodyState();
+        state.add("sun", 333000);
+        double[] planetRadii = {1.0, 5.2, 9.5, 19.2};
+        double[] planetMasses = {1.0, 317.8, 95.2, 14.5};
+        for (int k = 0; k < planetRadii.length; k++) {
+            int i = state.add("planet" + k, planetMasses[k]);
+            double angle = random.nextDouble() * 2 * Math.PI;
+            state.setPosition(i, planetRadii[k] * Math.cos(angle), 0, planetRadii[k] * Math.sin(angle));
+        }
+        for (int k = 0; k < 300; k++) {
+            int i = state.add("minor" + k, 1e-5 * random.nextDouble());
+            double r = 2 + 28 * random.nextDouble();
+            double angle = random.nextDouble() * 2 * Math.PI;
+            state.setPosition(i, r * Math.cos(angle), 0.05 * r * random.nextGaussian(), r * Math.sin(angle));
+        }
+        return state;
+    }
+
+    @Test
+    void testErrorStaysWithinReportedBound() {
+        double tolerance = 1e-4;
+        BodyState exact = planetarySystem();
+        new DirectForceSolver(G).computeAccelerations(exact);
+
+        BodyState pruned = planetarySystem();
+        NeighbourListForceSolver solver = new NeighbourListForceSolver(G, tolerance, 16);
+        solver.computeAccelerations(pruned);
+
+        assertTrue(solver.getErrorBound() <= tolerance);
+        for (int i = 0; i < exact.count(); i++) {
+            double ex = pruned.ax[i] - exact.ax[i];
+            double ey = pruned.ay[i] - exact.ay[i];
+            double ez = pruned.az[i] - exact.az[i];
+            double norm = Math.sqrt(exact.ax[i] * exact.ax[i] + exact.ay[i] * exact.ay[i] + exact.az[i] * exact.az[i]);
+            double error = Math.sqrt(ex * ex + ey * ey + ez * ez) / norm;
+            assertTrue(error <= solver.getErrorBound() * (1 + 1e-9) + 1e-12, "body " + i + ": " + error);
+        }
+        // 小天体同士の組み合わせはほとんど間引かれる
+        assertTrue(solver.getPairFraction() < 0.1, "pair fraction " + solver.getPairFraction());
+    }
+
+    @Test
+    void testZeroToleranceMatchesDirectSummation() {
+        BodyState exact = planetarySystem();
+        new DirectForceSolver(G).computeAccelerations(exact);
+        BodyState pruned = planetarySystem();
+        NeighbourListForceSolver solver = new NeighbourListForceSolver(G, 0, 16);
+        solver.computeAccelerations(pruned);
+        assertEquals(0.0, solver.getErrorBound());
+        for (int i = 0; i < exact.count(); i++) {
+            assertEquals(exact.ax[i], pruned.ax[i], 1e-12 * Math.abs(exact.ax[i]) + 1e-18);
+        }
+    }
+
+    @Test
+    void testRebuildsPeriodicallyAndOnVisibilityChange() {
+        BodyState state = planetarySystem();
+        NeighbourListForceSolver solver = new NeighbourListForceSolver(G, 1e-4, 4);
+        solver.computeAccelerations(state);
+        double fraction = solver.getPairFraction();
+        state.active[2] = false;
+        solver.computeAccelerations(state);
+        assertNotEquals(fraction, solver.getPairFraction());
+        assertEquals(0.0, state.ax[2]);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.example.solarsystem.model.TestBodies.randomCloud;
+import java.util.Arrays;
+
+public class ParallelForceSolverTest {
+    private static final double G = 1.0;
+
+    private static double[] flatten(BodyState state) {
+        int n = state.count();
+        double[] result = new double[n * 3];
+        System.arraycopy(state.ax, 0, result, 0, n);
+        System.arraycopy(state.ay, 0, result, n, n);
+        System.arraycopy(state.az, 0, result, n * 2, n);
+        return result;
+    }
+
+    private static void assertMatchesSequential(ForceSolver kernel) {
+        BodyState state = randomCloud(3000, 42);
+        kernel.computeAccelerations(state);
+        double[] sequential = flatten(state);
+
+        for (int threads : new int[] {2, 3, 8}) {
+            state.clearAccelerations();
+            try (ParallelForceSolver parallel = new ParallelForceSolver(kernel, threads)) {
+                parallel.computeAccelerations(state);
+            }
+            assertTrue(Arrays.equals(sequential, flatten(state)),
+                threads + "スレッドの結果が逐次計算とビット単位で一致するはず");
+        }
+    }
+
+    @Test
+    void testDirectSummationIsDeterministic() {
+        assertMatchesSequential(new DirectForceSolver(G));
+    }
+
+    @Test
+    void testBarnesHutIsDeterministic() {
+        assertMatchesSequential(new BarnesHutForceSolver(G, 0.6, 0));
+    }
+}
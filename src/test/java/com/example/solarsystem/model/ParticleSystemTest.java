@@ -0,0 +1,138 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.example.solarsystem.model.TestBodies.body;
+import com.example.solarsystem.data.CelestialDataLoader.ParticleDistributionData;
+import com.example.solarsystem.data.CelestialDataLoader.ParticlePopulationData;
+
+import java.util.ArrayList;
+
+public class ParticleSystemTest {
+    private static NBodySimulation sunAndJupiter() {
+        NBodySimulation simulation = new NBodySimulation();
+        simulation.addBody(body("sun", 333000, 0));
+        simulation.addBody(body("jupiter", 317.8, 5.2));
+        simulation.initializeCircularVelocities();
+        return simulation;
+    }
+
+    private static ParticlePopulationData belt(int count, String precision) {
+        ParticlePopulationData data = new ParticlePopulationData();
+        data.id = "belt";
+        data.precision = precision;
+        data.distribution = new ParticleDistributionData();
+        data.distribution.count = count;
+        data.distribution.semiMajorAxisMin = 2.1;
+        data.distribution.semiMajorAxisMax = 3.3;
+        data.distribution.eccentricityMax = 0.2;
+        data.distribution.inclinationMax = 10;
+        data.distribution.seed = 1;
+        return data;
+    }
+
+    @Test
+    void testParticleFollowsMassiveBodyTrajectory() {
+        // 同じ初期条件の軽い天体と試験粒子はほぼ同じ軌道をたどる
+        NBodySimulation simulation = sunAndJupiter();
+        simulation.addBody(body("probe", 1e-12, 1.0));
+        simulation.initializeCircularVelocities();
+        BodyState state = simulation.getState();
+
+        ParticlePopulationData data = new ParticlePopulationData();
+        data.id = "probe";
+        data.precision = "float64";
+        data.orbits = new ArrayList<>();
+        ParticleSystem particles = simulation.addParticlePopulation(data);
+        particles.add(state.x[2], state.y[2], state.z[2], state.vx[2], state.vy[2], state.vz[2]);
+
+        for (int s = 0; s < 600; s++) {
+            simulation.step(1.0 / 600);
+        }
+        assertEquals(state.x[2], particles.getX(0), 1e-6);
+        assertEquals(state.z[2], particles.getZ(0), 1e-6);
+    }
+
+    @Test
+    void testParticlesDoNotPerturbMassiveBodies() {
+        NBodySimulation reference = sunAndJupiter();
+        NBodySimulation withBelt = sunAndJupiter();
+        withBelt.addParticlePopulation(belt(2000, "float32"));
+        for (int s = 0; s < 60; s++) {
+            reference.step(1.0 / 60);
+            withBelt.step(1.0 / 60);
+        }
+        BodyState a = reference.getState(), b = withBelt.getState();
+        for (int i = 0; i < a.count(); i++) {
+            assertEquals(a.x[i], b.x[i]);
+            assertEquals(a.z[i], b.z[i]);
+        }
+    }
+
+    @Test
+    void testGeneratedBeltStaysWithinDistribution() {
+        NBodySimulation simulation = sunAndJupiter();
+        ParticleSystem particles = simulation.addParticlePopulation(belt(5000, "float32"));
+        assertTrue(particles.isSinglePrecision());
+        assertEquals(36, particles.bytesPerParticle());
+        assertEquals(5000, particles.count());
+        for (int s = 0; s < 120; s++) {
+            simulation.step(1.0 / 60);
+        }
+        for (int i = 0; i < particles.count(); i++) {
+            double r = Math.sqrt(particles.getX(i) * particles.getX(i)
+                + particles.getY(i) * particles.getY(i) + particles.getZ(i) * particles.getZ(i));
+            assertTrue(r > 2.1 * 0.75 && r < 3.3 * 1.25, "r=" + r);
+        }
+    }
+
+    @Test
+    void testResetRestoresParticles() {
+        NBodySimulation simulation = sunAndJupiter();
+        ParticleSystem particles = simulation.addParticlePopulation(belt(10, "float64"));
+        simulation.saveInitialState();
+        double x = particles.getX(3);
+        for (int s = 0; s < 30; s++) {
+            simulation.step(1.0 / 60);
+        }
+        assertNotEquals(x, particles.getX(3));
+        simulation.reset();
+        assertEquals(x, particles.getX(3));
+    }
+
+    @Test
+    void testSinglePrecisionKeyframesAreHalfSizeAndExact() {
+        NBodySimulation single = sunAndJupiter();
+        ParticleSystem particles = single.addParticlePopulation(belt(100, "float32"));
+        NBodySimulation full = sunAndJupiter();
+        full.addParticlePopulation(belt(100, "float64"));
+        assertEquals(full.keyframeLength() - 100 * 3, single.keyframeLength());
+
+        single.saveInitialState();
+        double[] frame = new double[single.keyframeLength()];
+        for (int s = 0; s < 30; s++) {
+            single.step(1.0 / 60);
+        }
+        single.writeKeyframe(frame);
+        double x = particles.getX(7), vz = particles.getVz(7);
+        single.step(1.0 / 60);
+        assertNotEquals(x, particles.getX(7));
+        // 詰めたビットから元のfloatがそのまま戻る
+        single.readKeyframe(frame);
+        assertEquals(x, particles.getX(7));
+        assertEquals(vz, particles.getVz(7));
+    }
+
+    @Test
+    void testPrecisionDefaultsToFloat64() {
+        NBodySimulation simulation = sunAndJupiter();
+        assertFalse(simulation.addParticlePopulation(belt(1, null)).isSinglePrecision());
+        assertFalse(simulation.addParticlePopulation(belt(1, "")).isSinglePrecision());
+    }
+
+    @Test
+    void testRejectsUnknownPrecision() {
+        NBodySimulation simulation = sunAndJupiter();
+        assertThrows(IllegalArgumentException.class, () -> simulation.addParticlePopulation(belt(1, "float16")));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
+import com.example.solarsystem.data.CelestialDataLoader.OrbitData;
+
+public class SatelliteSystemTest {
+    private static CelestialBodyData body(String id, String parent, double mass, double a, double period) {
+        CelestialBodyData data = new CelestialBodyData();
+        data.id = id;
+        data.name = id;
+        data.parent = parent;
+        data.mass = mass;
+        data.orbit = new OrbitData();
+        data.orbit.semiMajorAxis = a;
+        data.orbit.period = period;
+        return data;
+    }
+
+    private static NBodySimulation earthMoon() {
+        NBodySimulation simulation = new NBodySimulation();
+        simulation.addBody(body("sun", null, 333000, 0, 0));
+        simulation.addBody(body("moon", "earth", 0.0123, 0.00257, 0.0748));
+        simulation.addBody(body("earth", null, 1, 1, 1));
+        simulation.initializeCircularVelocities();
+        simulation.saveInitialState();
+        return simulation;
+    }
+
+    private static double distance(BodyState s, int i, int j) {
+        double dx = s.x[i] - s.x[j], dy = s.y[i] - s.y[j], dz = s.z[i] - s.z[j];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    @Test
+    void testParentCarriesSystemMass() {
+        NBodySimulation simulation = earthMoon();
+        BodyState state = simulation.getState();
+        assertEquals(1.0123, state.mass[2], 1e-12);
+        assertEquals(0.0, state.mass[1]);
+        assertTrue(state.kinematic[1]);
+        assertEquals(1, simulation.getSatelliteSystems().size());
+        assertEquals(0.00257, distance(state, 1, 2), 1e-12);
+    }
+
+    @Test
+    void testMoonStaysBoundWithCoarseParentStep() {
+        NBodySimulation simulation = earthMoon();
+        BodyState state = simulation.getState();
+        SatelliteSystem system = simulation.getSatelliteSystems().get(0);
+        double dt = 1.0 / 60;
+        // 親の刻み幅は月の周期より粗いが、衛星系は細かく分割して進める
+        // （距離の揺らぎは太陽の潮汐による摂動で、数%程度になる）
+        assertTrue(system.getMaxStep() < dt);
+        for (int s = 0; s < 60; s++) {
+            simulation.step(dt);
+            assertEquals(0.00257, distance(state, 1, 2), 0.00257 * 0.05);
+        }
+        assertEquals(1.0, distance(state, 0, 2), 0.01);
+    }
+
+    @Test
+    void testIsolatedSatelliteKeepsCircularOrbit() {
+        NBodySimulation simulation = new NBodySimulation();
+        simulation.addBody(body("earth", null, 1, 0, 0));
+        simulation.addBody(body("moon", "earth", 0.0123, 0.00257, 0.0748));
+        simulation.initializeCircularVelocities();
+        BodyState state = simulation.getState();
+        for (int s = 0; s < 60; s++) {
+            simulation.step(1.0 / 60);
+            assertEquals(0.00257, distance(state, 0, 1), 0.00257 * 1e-3);
+        }
+    }
+
+    @Test
+    void testResetRestoresSatellites() {
+        NBodySimulation simulation = earthMoon();
+        BodyState state = simulation.getState();
+        double x = state.x[1], z = state.z[1];
+        for (int s = 0; s < 10; s++) {
+            simulation.step(1.0 / 60);
+        }
+        simulation.reset();
+        simulation.step(0);
+        assertEquals(x, state.x[1], 1e-12);
+        assertEquals(z, state.z[1], 1e-12);
+    }
+
+    @Test
+    void testMissingParentFallsBackToHeliocentricOrbit() {
+        NBodySimulation simulation = new NBodySimulation();
+        simulation.addBody(body("sun", null, 333000, 0, 0));
+        simulation.addBody(body("moon", "nowhere", 0.0123, 1.5, 1.84));
+        simulation.initializeCircularVelocities();
+        BodyState state = simulation.getState();
+        // 親が見つからない天体は、太陽に重ならず軌道半径の位置で周回する通常の天体になる
+        assertFalse(state.kinematic[1]);
+        assertEquals(1.5, distance(state, 0, 1), 1e-12);
+        double speed = Math.sqrt(state.vx[1] * state.vx[1] + state.vz[1] * state.vz[1]);
+        assertTrue(speed > 0, "円軌道の速度が与えられるはず");
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.solarsystem.model;
+
+import com.example.solarsystem.data.CelestialDataLoader.CelestialBodyData;
+import com.example.solarsystem.data.CelestialDataLoader.OrbitData;
+
+import java.util.Random;
+
+// 複数のテストで使う天体の組み合わせ
+final class TestBodies {
+    private TestBodies() {
+    }
+
+    // 円軌道（速度はinitializeCircularVelocitiesで与える）の天体
+    static CelestialBodyData body(String id, double mass, double a) {
+        CelestialBodyData data = new CelestialBodyData();
+        data.id = id;
+        data.name = id;
+        data.mass = mass;
+        data.orbit = new OrbitData();
+        data.orbit.semiMajorAxis = a;
+        return data;
+    }
+
+    // 太陽・地球・木星（初期状態を保存済み）
+    static NBodySimulation threeBodies() {
+        return threeBodies(new NBodySimulation());
+    }
+
+    static NBodySimulation threeBodies(IntegratorType type) {
+        NBodySimulation simulation = new NBodySimulation();
+        simulation.setIntegratorType(type);
+        return threeBodies(simulation);
+    }
+
+    private static NBodySimulation threeBodies(NBodySimulation simulation) {
+        simulation.addBody(body("sun", 333000, 0));
+        simulation.addBody(body("earth", 1, 1));
+        simulation.addBody(body("jupiter", 317.8, 5.2));
+        simulation.initializeCircularVelocities();
+        simulation.saveInitialState();
+        return simulation;
+    }
+
+    // 原点付近に正規分布で散らばった質量0.5〜1.5の天体（速度0）
+    static BodyState randomCloud(int n, long seed) {
+        Random random = new Random(seed);
+        BodyState state = new BodyState(n);
+        for (int i = 0; i < n; i++) {
+            int index = state.add("body" + i, 0.5 + random.nextDouble());
+            state.setPosition(index, random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+        }
+        return state;
+    }
+}
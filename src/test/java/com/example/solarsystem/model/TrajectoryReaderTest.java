@@ -0,0 +1,88 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+public class TrajectoryReaderTest {
+    private static final double STEP = 0.05;  // 記録の間隔（ラジアン）
+
+    // 単位円上を等速で回る天体を記録する
+    private static Path recordCircle(Path dir, int records) throws Exception {
+        Path file = dir.resolve("trajectory.bin");
+        BodyState state = new BodyState();
+        state.add("sun", 333000);
+        state.add("earth", 1);
+        try (TrajectoryRecorder recorder = TrajectoryRecorder.create(file, state, 4096)) {
+            for (int k = 0; k < records; k++) {
+                double t = k * STEP;
+                state.setPosition(1, Math.cos(t), 0, Math.sin(t));
+                state.setVelocity(1, -Math.sin(t), 0, Math.cos(t));
+                while (!recorder.record(state, t)) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void testInterpolatesBetweenRecords(@TempDir Path dir) throws Exception {
+        Path file = recordCircle(dir, 200);
+        try (TrajectoryReader reader = TrajectoryReader.open(file)) {
+            assertEquals(200, reader.getRecordCount());
+            assertEquals(0, reader.getStartTime());
+            assertEquals(199 * STEP, reader.getEndTime(), 1e-12);
+            assertEquals(1, reader.indexOf("earth"));
+
+            // レコードの間でもエルミート補間で円軌道からほとんど外れない
+            double[] out = new double[6], scratch = new double[6];
+            for (double t = 0.013; t < reader.getEndTime(); t += 0.37) {
+                reader.evaluate(1, t, out, scratch);
+                assertEquals(Math.cos(t), out[0], 1e-6);
+                assertEquals(Math.sin(t), out[2], 1e-6);
+                assertEquals(-Math.sin(t), out[3], 1e-4);
+                assertEquals(Math.cos(t), out[5], 1e-4);
+            }
+        }
+    }
+
+    @Test
+    void testRandomAccessAcrossPages(@TempDir Path dir) throws Exception {
+        Path file = recordCircle(dir, 500);
+        // 1ページに数レコードしか入らない大きさで開き、ページの切り替えと破棄を通す
+        try (TrajectoryReader reader = TrajectoryReader.open(file, 512)) {
+            double[] times = {20.0, 0.4, 24.9, 3.3, 12.1, 12.15, 12.05, 0.0};
+            double[] out = new double[6], scratch = new double[6];
+            for (double t : times) {
+                reader.evaluate(1, t, out, scratch);
+                assertEquals(Math.cos(t), out[0], 1e-6, "t=" + t);
+                assertEquals(Math.sin(t), out[2], 1e-6, "t=" + t);
+            }
+            // 範囲外は端のレコードに留める
+            reader.evaluate(1, -5, out, scratch);
+            assertEquals(1, out[0], 1e-12);
+            reader.evaluate(1, 1000, out, scratch);
+            assertEquals(Math.cos(499 * STEP), out[0], 1e-12);
+        }
+    }
+
+    @Test
+    void testEvaluatesIntoStateById(@TempDir Path dir) throws Exception {
+        Path file = recordCircle(dir, 50);
+        BodyState state = new BodyState();
+        state.add("moon", 0.0123);
+        state.add("earth", 1);
+        state.setPosition(0, 7, 7, 7);
+        try (TrajectoryReader reader = TrajectoryReader.open(file)) {
+            reader.evaluate(state, 1.0);
+        }
+        assertEquals(Math.cos(1.0), state.x[1], 1e-6);
+        assertEquals(Math.sin(1.0), state.z[1], 1e-6);
+        assertEquals(1.0, state.time);
+        // 記録にない天体はそのまま
+        assertEquals(7, state.x[0]);
+    }
+}
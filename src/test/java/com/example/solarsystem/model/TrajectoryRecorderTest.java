@@ -0,0 +1,113 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TrajectoryRecorderTest {
+    private static BodyState twoBodies() {
+        BodyState state = new BodyState();
+        state.add("sun", 333000);
+        state.add("地球", 1);
+        return state;
+    }
+
+    private static void move(BodyState state, double t) {
+        state.setPosition(1, Math.cos(t), 0, Math.sin(t));
+        state.setVelocity(1, -Math.sin(t), 0, Math.cos(t));
+    }
+
+    // レコードが書けるまで繰り返す（領域の準備が間に合わない場合は書かずに戻る）
+    private static void recordEventually(TrajectoryRecorder recorder, BodyState state, double t) throws Exception {
+        while (!recorder.record(state, t)) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testWritesHeaderAndFixedWidthRecords(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("trajectory.bin");
+        BodyState state = twoBodies();
+        int records = 100;
+        // 小さな領域で、別スレッドでのマップの切り替えも通す
+        try (TrajectoryRecorder recorder = TrajectoryRecorder.create(file, state, 1024)) {
+            for (int k = 0; k < records; k++) {
+                move(state, k * 0.1);
+                recordEventually(recorder, state, k * 0.1);
+            }
+            assertEquals(records, recorder.getRecordCount());
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(TrajectoryRecorder.MAGIC, buffer.getInt(0));
+        assertEquals(2, buffer.getInt(8));
+        int recordSize = buffer.getInt(12);
+        int headerSize = buffer.getInt(16);
+        assertEquals(8 * (1 + 12), recordSize);
+        assertEquals(0, headerSize % 8);
+        assertEquals(records, buffer.getLong(TrajectoryRecorder.RECORD_COUNT_OFFSET));
+        assertEquals(headerSize + (long) records * recordSize, buffer.capacity());
+        assertEquals(9.9, buffer.getDouble(TrajectoryRecorder.LAST_TIME_OFFSET), 1e-12);
+
+        int offset = TrajectoryRecorder.IDS_OFFSET;
+        String[] ids = new String[2];
+        for (int b = 0; b < 2; b++) {
+            byte[] bytes = new byte[buffer.getShort(offset)];
+            buffer.get(offset + 2, bytes);
+            ids[b] = new String(bytes, StandardCharsets.UTF_8);
+            offset += 2 + bytes.length;
+        }
+        assertArrayEquals(new String[] {"sun", "地球"}, ids);
+
+        int record = headerSize + 37 * recordSize;
+        assertEquals(3.7, buffer.getDouble(record), 1e-12);
+        assertEquals(Math.cos(3.7), buffer.getDouble(record + 8 + 48), 1e-12);
+        assertEquals(Math.cos(3.7), buffer.getDouble(record + 8 + 48 + 40), 1e-12);
+    }
+
+    @Test
+    void testRecordWaitingNeverDrops(@TempDir Path dir) throws Exception {
+        BodyState state = twoBodies();
+        int records = 2000;
+        // 1領域に数レコードしか入らない大きさで、マップを待たずに続けて書く
+        try (TrajectoryRecorder recorder = TrajectoryRecorder.create(dir.resolve("trajectory.bin"), state, 512)) {
+            for (int k = 0; k < records; k++) {
+                move(state, k * 0.01);
+                recorder.recordWaiting(state, k * 0.01);
+            }
+            assertEquals(records, recorder.getRecordCount());
+            assertEquals(0, recorder.getDroppedCount());
+        }
+    }
+
+    @Test
+    void testRewindDiscardsLaterRecords(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("trajectory.bin");
+        BodyState state = twoBodies();
+        try (TrajectoryRecorder recorder = TrajectoryRecorder.create(file, state)) {
+            for (int k = 0; k < 10; k++) {
+                recorder.record(state, k);
+            }
+            // 4年へ巻き戻して記録し直す
+            assertTrue(recorder.record(state, 4));
+            assertEquals(5, recorder.getRecordCount());
+            assertEquals(4, recorder.getLastTime());
+            assertEquals(0, recorder.getFirstTime());
+        }
+    }
+
+    @Test
+    void testRejectsChangedBodyCount(@TempDir Path dir) throws Exception {
+        BodyState state = twoBodies();
+        try (TrajectoryRecorder recorder = TrajectoryRecorder.create(dir.resolve("t.bin"), state)) {
+            state.add("moon", 0.0123);
+            assertThrows(IllegalArgumentException.class, () -> recorder.record(state, 0));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.solarsystem.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.example.solarsystem.model.TestBodies.randomCloud;
+
+public class VectorForceSolverTest {
+    private static final double G = 1.0;
+
+    private static void assertMatchesScalar(BodyState state, ForceSolver vector) {
+        BodyState scalar = new BodyState();
+        scalar.copyFrom(state);
+        new DirectForceSolver(G).computeAccelerations(scalar);
+        vector.computeAccelerations(state);
+        for (int i = 0; i < state.count(); i++) {
+            double norm = Math.sqrt(scalar.ax[i] * scalar.ax[i] + scalar.ay[i] * scalar.ay[i]
+                + scalar.az[i] * scalar.az[i]);
+            double tolerance = 1e-12 * Math.max(norm, 1.0);
+            assertEquals(scalar.ax[i], state.ax[i], tolerance, "ax[" + i + "]");
+            assertEquals(scalar.ay[i], state.ay[i], tolerance, "ay[" + i + "]");
+            assertEquals(scalar.az[i], state.az[i], tolerance, "az[" + i + "]");
+        }
+    }
+
+    @Test
+    void testMatchesScalarKernel() {
+        // レーン数で割り切れない天体数も確認する
+        for (int n : new int[] {1, 3, 7, 64, 1001}) {
+            assertMatchesScalar(randomCloud(n, n), new VectorForceSolver(G));
+        }
+    }
+
+    @Test
+    void testSkipsInactiveAndCoincidentBodies() {
+        BodyState state = randomCloud(37, 7);
+        state.active[3] = false;
+        state.active[20] = false;
+        state.setPosition(5, state.x[4], state.y[4], state.z[4]);
+        assertMatchesScalar(state, new VectorForceSolver(G));
+        assertEquals(0.0, state.ax[3]);
+    }
+
+    @Test
+    void testRunsUnderParallelSolver() {
+        BodyState state = randomCloud(500, 3);
+        try (ParallelForceSolver parallel = new ParallelForceSolver(new VectorForceSolver(G), 4)) {
+            assertMatchesScalar(state, parallel);
+        }
+    }
+}